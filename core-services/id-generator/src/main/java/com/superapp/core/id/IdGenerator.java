@@ -0,0 +1,23 @@
+package com.superapp.core.id;
+
+/**
+ * ID Generator
+ *
+ * Source of unique, roughly time-ordered 64-bit ids and the business numbers derived from them
+ */
+public interface IdGenerator {
+
+    /**
+     * Next id; ids from one generator are strictly increasing
+     */
+    long nextId();
+
+    /**
+     * Next business number, e.g. TXN-01HV3K8Q2M0ZA or PAY-01HV3K8Q2M0ZA
+     */
+    String nextNumber(String prefix);
+}
+
+
+
+
@@ -0,0 +1,25 @@
+package com.superapp.core.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ID Generator Configuration
+ *
+ * Provides the service's {@link IdGenerator}, a {@link KSortableIdGenerator} with the node id in
+ * superapp.id.node-id. Every instance of every service writing ids to the same tables needs its own
+ * node id. Services pull it in with @Import(IdGeneratorConfig.class).
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${superapp.id.node-id:-1}") long nodeId) {
+        return new KSortableIdGenerator(nodeId);
+    }
+}
+
+
+
+
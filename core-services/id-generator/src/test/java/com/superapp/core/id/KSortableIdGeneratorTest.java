@@ -0,0 +1,126 @@
+package com.superapp.core.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KSortableIdGeneratorTest {
+
+    private static final long NOW = KSortableIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void nextId_underConcurrentLoad_shouldBeUniqueAndIncreasingPerThread() throws Exception {
+        // Given
+        int threads = 16;
+        int idsPerThread = 100_000;
+        KSortableIdGenerator generator = new KSortableIdGenerator(7, System::currentTimeMillis);
+        Set<Long> seen = ConcurrentHashMap.newKeySet(threads * idsPerThread);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                long previous = Long.MIN_VALUE;
+                boolean increasing = true;
+                for (int i = 0; i < idsPerThread; i++) {
+                    long id = generator.nextId();
+                    increasing &= id > previous;
+                    previous = id;
+                    seen.add(id);
+                }
+                return increasing;
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+        executor.shutdown();
+        assertThat(seen).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void nextId_whenClockStandsStillOrStepsBack_shouldStayMonotonic() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        KSortableIdGenerator generator = new KSortableIdGenerator(1, clock::get);
+
+        // When: more ids than one millisecond's sequence space, then the clock jumps back
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+        clock.set(NOW - 5_000);
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Then
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void nextId_differentNodes_shouldNotCollide() {
+        // Given
+        KSortableIdGenerator first = new KSortableIdGenerator(1, () -> NOW);
+        KSortableIdGenerator second = new KSortableIdGenerator(2, () -> NOW);
+
+        // When
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        // Then
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    void nextNumber_shouldBeFixedWidthAndSortLikeIds() {
+        // Given
+        KSortableIdGenerator generator = new KSortableIdGenerator(3, System::currentTimeMillis);
+
+        // When
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            numbers.add(generator.nextNumber("TXN"));
+        }
+
+        // Then
+        assertThat(numbers).isSorted().allMatch(number -> number.matches("TXN-[0-9A-HJKMNP-TV-Z]{13}"));
+    }
+
+    @Test
+    void constructor_withNodeIdOutOfRange_shouldThrow() {
+        assertThatThrownBy(() -> new KSortableIdGenerator(KSortableIdGenerator.MAX_NODE_ID + 1, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructor_withoutConfiguredNodeId_shouldThrow() {
+        assertThatThrownBy(() -> new KSortableIdGenerator(-1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
+
+
+
+
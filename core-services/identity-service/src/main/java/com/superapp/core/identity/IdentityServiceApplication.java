@@ -1,8 +1,10 @@
 package com.superapp.core.identity;
 
+import com.superapp.core.replica.ReadReplicaConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 /**
@@ -20,6 +22,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableCaching
+@Import(ReadReplicaConfig.class)
 public class IdentityServiceApplication {
 
     public static void main(String[] args) {
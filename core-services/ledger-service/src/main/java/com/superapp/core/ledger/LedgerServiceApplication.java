@@ -1,9 +1,13 @@
 package com.superapp.core.ledger;
 
+import com.superapp.core.id.IdGeneratorConfig;
+import com.superapp.core.replica.ReadReplicaConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Ledger Service - Core Foundation Service
@@ -21,6 +25,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableCaching
+@Import({ReadReplicaConfig.class, IdGeneratorConfig.class})
+@EnableScheduling
 public class LedgerServiceApplication {
 
     public static void main(String[] args) {
@@ -1,15 +1,20 @@
 package com.superapp.core.ledger.config;
 
+import com.superapp.core.ledger.service.AccountNearCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 /**
@@ -20,6 +25,7 @@ import java.time.Duration;
 public class CacheConfig {
 
     @Bean
+    @ConditionalOnProperty(value = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
     public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(1))
@@ -33,6 +39,20 @@ public class CacheConfig {
                 .cacheDefaults(config)
                 .build();
     }
+
+    /**
+     * Subscribes the account near cache to invalidations broadcast by all instances
+     */
+    @Bean
+    @ConditionalOnProperty(value = "ledger.account-cache.broadcast.enabled", matchIfMissing = true)
+    public RedisMessageListenerContainer accountCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                          AccountNearCache accountNearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> accountNearCache.onInvalidation(new String(message.getBody(),
+                StandardCharsets.UTF_8)), new ChannelTopic(AccountNearCache.INVALIDATION_CHANNEL));
+        return container;
+    }
 }
 
 
@@ -1,17 +1,25 @@
 package com.superapp.core.ledger.controller;
 
+import com.superapp.core.ledger.dto.request.BalanceLookupRequest;
 import com.superapp.core.ledger.dto.request.CreateAccountRequest;
+import com.superapp.core.ledger.dto.request.ShardAccountRequest;
 import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.BalanceLookupResponse;
+import com.superapp.core.ledger.dto.response.CursorPage;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
 import com.superapp.core.ledger.service.AccountService;
+import com.superapp.core.ledger.service.BalanceCheckpointService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +34,7 @@ import java.util.UUID;
 public class AccountController {
 
     private final AccountService accountService;
+    private final BalanceCheckpointService balanceCheckpointService;
 
     @PostMapping
     @Operation(summary = "Create new account")
@@ -41,6 +50,15 @@ public class AccountController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{accountId}/entries")
+    @Operation(summary = "Get account entries, keyset paginated")
+    public ResponseEntity<CursorPage<TransactionResponse.TransactionEntryResponse>> getAccountEntries(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(accountService.getAccountEntriesPage(accountId, cursor, size));
+    }
+
     @GetMapping("/code/{accountCode}")
     @Operation(summary = "Get account by code")
     public ResponseEntity<AccountResponse> getAccountByCode(@PathVariable String accountCode) {
@@ -69,12 +87,30 @@ public class AccountController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/{accountId}/shards")
+    @Operation(summary = "Shard a hot account into several physical sub-accounts")
+    public ResponseEntity<AccountResponse> shardAccount(
+            @PathVariable UUID accountId, @Valid @RequestBody ShardAccountRequest request) {
+        AccountResponse response = accountService.shardAccount(accountId, request.getShardCount());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/code/{accountCode}/balance")
-    @Operation(summary = "Get account balance")
-    public ResponseEntity<BigDecimal> getAccountBalance(@PathVariable String accountCode) {
-        BigDecimal balance = accountService.getAccountBalance(accountCode);
+    @Operation(summary = "Get account balance, optionally as of a point in time")
+    public ResponseEntity<BigDecimal> getAccountBalance(
+            @PathVariable String accountCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        BigDecimal balance = asOf != null
+                ? balanceCheckpointService.getBalanceAsOf(accountCode, asOf)
+                : accountService.getAccountBalance(accountCode);
         return ResponseEntity.ok(balance);
     }
+
+    @PostMapping("/balances")
+    @Operation(summary = "Get balances of many accounts by code and/or user in one call")
+    public ResponseEntity<BalanceLookupResponse> getBalances(@Valid @RequestBody BalanceLookupRequest request) {
+        return ResponseEntity.ok(accountService.getBalances(request));
+    }
 }
 
 
@@ -0,0 +1,71 @@
+package com.superapp.core.ledger.controller;
+
+import com.superapp.core.ledger.dto.request.CreateAccountGroupRequest;
+import com.superapp.core.ledger.dto.response.AccountGroupResponse;
+import com.superapp.core.ledger.service.AccountGroupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Account Group Controller
+ * Manages the account group tree and serves subtree balances
+ */
+@RestController
+@RequestMapping("/api/v1/account-groups")
+@RequiredArgsConstructor
+@Tag(name = "Account Groups", description = "Ledger Account Group API")
+public class AccountGroupController {
+
+    private final AccountGroupService accountGroupService;
+
+    @PostMapping
+    @Operation(summary = "Create account group")
+    public ResponseEntity<AccountGroupResponse> createGroup(@Valid @RequestBody CreateAccountGroupRequest request) {
+        AccountGroupResponse response = accountGroupService.createGroup(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/{groupId}")
+    @Operation(summary = "Get account group with its subtree balance")
+    public ResponseEntity<AccountGroupResponse> getGroup(@PathVariable UUID groupId) {
+        return ResponseEntity.ok(accountGroupService.getGroup(groupId));
+    }
+
+    @GetMapping("/{groupId}/children")
+    @Operation(summary = "Get child groups with their subtree balances")
+    public ResponseEntity<List<AccountGroupResponse>> getChildren(@PathVariable UUID groupId) {
+        return ResponseEntity.ok(accountGroupService.getChildren(groupId));
+    }
+
+    @GetMapping("/tenant/{tenantId}")
+    @Operation(summary = "Get root account groups of a tenant")
+    public ResponseEntity<List<AccountGroupResponse>> getRootGroups(@PathVariable String tenantId) {
+        return ResponseEntity.ok(accountGroupService.getRootGroups(tenantId));
+    }
+
+    @PutMapping("/{groupId}/accounts/{accountId}")
+    @Operation(summary = "Move an account into a group")
+    public ResponseEntity<Void> assignAccount(@PathVariable UUID groupId, @PathVariable UUID accountId) {
+        accountGroupService.assignAccount(groupId, accountId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{groupId}/accounts/{accountId}")
+    @Operation(summary = "Remove an account from a group")
+    public ResponseEntity<Void> removeAccount(@PathVariable UUID groupId, @PathVariable UUID accountId) {
+        accountGroupService.removeAccount(groupId, accountId);
+        return ResponseEntity.noContent().build();
+    }
+}
+
+
+
+
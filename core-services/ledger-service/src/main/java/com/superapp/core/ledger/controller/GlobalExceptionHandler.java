@@ -1,6 +1,8 @@
 package com.superapp.core.ledger.controller;
 
 import com.superapp.core.ledger.domain.exception.InsufficientBalanceException;
+import com.superapp.core.ledger.domain.exception.InvalidAccountException;
+import com.superapp.core.ledger.domain.exception.InvalidCursorException;
 import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
 import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
 import lombok.AllArgsConstructor;
@@ -46,6 +48,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(InvalidAccountException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidAccountException(InvalidAccountException ex) {
+        log.error("Invalid account: {}", ex.getMessage());
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(InsufficientBalanceException.class)
     public ResponseEntity<ErrorResponse> handleInsufficientBalanceException(InsufficientBalanceException ex) {
         log.error("Insufficient balance: {}", ex.getMessage());
@@ -57,6 +70,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        log.error("Invalid cursor: {}", ex.getMessage());
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
         log.error("Validation error: {}", ex.getMessage());
@@ -0,0 +1,65 @@
+package com.superapp.core.ledger.controller;
+
+import com.superapp.core.ledger.dto.request.CaptureHoldRequest;
+import com.superapp.core.ledger.dto.request.CreateHoldRequest;
+import com.superapp.core.ledger.dto.response.AvailableBalanceResponse;
+import com.superapp.core.ledger.dto.response.HoldResponse;
+import com.superapp.core.ledger.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Hold Controller
+ * Authorizes, captures and releases holds on account balances
+ */
+@RestController
+@RequestMapping("/api/v1/holds")
+@RequiredArgsConstructor
+@Tag(name = "Holds", description = "Ledger Hold (Authorize/Capture) API")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @PostMapping
+    @Operation(summary = "Place a hold on an account's available balance")
+    public ResponseEntity<HoldResponse> createHold(@Valid @RequestBody CreateHoldRequest request) {
+        HoldResponse response = holdService.createHold(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/{holdId}")
+    @Operation(summary = "Get hold by ID")
+    public ResponseEntity<HoldResponse> getHold(@PathVariable UUID holdId) {
+        return ResponseEntity.ok(holdService.getHold(holdId));
+    }
+
+    @PostMapping("/{holdId}/capture")
+    @Operation(summary = "Capture a hold, posting the funds to a counter account")
+    public ResponseEntity<HoldResponse> captureHold(
+            @PathVariable UUID holdId, @Valid @RequestBody CaptureHoldRequest request) {
+        return ResponseEntity.ok(holdService.captureHold(holdId, request));
+    }
+
+    @PostMapping("/{holdId}/release")
+    @Operation(summary = "Release a hold")
+    public ResponseEntity<HoldResponse> releaseHold(@PathVariable UUID holdId) {
+        return ResponseEntity.ok(holdService.releaseHold(holdId));
+    }
+
+    @GetMapping("/account/{accountCode}/available")
+    @Operation(summary = "Get an account's balance net of open holds")
+    public ResponseEntity<AvailableBalanceResponse> getAvailableBalance(@PathVariable String accountCode) {
+        return ResponseEntity.ok(holdService.getAvailableBalance(accountCode));
+    }
+}
+
+
+
+
@@ -0,0 +1,38 @@
+package com.superapp.core.ledger.controller;
+
+import com.superapp.core.ledger.dto.response.ChainVerificationResponse;
+import com.superapp.core.ledger.service.LedgerChainService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger Audit Controller
+ * Verifies the tamper-evident hash chain of posted transactions
+ */
+@RestController
+@RequestMapping("/api/v1/admin/audit")
+@RequiredArgsConstructor
+@Tag(name = "Audit", description = "Ledger Audit Admin API")
+public class LedgerAuditController {
+
+    private final LedgerChainService chainService;
+
+    @GetMapping("/tenant/{tenantId}/verify")
+    @Operation(summary = "Verify the hash chain of transactions posted in a time range")
+    public ResponseEntity<ChainVerificationResponse> verify(
+            @PathVariable String tenantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(chainService.verify(tenantId, from, to));
+    }
+}
+
+
+
+
@@ -0,0 +1,50 @@
+package com.superapp.core.ledger.controller;
+
+import com.superapp.core.ledger.dto.response.DailyMovementResponse;
+import com.superapp.core.ledger.dto.response.TrialBalanceResponse;
+import com.superapp.core.ledger.service.LedgerRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ledger Report Controller
+ * Serves tenant-level totals from the daily rollups
+ */
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Ledger Report API")
+public class LedgerReportController {
+
+    private final LedgerRollupService rollupService;
+
+    @GetMapping("/tenant/{tenantId}/trial-balance")
+    @Operation(summary = "Get trial balance per account type and currency")
+    public ResponseEntity<TrialBalanceResponse> getTrialBalance(
+            @PathVariable String tenantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        TrialBalanceResponse response = rollupService.getTrialBalance(tenantId, asOf != null ? asOf : LocalDate.now());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/tenant/{tenantId}/daily-movements")
+    @Operation(summary = "Get daily debit/credit movements per account type and currency")
+    public ResponseEntity<List<DailyMovementResponse>> getDailyMovements(
+            @PathVariable String tenantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        List<DailyMovementResponse> response = rollupService.getDailyMovements(tenantId, fromDate, toDate);
+        return ResponseEntity.ok(response);
+    }
+}
+
+
+
+
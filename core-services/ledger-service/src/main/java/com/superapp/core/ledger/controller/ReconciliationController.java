@@ -0,0 +1,49 @@
+package com.superapp.core.ledger.controller;
+
+import com.superapp.core.ledger.dto.response.ReconciliationRunResponse;
+import com.superapp.core.ledger.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reconciliation Controller
+ * Starts ledger reconciliation runs and reports their progress and drift
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reconciliations")
+@RequiredArgsConstructor
+@Tag(name = "Reconciliation", description = "Ledger Reconciliation Admin API")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping
+    @Operation(summary = "Start a reconciliation run, or return the one in progress")
+    public ResponseEntity<ReconciliationRunResponse> startRun() {
+        ReconciliationRunResponse response = reconciliationService.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "List recent reconciliation runs, newest first")
+    public ResponseEntity<List<ReconciliationRunResponse>> getRuns() {
+        return ResponseEntity.ok(reconciliationService.getRuns());
+    }
+
+    @GetMapping("/{runId}")
+    @Operation(summary = "Get reconciliation run progress and drifting accounts")
+    public ResponseEntity<ReconciliationRunResponse> getRun(@PathVariable UUID runId) {
+        return ResponseEntity.ok(reconciliationService.getRun(runId));
+    }
+}
+
+
+
+
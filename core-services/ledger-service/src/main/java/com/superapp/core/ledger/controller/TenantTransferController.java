@@ -0,0 +1,39 @@
+package com.superapp.core.ledger.controller;
+
+import com.superapp.core.ledger.dto.response.TenantTransferResponse;
+import com.superapp.core.ledger.service.TenantTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Tenant Transfer Controller
+ * Bulk exports and imports a tenant's ledger
+ */
+@RestController
+@RequestMapping("/api/v1/admin/tenants/{tenantId}")
+@RequiredArgsConstructor
+@Tag(name = "Tenant Transfer", description = "Ledger Tenant Export/Import Admin API")
+public class TenantTransferController {
+
+    private final TenantTransferService tenantTransferService;
+
+    @PostMapping("/export")
+    @Operation(summary = "Dump a tenant's accounts, transactions and entries with binary COPY")
+    public ResponseEntity<TenantTransferResponse> exportTenant(@PathVariable String tenantId) {
+        return ResponseEntity.ok(tenantTransferService.exportTenant(tenantId));
+    }
+
+    @PostMapping("/import")
+    @Operation(summary = "Load a tenant dump and rebuild its balances")
+    public ResponseEntity<TenantTransferResponse> importTenant(
+            @PathVariable String tenantId, @RequestParam String directory) {
+        return ResponseEntity.ok(tenantTransferService.importTenant(tenantId, directory));
+    }
+}
+
+
+
+
@@ -1,16 +1,25 @@
 package com.superapp.core.ledger.controller;
 
+import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import com.superapp.core.ledger.dto.request.BatchTransactionRequest;
 import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.BatchTransactionResponse;
+import com.superapp.core.ledger.dto.response.CursorPage;
 import com.superapp.core.ledger.dto.response.TransactionResponse;
 import com.superapp.core.ledger.service.LedgerService;
+import com.superapp.core.ledger.service.TransactionExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,6 +36,7 @@ import java.util.UUID;
 public class TransactionController {
 
     private final LedgerService ledgerService;
+    private final TransactionExportService transactionExportService;
 
     @PostMapping
     @Operation(summary = "Create new transaction")
@@ -35,6 +45,13 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create transactions in bulk")
+    public ResponseEntity<BatchTransactionResponse> createTransactions(@Valid @RequestBody BatchTransactionRequest request) {
+        BatchTransactionResponse response = ledgerService.createTransactions(request.getTransactions());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{transactionId}")
     @Operation(summary = "Get transaction by ID")
     public ResponseEntity<TransactionResponse> getTransaction(@PathVariable UUID transactionId) {
@@ -58,6 +75,52 @@ public class TransactionController {
         List<TransactionResponse> response = ledgerService.getTransactionsByDateRange(tenantId, startDate, endDate);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/tenant/{tenantId}/page")
+    @Operation(summary = "Get transactions by tenant, keyset paginated")
+    public ResponseEntity<CursorPage<TransactionResponse>> getTransactionsByTenantPage(
+            @PathVariable String tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(ledgerService.getTransactionsByTenantPage(tenantId, cursor, size));
+    }
+
+    @GetMapping("/tenant/{tenantId}/date-range/page")
+    @Operation(summary = "Get transactions by date range, keyset paginated")
+    public ResponseEntity<CursorPage<TransactionResponse>> getTransactionsByDateRangePage(
+            @PathVariable String tenantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(ledgerService.getTransactionsByDateRangePage(tenantId, startDate, endDate, cursor, size));
+    }
+
+    @GetMapping("/tenant/{tenantId}/status/{status}/page")
+    @Operation(summary = "Get transactions by status, keyset paginated")
+    public ResponseEntity<CursorPage<TransactionResponse>> getTransactionsByStatusPage(
+            @PathVariable String tenantId,
+            @PathVariable TransactionStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(ledgerService.getTransactionsByStatusPage(tenantId, status, cursor, size));
+    }
+
+    @GetMapping("/tenant/{tenantId}/export")
+    @Operation(summary = "Stream a tenant's transactions as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable String tenantId,
+            @RequestParam(defaultValue = "NDJSON") TransactionExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        StreamingResponseBody body = outputStream ->
+                transactionExportService.export(tenantId, startDate, endDate, format, outputStream);
+        String filename = tenantId.replaceAll("[^A-Za-z0-9_.-]", "_") + "-transactions." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
 }
 
 
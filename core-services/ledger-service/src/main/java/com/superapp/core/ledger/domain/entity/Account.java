@@ -4,6 +4,7 @@ import com.superapp.core.ledger.domain.enums.AccountType;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnTransformer;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -19,7 +20,8 @@ import java.util.UUID;
 @Table(name = "accounts", indexes = {
     @Index(name = "idx_account_code", columnList = "accountCode"),
     @Index(name = "idx_account_tenant", columnList = "tenantId"),
-    @Index(name = "idx_account_user", columnList = "userId")
+    @Index(name = "idx_account_user", columnList = "userId"),
+    @Index(name = "idx_account_group", columnList = "groupId")
 })
 @Getter
 @Setter
@@ -59,6 +61,13 @@ public class Account extends AuditEntity {
     @Builder.Default
     private BigDecimal balance = BigDecimal.ZERO;
 
+    /**
+     * Sum of open holds; a posting may not take the balance below it
+     */
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
     /**
      * Currency code (ISO 4217)
      */
@@ -73,10 +82,31 @@ public class Account extends AuditEntity {
     @Builder.Default
     private Boolean isActive = true;
 
+    /**
+     * Number of physical accounts this account's postings are spread across (1 = not sharded).
+     * Shard 0 is this account; the others point back to it through parentAccountId.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer shardCount = 1;
+
+    /**
+     * Logical account this shard belongs to; NULL for regular accounts
+     */
+    @Column
+    private UUID parentAccountId;
+
+    /**
+     * Account group whose balance roll-up includes this account; NULL if ungrouped
+     */
+    @Column
+    private UUID groupId;
+
     /**
      * Metadata for extensibility (stored as JSON)
      */
     @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String metadata;
 
     // Helper methods
@@ -97,7 +127,7 @@ public class Account extends AuditEntity {
     }
 
     private boolean hasDebitNormalBalance() {
-        return accountType == AccountType.ASSET || accountType == AccountType.EXPENSE;
+        return accountType.hasDebitNormalBalance();
     }
 }
 
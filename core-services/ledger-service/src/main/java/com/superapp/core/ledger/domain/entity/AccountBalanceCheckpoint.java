@@ -0,0 +1,48 @@
+package com.superapp.core.ledger.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Account Balance Checkpoint Entity - Balance of an account at a point in time
+ *
+ * Written periodically by a background job at day boundaries; a historical balance is the nearest
+ * checkpoint plus the entries dated after it.
+ */
+@Entity
+@Table(name = "account_balance_checkpoints", indexes = {
+    @Index(name = "idx_checkpoint_account_time", columnList = "accountId,checkpointAt", unique = true)
+})
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceCheckpoint extends AuditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    /**
+     * Balance includes every entry dated before this instant that the checkpoint job has seen;
+     * entries committed later with an earlier date are added to it by the next run
+     */
+    @Column(nullable = false)
+    private LocalDateTime checkpointAt;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+}
+
+
+
+
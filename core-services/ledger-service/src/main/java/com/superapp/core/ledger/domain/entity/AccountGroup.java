@@ -0,0 +1,85 @@
+package com.superapp.core.ledger.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Account Group Entity - A node in a tree of account groups used for balance roll-ups
+ *
+ * The tree is stored as a materialized path of ancestor ids, so a subtree is one prefix scan
+ * and the ancestors of a group are read off its own row. Groups never move.
+ */
+@Entity
+@Table(name = "account_groups", indexes = {
+    @Index(name = "idx_account_group_tenant", columnList = "tenantId"),
+    @Index(name = "idx_account_group_parent", columnList = "parentGroupId")
+})
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountGroup extends AuditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String tenantId;
+
+    @Column(nullable = false, unique = true)
+    private String groupCode;
+
+    @Column(nullable = false)
+    private String groupName;
+
+    /**
+     * Parent group; NULL for a root group
+     */
+    @Column
+    private UUID parentGroupId;
+
+    /**
+     * Ids of the ancestor groups, root first, e.g. /root-id/parent-id/; / for a root group
+     */
+    @Column(nullable = false, length = 2000)
+    private String path;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Column
+    private String description;
+
+    /**
+     * Path of this group's children
+     */
+    public String childPath() {
+        return path + id + "/";
+    }
+
+    /**
+     * This group followed by its ancestors, nearest first
+     */
+    public List<UUID> selfAndAncestors() {
+        List<UUID> chain = new ArrayList<>(depth + 1);
+        chain.add(id);
+        String[] ancestors = path.split("/");
+        for (int i = ancestors.length - 1; i >= 0; i--) {
+            if (!ancestors[i].isEmpty()) {
+                chain.add(UUID.fromString(ancestors[i]));
+            }
+        }
+        return chain;
+    }
+}
+
+
+
+
@@ -0,0 +1,46 @@
+package com.superapp.core.ledger.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Account Group Balance Entity - One slot of the aggregated balance of a group's subtree in one currency
+ *
+ * Maintained in the same DB transaction as the postings it sums. A group is spread over
+ * several slots so concurrent postings do not queue on one row; readers sum the slots.
+ */
+@Entity
+@Table(name = "account_group_balances", indexes = {
+    @Index(name = "idx_group_balance_key", columnList = "groupId,currency,slot", unique = true)
+})
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountGroupBalance extends AuditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID groupId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+}
+
+
+
+
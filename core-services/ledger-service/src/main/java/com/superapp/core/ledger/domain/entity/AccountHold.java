@@ -0,0 +1,81 @@
+package com.superapp.core.ledger.domain.entity;
+
+import com.superapp.core.ledger.domain.enums.HoldStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Account Hold Entity - Funds reserved on an account before final posting
+ *
+ * A hold lowers the account's available balance until it is captured (posted through
+ * the ledger), released, or expires.
+ */
+@Entity
+@Table(name = "account_holds", indexes = {
+    @Index(name = "idx_hold_account_status", columnList = "accountId,status"),
+    @Index(name = "idx_hold_status_expires", columnList = "status,expiresAt"),
+    @Index(name = "idx_hold_reference", columnList = "referenceType,referenceId", unique = true)
+})
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountHold extends AuditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * Logical account holding the funds (never a shard)
+     */
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private String tenantId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HoldStatus status;
+
+    @Column(length = 100)
+    private String referenceType;
+
+    @Column
+    private String referenceId;
+
+    @Column
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Ledger transaction that captured this hold
+     */
+    @Column
+    private UUID transactionId;
+
+    /**
+     * When the hold was captured, released or expired
+     */
+    @Column
+    private LocalDateTime completedAt;
+}
+
+
+
+
@@ -0,0 +1,62 @@
+package com.superapp.core.ledger.domain.entity;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Ledger Daily Rollup Entity - Debit and credit totals of one tenant, account type and currency for one day
+ *
+ * Maintained in the same DB transaction as the postings it sums. A key is spread over
+ * several slots so concurrent postings do not queue on one row; readers sum the slots.
+ */
+@Entity
+@Table(name = "ledger_daily_rollups", indexes = {
+    @Index(name = "idx_rollup_key", columnList = "tenantId,accountType,currency,rollupDate,slot", unique = true),
+    @Index(name = "idx_rollup_tenant_date", columnList = "tenantId,rollupDate")
+})
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerDailyRollup extends AuditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private AccountType accountType;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal debitTotal;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal creditTotal;
+
+    @Column(nullable = false)
+    private Long entryCount;
+}
+
+
+
+
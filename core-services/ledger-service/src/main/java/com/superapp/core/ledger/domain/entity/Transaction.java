@@ -4,6 +4,7 @@ import com.superapp.core.ledger.domain.enums.TransactionStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnTransformer;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,7 +23,8 @@ import java.util.UUID;
     @Index(name = "idx_transaction_tenant", columnList = "tenantId"),
     @Index(name = "idx_transaction_ref", columnList = "referenceId"),
     @Index(name = "idx_transaction_date", columnList = "transactionDate"),
-    @Index(name = "idx_transaction_status", columnList = "status")
+    @Index(name = "idx_transaction_status", columnList = "status"),
+    @Index(name = "idx_transaction_number", columnList = "transactionNumber")
 })
 @Getter
 @Setter
@@ -35,12 +37,15 @@ public class Transaction extends AuditEntity {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String transactionNumber;
 
     @Column(nullable = false)
     private String tenantId;
 
+    /**
+     * Partition key of transactions and transaction_entries (monthly ranges)
+     */
     @Column(nullable = false)
     private LocalDateTime transactionDate;
 
@@ -88,6 +93,7 @@ public class Transaction extends AuditEntity {
      * Metadata for extensibility (stored as JSON)
      */
     @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String metadata;
 
     // Helper methods
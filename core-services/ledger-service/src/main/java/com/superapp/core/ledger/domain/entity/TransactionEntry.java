@@ -6,6 +6,7 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -36,6 +37,12 @@ public class TransactionEntry extends AuditEntity {
     @JoinColumn(name = "transaction_id", nullable = false)
     private Transaction transaction;
 
+    /**
+     * Copy of the transaction's date; partition key of transaction_entries
+     */
+    @Column(nullable = false)
+    private LocalDateTime transactionDate;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
@@ -1,5 +1,7 @@
 package com.superapp.core.ledger.domain.enums;
 
+import java.math.BigDecimal;
+
 /**
  * Account types based on standard accounting principles
  */
@@ -32,7 +34,22 @@ public enum AccountType {
      * Expenses - costs incurred (debit normal balance)
      * e.g., Operating Expenses, Interest Expense, Fees Paid
      */
-    EXPENSE
+    EXPENSE;
+
+    /**
+     * Assets & Expenses increase with debits, everything else with credits
+     */
+    public boolean hasDebitNormalBalance() {
+        return this == ASSET || this == EXPENSE;
+    }
+
+    /**
+     * Signed balance change produced by an entry of the given type and amount
+     */
+    public BigDecimal balanceDelta(EntryType entryType, BigDecimal amount) {
+        boolean increases = (entryType == EntryType.DEBIT) == hasDebitNormalBalance();
+        return increases ? amount : amount.negate();
+    }
 }
 
 
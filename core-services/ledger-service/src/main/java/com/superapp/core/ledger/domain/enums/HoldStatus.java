@@ -0,0 +1,28 @@
+package com.superapp.core.ledger.domain.enums;
+
+/**
+ * Account hold status
+ */
+public enum HoldStatus {
+    ACTIVE,
+
+    /**
+     * Capture posting in progress (written by earlier versions, which posted outside the hold's
+     * DB transaction); still counts against the available balance and can still be captured
+     */
+    CAPTURING,
+    CAPTURED,
+    RELEASED,
+    EXPIRED;
+
+    /**
+     * Whether the hold still reserves funds
+     */
+    public boolean isOpen() {
+        return this == ACTIVE || this == CAPTURING;
+    }
+}
+
+
+
+
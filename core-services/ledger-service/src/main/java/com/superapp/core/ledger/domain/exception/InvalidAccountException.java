@@ -0,0 +1,15 @@
+package com.superapp.core.ledger.domain.exception;
+
+/**
+ * Exception thrown when an account's configuration does not allow the requested change
+ */
+public class InvalidAccountException extends RuntimeException {
+
+    public InvalidAccountException(String message) {
+        super(message);
+    }
+}
+
+
+
+
@@ -0,0 +1,15 @@
+package com.superapp.core.ledger.domain.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
+
+
+
+
@@ -16,12 +16,16 @@ public interface AccountMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "balance", ignore = true)
+    @Mapping(target = "heldAmount", ignore = true)
     @Mapping(target = "isActive", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "updatedBy", ignore = true)
     @Mapping(target = "version", ignore = true)
+    @Mapping(target = "shardCount", ignore = true)
+    @Mapping(target = "parentAccountId", ignore = true)
+    @Mapping(target = "groupId", ignore = true)
     Account toEntity(CreateAccountRequest request);
 }
 
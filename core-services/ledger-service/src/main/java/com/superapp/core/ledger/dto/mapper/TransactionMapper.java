@@ -3,8 +3,10 @@ package com.superapp.core.ledger.dto.mapper;
 import com.superapp.core.ledger.domain.entity.Transaction;
 import com.superapp.core.ledger.domain.entity.TransactionEntry;
 import com.superapp.core.ledger.dto.response.TransactionResponse;
+import com.superapp.core.ledger.repository.TransactionEntryView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 /**
  * MapStruct mapper for Transaction entity
@@ -14,10 +16,28 @@ public interface TransactionMapper {
 
     TransactionResponse toResponse(Transaction transaction);
 
+    /**
+     * Map transaction fields only, without touching the lazy entries collection
+     */
+    @Mapping(target = "entries", ignore = true)
+    TransactionResponse toSummaryResponse(Transaction transaction);
+
+    @Mapping(target = "transactionId", source = "transaction.id")
     @Mapping(target = "accountCode", source = "account.accountCode")
     @Mapping(target = "accountName", source = "account.accountName")
     @Mapping(target = "entryType", source = "entryType")
     TransactionResponse.TransactionEntryResponse toEntryResponse(TransactionEntry entry);
+
+    /**
+     * Map entry fields only, without touching the lazy account
+     */
+    @Named("entrySummary")
+    @Mapping(target = "transactionId", source = "transaction.id")
+    @Mapping(target = "accountCode", ignore = true)
+    @Mapping(target = "accountName", ignore = true)
+    TransactionResponse.TransactionEntryResponse toEntrySummaryResponse(TransactionEntry entry);
+
+    TransactionResponse.TransactionEntryResponse toEntryResponse(TransactionEntryView view);
 }
 
 
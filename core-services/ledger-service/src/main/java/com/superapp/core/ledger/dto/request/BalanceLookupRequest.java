@@ -0,0 +1,37 @@
+package com.superapp.core.ledger.dto.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for looking up many account balances in one call.
+ * Accounts can be given by code, by owning user, or both.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceLookupRequest {
+
+    @Size(max = 5000, message = "At most 5000 account codes can be looked up at once")
+    private List<String> accountCodes;
+
+    @Size(max = 1000, message = "At most 1000 user ids can be looked up at once")
+    private List<UUID> userIds;
+
+    @AssertTrue(message = "Account codes or user ids are required")
+    public boolean isNotEmpty() {
+        return (accountCodes != null && !accountCodes.isEmpty()) || (userIds != null && !userIds.isEmpty());
+    }
+}
+
+
+
+
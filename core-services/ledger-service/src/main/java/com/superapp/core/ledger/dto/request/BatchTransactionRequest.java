@@ -0,0 +1,29 @@
+package com.superapp.core.ledger.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for posting many transactions in one call.
+ * Items are validated individually so one bad item does not reject the batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionRequest {
+
+    @NotEmpty(message = "Transactions are required")
+    @Size(max = 10000, message = "A batch can contain at most 10000 transactions")
+    private List<CreateTransactionRequest> transactions;
+}
+
+
+
+
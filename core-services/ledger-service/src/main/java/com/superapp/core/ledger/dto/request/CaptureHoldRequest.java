@@ -0,0 +1,35 @@
+package com.superapp.core.ledger.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Request DTO for capturing a hold: posts the held funds to a counter account
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaptureHoldRequest {
+
+    @NotBlank(message = "Counter account code is required")
+    private String counterAccountCode;
+
+    /**
+     * Optional, defaults to the full hold amount; any remainder is released
+     */
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+
+    private String description;
+}
+
+
+
+
@@ -0,0 +1,36 @@
+package com.superapp.core.ledger.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for creating an account group
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateAccountGroupRequest {
+
+    @NotBlank(message = "Group code is required")
+    private String groupCode;
+
+    @NotBlank(message = "Group name is required")
+    private String groupName;
+
+    @NotBlank(message = "Tenant ID is required")
+    private String tenantId;
+
+    private UUID parentGroupId;  // Optional, NULL creates a root group
+
+    private String description;
+}
+
+
+
+
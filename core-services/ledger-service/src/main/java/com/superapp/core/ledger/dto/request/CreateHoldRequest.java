@@ -0,0 +1,50 @@
+package com.superapp.core.ledger.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Request DTO for placing a hold on an account.
+ * Idempotent on (referenceType, referenceId) when both are given.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateHoldRequest {
+
+    @NotBlank(message = "Tenant ID is required")
+    private String tenantId;
+
+    @NotBlank(message = "Account code is required")
+    private String accountCode;
+
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+
+    private String referenceId;
+    private String referenceType;
+
+    private String description;
+
+    /**
+     * Optional, defaults to ledger.holds.default-ttl-seconds
+     */
+    @Min(value = 1, message = "Hold must last at least a second")
+    @Max(value = 2592000, message = "Hold can last at most 30 days")
+    private Long expiresInSeconds;
+}
+
+
+
+
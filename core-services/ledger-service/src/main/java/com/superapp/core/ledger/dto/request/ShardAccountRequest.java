@@ -0,0 +1,28 @@
+package com.superapp.core.ledger.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for sharding an account into several physical sub-accounts
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardAccountRequest {
+
+    @NotNull(message = "Shard count is required")
+    @Min(value = 2, message = "Shard count must be at least 2")
+    @Max(value = 256, message = "Shard count must be at most 256")
+    private Integer shardCount;
+}
+
+
+
+
@@ -0,0 +1,31 @@
+package com.superapp.core.ledger.dto.response;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Response DTO for an account balance returned by the batch lookup
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceResponse {
+
+    private UUID accountId;
+    private String accountCode;
+    private String accountName;
+    private AccountType accountType;
+    private String currency;
+    private BigDecimal balance;
+}
+
+
+
+
@@ -0,0 +1,40 @@
+package com.superapp.core.ledger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Response DTO for an account group and its subtree balance
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountGroupResponse {
+
+    private UUID id;
+    private String groupCode;
+    private String groupName;
+    private String tenantId;
+    private UUID parentGroupId;
+    private String path;
+    private Integer depth;
+    private String description;
+
+    /**
+     * Sum of the balances of every account in this group's subtree, by currency
+     */
+    private Map<String, BigDecimal> balances;
+    private LocalDateTime createdAt;
+}
+
+
+
+
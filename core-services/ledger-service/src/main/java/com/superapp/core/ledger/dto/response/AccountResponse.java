@@ -29,6 +29,9 @@ public class AccountResponse {
     private String currency;
     private String description;
     private Boolean isActive;
+    private Integer shardCount;
+    private UUID parentAccountId;
+    private UUID groupId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
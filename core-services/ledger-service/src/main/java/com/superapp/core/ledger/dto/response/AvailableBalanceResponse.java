@@ -0,0 +1,28 @@
+package com.superapp.core.ledger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Response DTO for an account's balance net of open holds
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableBalanceResponse {
+
+    private String accountCode;
+    private String currency;
+    private BigDecimal balance;
+    private BigDecimal held;
+    private BigDecimal available;
+}
+
+
+
+
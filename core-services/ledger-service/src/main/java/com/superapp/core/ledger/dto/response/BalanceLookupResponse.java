@@ -0,0 +1,29 @@
+package com.superapp.core.ledger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for the batch balance lookup
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceLookupResponse {
+
+    private List<AccountBalanceResponse> balances;
+
+    /**
+     * Requested account codes that do not exist
+     */
+    private List<String> unknownAccountCodes;
+}
+
+
+
+
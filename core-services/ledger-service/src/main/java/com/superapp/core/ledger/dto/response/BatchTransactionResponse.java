@@ -0,0 +1,59 @@
+package com.superapp.core.ledger.dto.response;
+
+import com.superapp.core.ledger.domain.entity.Transaction;
+import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a bulk posting, with one result per submitted transaction
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private TransactionStatus status;
+        private UUID transactionId;
+        private String transactionNumber;
+        private String error;
+
+        public static ItemResult posted(int index, Transaction transaction) {
+            return ItemResult.builder()
+                    .index(index)
+                    .status(transaction.getStatus())
+                    .transactionId(transaction.getId())
+                    .transactionNumber(transaction.getTransactionNumber())
+                    .build();
+        }
+
+        public static ItemResult failed(int index, String error) {
+            return ItemResult.builder()
+                    .index(index)
+                    .status(TransactionStatus.FAILED)
+                    .error(error)
+                    .build();
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,54 @@
+package com.superapp.core.ledger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a hash chain verification over a posting time range
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainVerificationResponse {
+
+    private String tenantId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long fromSeq;
+    private Long toSeq;
+    private long linksChecked;
+
+    /**
+     * Links checked whose transactions are in archived months, so only their chain steps were verified
+     */
+    private long linksArchived;
+    private long checkpointsChecked;
+    private boolean valid;
+    private List<Mismatch> mismatches;
+    private long durationMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private long seq;
+        private UUID transactionId;
+
+        /**
+         * TRANSACTION_MISSING, TRANSACTION_ALTERED, CHAIN_BROKEN, SEQUENCE_GAP or CHECKPOINT_MISMATCH
+         */
+        private String reason;
+    }
+}
+
+
+
+
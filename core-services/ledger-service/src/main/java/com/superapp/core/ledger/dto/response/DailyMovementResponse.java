@@ -0,0 +1,31 @@
+package com.superapp.core.ledger.dto.response;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Response DTO for one day's movement of an account type in one currency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyMovementResponse {
+
+    private LocalDate date;
+    private AccountType accountType;
+    private String currency;
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private long entryCount;
+}
+
+
+
+
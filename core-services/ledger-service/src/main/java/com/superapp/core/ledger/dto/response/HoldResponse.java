@@ -0,0 +1,39 @@
+package com.superapp.core.ledger.dto.response;
+
+import com.superapp.core.ledger.domain.enums.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response DTO for an account hold
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+
+    private UUID id;
+    private UUID accountId;
+    private String tenantId;
+    private BigDecimal amount;
+    private String currency;
+    private HoldStatus status;
+    private String referenceId;
+    private String referenceType;
+    private String description;
+    private LocalDateTime expiresAt;
+    private UUID transactionId;
+    private LocalDateTime completedAt;
+    private LocalDateTime createdAt;
+}
+
+
+
+
@@ -0,0 +1,53 @@
+package com.superapp.core.ledger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a reconciliation run and its progress
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunResponse {
+
+    private UUID runId;
+    private String status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long totalAccounts;
+    private long accountsChecked;
+    private long entriesChecked;
+    private double progressPercent;
+    private long driftCount;
+
+    /**
+     * Drifting accounts, capped at ledger.reconciliation.max-reported-drifts
+     */
+    private List<Drift> drifts;
+    private String error;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Drift {
+        private UUID accountId;
+        private String accountCode;
+        private BigDecimal storedBalance;
+        private BigDecimal computedBalance;
+        private BigDecimal difference;
+    }
+}
+
+
+
+
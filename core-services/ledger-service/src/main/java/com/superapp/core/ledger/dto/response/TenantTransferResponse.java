@@ -0,0 +1,31 @@
+package com.superapp.core.ledger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a tenant ledger export or import
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantTransferResponse {
+
+    private String tenantId;
+
+    /**
+     * Dump directory, relative to ledger.tenant-transfer.dir
+     */
+    private String directory;
+    private long accounts;
+    private long transactions;
+    private long entries;
+    private long durationMs;
+}
+
+
+
+
@@ -39,12 +39,14 @@ public class TransactionResponse {
     @AllArgsConstructor
     public static class TransactionEntryResponse {
         private UUID id;
+        private UUID transactionId;
         private String accountCode;
         private String accountName;
         private String entryType;
         private BigDecimal amount;
         private BigDecimal balanceAfter;
         private String description;
+        private LocalDateTime createdAt;
     }
 }
 
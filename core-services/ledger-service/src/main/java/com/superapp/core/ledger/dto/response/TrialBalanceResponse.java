@@ -0,0 +1,51 @@
+package com.superapp.core.ledger.dto.response;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response DTO for a tenant's trial balance: debit and credit totals per account type and currency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrialBalanceResponse {
+
+    private String tenantId;
+    private LocalDate asOf;
+
+    /**
+     * True when total debits equal total credits in every currency
+     */
+    private boolean balanced;
+
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private AccountType accountType;
+        private String currency;
+        private BigDecimal debitTotal;
+        private BigDecimal creditTotal;
+
+        /**
+         * Net balance on the account type's normal side
+         */
+        private BigDecimal balance;
+    }
+}
+
+
+
+
@@ -0,0 +1,23 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.AccountBalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Account Balance Checkpoint Repository
+ */
+@Repository
+public interface AccountBalanceCheckpointRepository extends JpaRepository<AccountBalanceCheckpoint, UUID> {
+
+    Optional<AccountBalanceCheckpoint> findTopByAccountIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(
+            UUID accountId, LocalDateTime asOf);
+}
+
+
+
+
@@ -0,0 +1,28 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.AccountGroupBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Account Group Balance Repository
+ */
+@Repository
+public interface AccountGroupBalanceRepository extends JpaRepository<AccountGroupBalance, UUID> {
+
+    /**
+     * [groupId, currency, balance] per group and currency, summed over slots
+     */
+    @Query("SELECT b.groupId, b.currency, SUM(b.balance) FROM AccountGroupBalance b WHERE b.groupId IN :groupIds " +
+            "GROUP BY b.groupId, b.currency ORDER BY b.currency")
+    List<Object[]> sumByGroupIdIn(Collection<UUID> groupIds);
+}
+
+
+
+
@@ -0,0 +1,25 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.AccountGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Account Group Repository
+ */
+@Repository
+public interface AccountGroupRepository extends JpaRepository<AccountGroup, UUID> {
+
+    boolean existsByGroupCode(String groupCode);
+
+    List<AccountGroup> findByParentGroupIdOrderByGroupCode(UUID parentGroupId);
+
+    List<AccountGroup> findByTenantIdAndParentGroupIdIsNullOrderByGroupCode(String tenantId);
+}
+
+
+
+
@@ -0,0 +1,62 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.AccountHold;
+import com.superapp.core.ledger.domain.enums.HoldStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Account Hold Repository
+ */
+@Repository
+public interface AccountHoldRepository extends JpaRepository<AccountHold, UUID> {
+
+    Optional<AccountHold> findByReferenceTypeAndReferenceId(String referenceType, String referenceId);
+
+    /**
+     * Move a hold from one status to another; returns 0 if it was no longer in the expected status
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountHold h SET h.status = :to, h.transactionId = :transactionId, h.completedAt = :completedAt, " +
+            "h.updatedAt = :completedAt, h.version = h.version + 1 WHERE h.id = :id AND h.status = :from")
+    int transition(UUID id, HoldStatus from, HoldStatus to, UUID transactionId, LocalDateTime completedAt);
+
+    /**
+     * Close an unexpired active hold (or one left CAPTURING) as captured; returns 0 if it is not capturable.
+     * Concurrent captures queue on the row lock and all but the first get 0.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountHold h SET h.status = com.superapp.core.ledger.domain.enums.HoldStatus.CAPTURED, " +
+            "h.completedAt = :now, h.updatedAt = :now, h.version = h.version + 1 WHERE h.id = :id AND " +
+            "(h.status = com.superapp.core.ledger.domain.enums.HoldStatus.CAPTURING OR " +
+            "(h.status = com.superapp.core.ledger.domain.enums.HoldStatus.ACTIVE AND h.expiresAt > :now))")
+    int capture(UUID id, LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountHold h SET h.transactionId = :transactionId WHERE h.id = :id")
+    void attachTransaction(UUID id, UUID transactionId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountHold h SET h.status = com.superapp.core.ledger.domain.enums.HoldStatus.EXPIRED, " +
+            "h.completedAt = :now, h.updatedAt = :now, h.version = h.version + 1 WHERE h.id IN :ids")
+    int expire(Collection<UUID> ids, LocalDateTime now);
+
+    /**
+     * Ids of expired active holds, oldest first, skipping rows another sweeper has locked
+     */
+    @Query(value = "SELECT id FROM account_holds WHERE status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockExpired(LocalDateTime now, int limit);
+}
+
+
+
+
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,16 +16,24 @@ import java.util.UUID;
  * Account Repository
  */
 @Repository
-public interface AccountRepository extends JpaRepository<Account, UUID> {
+public interface AccountRepository extends JpaRepository<Account, UUID>, AccountRepositoryCustom {
 
     Optional<Account> findByAccountCode(String accountCode);
 
+    List<Account> findByAccountCodeIn(Collection<String> accountCodes);
+
     List<Account> findByTenantId(String tenantId);
 
+    List<Account> findByTenantIdAndParentAccountIdIsNull(String tenantId);
+
     List<Account> findByTenantIdAndAccountType(String tenantId, AccountType accountType);
 
     List<Account> findByUserId(UUID userId);
 
+    List<Account> findByUserIdAndParentAccountIdIsNull(UUID userId);
+
+    List<Account> findByUserIdInAndParentAccountIdIsNull(Collection<UUID> userIds);
+
     Optional<Account> findByUserIdAndCurrency(UUID userId, String currency);
 
     List<Account> findByTenantIdAndIsActive(String tenantId, Boolean isActive);
@@ -34,6 +44,26 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     List<Account> findByTenantIdAndAccountTypes(String tenantId, List<AccountType> types);
 
     long countByTenantId(String tenantId);
+
+    List<Account> findByParentAccountIdOrderByAccountCode(UUID parentAccountId);
+
+    @Query("SELECT COALESCE(SUM(a.balance), 0) FROM Account a WHERE a.id IN :ids")
+    BigDecimal sumBalanceByIdIn(Collection<UUID> ids);
+
+    @Query("SELECT a.accountCode FROM Account a WHERE a.id IN :ids AND a.isActive = false")
+    List<String> findInactiveCodesByIdIn(Collection<UUID> ids);
+
+    /**
+     * Balance of a sharded account: its own row plus its shards
+     */
+    @Query("SELECT COALESCE(SUM(a.balance), 0) FROM Account a WHERE a.id = :accountId OR a.parentAccountId = :accountId")
+    BigDecimal sumShardedBalance(UUID accountId);
+
+    /**
+     * Stored balances as (id, balance) rows
+     */
+    @Query("SELECT a.id, a.balance FROM Account a WHERE a.id IN :ids")
+    List<Object[]> findBalancesByIdIn(Collection<UUID> ids);
 }
 
 
@@ -0,0 +1,23 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.Account;
+
+import java.util.Collection;
+
+/**
+ * Custom Account Repository operations
+ */
+public interface AccountRepositoryCustom {
+
+    /**
+     * Lock accounts with SELECT ... FOR UPDATE in ascending id order and refresh their state.
+     * Every posting locks in the same order, so opposing transfers cannot deadlock.
+     * Accounts already locked in the current transaction are skipped. Pending changes to loaded
+     * accounts are flushed before they are refreshed, so they are kept rather than discarded.
+     */
+    void lockInCanonicalOrder(Collection<Account> accounts);
+}
+
+
+
+
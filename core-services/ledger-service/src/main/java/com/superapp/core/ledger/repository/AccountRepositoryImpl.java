@@ -0,0 +1,51 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Custom Account Repository implementation
+ */
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void lockInCanonicalOrder(Collection<Account> accounts) {
+        Map<UUID, Account> ordered = new TreeMap<>();
+        for (Account account : accounts) {
+            ordered.putIfAbsent(account.getId(), account);
+        }
+
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        // refresh() discards unflushed changes; write them first (version-checked) so they survive the reload
+        boolean refreshes = ordered.values().stream().anyMatch(account -> persistenceUnitUtil.isLoaded(account)
+                && entityManager.getLockMode(account) != LockModeType.PESSIMISTIC_WRITE);
+        if (refreshes) {
+            entityManager.flush();
+        }
+
+        for (Account account : ordered.values()) {
+            if (!persistenceUnitUtil.isLoaded(account)) {
+                // Uninitialized reference: load it straight away with the lock
+                entityManager.find(Account.class, account.getId(), LockModeType.PESSIMISTIC_WRITE);
+            } else if (entityManager.getLockMode(account) != LockModeType.PESSIMISTIC_WRITE) {
+                entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE);
+            }
+        }
+    }
+}
+
+
+
+
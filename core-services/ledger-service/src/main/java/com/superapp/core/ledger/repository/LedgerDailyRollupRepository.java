@@ -0,0 +1,29 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.entity.LedgerDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ledger Daily Rollup Repository
+ */
+@Repository
+public interface LedgerDailyRollupRepository extends JpaRepository<LedgerDailyRollup, UUID> {
+
+    /**
+     * [rollupDate, accountType, currency, debitTotal, creditTotal, entryCount] per day, account type and currency
+     */
+    @Query("SELECT r.rollupDate, r.accountType, r.currency, SUM(r.debitTotal), SUM(r.creditTotal), SUM(r.entryCount) " +
+            "FROM LedgerDailyRollup r WHERE r.tenantId = :tenantId AND r.rollupDate BETWEEN :fromDate AND :toDate " +
+            "GROUP BY r.rollupDate, r.accountType, r.currency ORDER BY r.rollupDate, r.currency, r.accountType")
+    List<Object[]> sumByDay(String tenantId, LocalDate fromDate, LocalDate toDate);
+}
+
+
+
+
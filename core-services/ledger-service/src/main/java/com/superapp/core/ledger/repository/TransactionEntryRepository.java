@@ -4,13 +4,21 @@ import com.superapp.core.ledger.domain.entity.Account;
 import com.superapp.core.ledger.domain.entity.Transaction;
 import com.superapp.core.ledger.domain.entity.TransactionEntry;
 import com.superapp.core.ledger.domain.enums.EntryType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Transaction Entry Repository
@@ -24,11 +32,41 @@ public interface TransactionEntryRepository extends JpaRepository<TransactionEnt
 
     List<TransactionEntry> findByAccountAndEntryType(Account account, EntryType entryType);
 
-    @Query("SELECT e FROM TransactionEntry e WHERE e.account = :account AND e.transaction.transactionDate BETWEEN :startDate AND :endDate")
+    @Query("SELECT e FROM TransactionEntry e WHERE e.account = :account AND e.transactionDate BETWEEN :startDate AND :endDate")
     List<TransactionEntry> findByAccountAndDateRange(Account account, LocalDateTime startDate, LocalDateTime endDate);
 
     @Query("SELECT e FROM TransactionEntry e WHERE e.account.id = :accountId ORDER BY e.createdAt DESC")
     List<TransactionEntry> findByAccountOrderByDate(UUID accountId);
+
+    @Query("SELECT new com.superapp.core.ledger.repository.TransactionEntryView(e.id, e.transaction.id, " +
+            "a.accountCode, a.accountName, e.entryType, e.amount, e.balanceAfter, e.description, e.createdAt) " +
+            "FROM TransactionEntry e JOIN e.account a WHERE a.id = :accountId " +
+            "AND (e.createdAt < :cursorCreatedAt OR (e.createdAt = :cursorCreatedAt AND e.id < :cursorId)) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<TransactionEntryView> findPageByAccountId(UUID accountId, LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
+
+    /**
+     * Entries of several transactions in one query; the date bounds only serve partition pruning
+     */
+    @Query("SELECT new com.superapp.core.ledger.repository.TransactionEntryView(e.id, e.transaction.id, " +
+            "a.accountCode, a.accountName, e.entryType, e.amount, e.balanceAfter, e.description, e.createdAt) " +
+            "FROM TransactionEntry e JOIN e.account a WHERE e.transaction.id IN :transactionIds " +
+            "AND e.transactionDate BETWEEN :fromDate AND :toDate ORDER BY e.createdAt, e.id")
+    List<TransactionEntryView> findViewsByTransactionIds(Collection<UUID> transactionIds,
+                                                         LocalDateTime fromDate, LocalDateTime toDate);
+
+    /**
+     * Stream a tenant's entries with their transaction and account, ordered by transaction, through a server-side cursor
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM TransactionEntry e JOIN FETCH e.transaction t JOIN FETCH e.account " +
+            "WHERE t.tenantId = :tenantId AND t.transactionDate BETWEEN :startDate AND :endDate " +
+            "AND e.transactionDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<TransactionEntry> streamByTenantIdAndDateRange(String tenantId, LocalDateTime startDate, LocalDateTime endDate);
 }
 
 
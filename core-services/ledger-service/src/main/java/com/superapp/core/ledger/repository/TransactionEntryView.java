@@ -0,0 +1,20 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.domain.enums.EntryType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a transaction entry with its account's code and name,
+ * filled by constructor expression so listing entries never loads Account entities
+ */
+public record TransactionEntryView(UUID id, UUID transactionId, String accountCode, String accountName,
+                                   EntryType entryType, BigDecimal amount, BigDecimal balanceAfter,
+                                   String description, LocalDateTime createdAt) {
+}
+
+
+
+
@@ -2,11 +2,13 @@ package com.superapp.core.ledger.repository;
 
 import com.superapp.core.ledger.domain.entity.Transaction;
 import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,12 +29,38 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
 
     Optional<Transaction> findByReferenceIdAndReferenceType(String referenceId, String referenceType);
 
+    List<Transaction> findByReferenceIdIn(Collection<String> referenceIds);
+
     @Query("SELECT t FROM Transaction t WHERE t.tenantId = :tenantId AND t.transactionDate BETWEEN :startDate AND :endDate")
     List<Transaction> findByTenantIdAndDateRange(String tenantId, LocalDateTime startDate, LocalDateTime endDate);
 
     @Query("SELECT t FROM Transaction t WHERE t.tenantId = :tenantId AND t.status = :status ORDER BY t.transactionDate DESC")
     List<Transaction> findRecentByTenantIdAndStatus(String tenantId, TransactionStatus status);
 
+    // Keyset pagination, newest first: rows strictly after the (transactionDate, id) cursor.
+    // The redundant "transactionDate <= cursorDate" lets PostgreSQL prune newer partitions.
+
+    @Query("SELECT t FROM Transaction t WHERE t.tenantId = :tenantId " +
+            "AND t.transactionDate <= :cursorDate " +
+            "AND (t.transactionDate < :cursorDate OR (t.transactionDate = :cursorDate AND t.id < :cursorId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByTenantId(String tenantId, LocalDateTime cursorDate, UUID cursorId, Limit limit);
+
+    @Query("SELECT t FROM Transaction t WHERE t.tenantId = :tenantId " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate " +
+            "AND t.transactionDate <= :cursorDate " +
+            "AND (t.transactionDate < :cursorDate OR (t.transactionDate = :cursorDate AND t.id < :cursorId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByTenantIdAndDateRange(String tenantId, LocalDateTime startDate, LocalDateTime endDate,
+                                                     LocalDateTime cursorDate, UUID cursorId, Limit limit);
+
+    @Query("SELECT t FROM Transaction t WHERE t.tenantId = :tenantId AND t.status = :status " +
+            "AND t.transactionDate <= :cursorDate " +
+            "AND (t.transactionDate < :cursorDate OR (t.transactionDate = :cursorDate AND t.id < :cursorId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByTenantIdAndStatus(String tenantId, TransactionStatus status,
+                                                  LocalDateTime cursorDate, UUID cursorId, Limit limit);
+
     boolean existsByTransactionNumber(String transactionNumber);
 
     long countByTenantIdAndStatus(String tenantId, TransactionStatus status);
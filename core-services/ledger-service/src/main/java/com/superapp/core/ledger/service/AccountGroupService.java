@@ -0,0 +1,306 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.domain.entity.AccountGroup;
+import com.superapp.core.ledger.domain.entity.Transaction;
+import com.superapp.core.ledger.domain.entity.TransactionEntry;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
+import com.superapp.core.ledger.dto.request.CreateAccountGroupRequest;
+import com.superapp.core.ledger.dto.response.AccountGroupResponse;
+import com.superapp.core.ledger.repository.AccountGroupBalanceRepository;
+import com.superapp.core.ledger.repository.AccountGroupRepository;
+import com.superapp.core.ledger.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Account Group Service
+ *
+ * Manages the account group tree and keeps every group's subtree balance up to date:
+ * - A posting adds each entry's balance delta to the account's group and all of its ancestors
+ * - Deltas are accumulated per DB transaction and upserted in key order just before commit,
+ *   into one of several slots per group, like the daily rollups
+ * - Moving an account between groups moves its current balance along with it
+ * - Balances are kept in each account's own currency, for postings and moves alike, so a group holds
+ *   one balance per account currency and never adds amounts of different currencies together
+ *
+ * Reading a subtree balance sums a group's slots, whatever the number of accounts below it.
+ * Membership is checked under the account row locks postings take; with the striped engine,
+ * postings read it from the near cache instead. A move invalidates the moved accounts there on every
+ * instance, but a posting already in flight still lands in the old group, so (re)grouping an account
+ * should happen while it is idle.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AccountGroupService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO account_group_balances (id, group_id, currency, slot, balance, created_at, updated_at, version) " +
+            "VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, 0) " +
+            "ON CONFLICT (group_id, currency, slot) DO UPDATE SET " +
+            "balance = account_group_balances.balance + EXCLUDED.balance, " +
+            "updated_at = EXCLUDED.updated_at, version = account_group_balances.version + 1";
+
+    private static final Comparator<GroupKey> KEY_ORDER = Comparator.comparing(GroupKey::groupId)
+            .thenComparing(GroupKey::currency);
+
+    private final AccountGroupRepository groupRepository;
+    private final AccountGroupBalanceRepository balanceRepository;
+    private final AccountRepository accountRepository;
+    private final AccountNearCache accountNearCache;
+    private final StripedBalanceEngine balanceEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rows per group and currency; each DB transaction writes to one slot picked at random
+     */
+    @Value("${ledger.groups.slots:8}")
+    private int slots;
+
+    /**
+     * Group id to itself and its ancestors; groups never move, so entries never go stale
+     */
+    private final Map<UUID, List<UUID>> chains = new ConcurrentHashMap<>();
+
+    @Transactional
+    public AccountGroupResponse createGroup(CreateAccountGroupRequest request) {
+        if (groupRepository.existsByGroupCode(request.getGroupCode())) {
+            throw new InvalidTransactionException("Account group already exists: " + request.getGroupCode());
+        }
+
+        AccountGroup parent = null;
+        if (request.getParentGroupId() != null) {
+            parent = findGroup(request.getParentGroupId());
+            if (!parent.getTenantId().equals(request.getTenantId())) {
+                throw new InvalidTransactionException("Parent group belongs to another tenant: " + parent.getGroupCode());
+            }
+        }
+
+        AccountGroup group = groupRepository.save(AccountGroup.builder()
+                .groupCode(request.getGroupCode())
+                .groupName(request.getGroupName())
+                .tenantId(request.getTenantId())
+                .parentGroupId(request.getParentGroupId())
+                .path(parent != null ? parent.childPath() : "/")
+                .depth(parent != null ? parent.getDepth() + 1 : 0)
+                .description(request.getDescription())
+                .build());
+
+        log.info("Account group created: {}", group.getGroupCode());
+        return toResponse(group, Map.of());
+    }
+
+    @Transactional(readOnly = true)
+    public AccountGroupResponse getGroup(UUID groupId) {
+        return toResponses(List.of(findGroup(groupId))).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccountGroupResponse> getChildren(UUID groupId) {
+        findGroup(groupId);
+        return toResponses(groupRepository.findByParentGroupIdOrderByGroupCode(groupId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccountGroupResponse> getRootGroups(String tenantId) {
+        return toResponses(groupRepository.findByTenantIdAndParentGroupIdIsNullOrderByGroupCode(tenantId));
+    }
+
+    /**
+     * Put an account (and its shards) into a group, moving its balance out of its previous group
+     */
+    @Transactional
+    @CacheEvict(value = "accounts", key = "#accountId")
+    public void assignAccount(UUID groupId, UUID accountId) {
+        AccountGroup group = findGroup(groupId);
+        Account account = findAccount(accountId);
+        if (!group.getTenantId().equals(account.getTenantId())) {
+            throw new InvalidTransactionException("Account group belongs to another tenant: " + group.getGroupCode());
+        }
+        moveAccount(account, groupId);
+    }
+
+    /**
+     * Take an account (and its shards) out of a group
+     */
+    @Transactional
+    @CacheEvict(value = "accounts", key = "#accountId")
+    public void removeAccount(UUID groupId, UUID accountId) {
+        Account account = findAccount(accountId);
+        if (!groupId.equals(account.getGroupId())) {
+            throw new InvalidTransactionException("Account is not in group: " + account.getAccountCode());
+        }
+        moveAccount(account, null);
+    }
+
+    /**
+     * Add a posted transaction's entries to the balances of their accounts' groups, in each account's
+     * currency like the balances moved by {@link #assignAccount}; must run inside the posting's DB transaction
+     */
+    public void record(Transaction transaction, Function<TransactionEntry, UUID> groupOf,
+                       Function<TransactionEntry, AccountType> accountTypeOf,
+                       Function<TransactionEntry, String> currencyOf) {
+        for (TransactionEntry entry : transaction.getEntries()) {
+            UUID groupId = groupOf.apply(entry);
+            if (groupId != null) {
+                BigDecimal delta = accountTypeOf.apply(entry).balanceDelta(entry.getEntryType(), entry.getAmount());
+                addToChain(groupId, currencyOf.apply(entry), delta);
+            }
+        }
+    }
+
+    private void moveAccount(Account account, UUID groupId) {
+        if (account.getParentAccountId() != null) {
+            throw new InvalidTransactionException("Account is a shard, group its logical account instead: "
+                    + account.getAccountCode());
+        }
+
+        List<Account> physical = new ArrayList<>();
+        physical.add(account);
+        physical.addAll(accountRepository.findByParentAccountIdOrderByAccountCode(account.getId()));
+        // Same locks as postings, so no posting sees the old group once the balance has moved
+        accountRepository.lockInCanonicalOrder(physical);
+
+        UUID previousGroupId = account.getGroupId();
+        if (Objects.equals(previousGroupId, groupId)) {
+            return;
+        }
+
+        BigDecimal balance = BigDecimal.ZERO;
+        for (Account shard : physical) {
+            balance = balance.add(balanceEngine.currentBalance(shard.getId()).orElseGet(shard::getBalance));
+            shard.setGroupId(groupId);
+            accountRepository.save(shard);
+            // Postings on the striped engine take the group from the near cache, on this instance and others
+            accountNearCache.invalidate(shard.getId());
+        }
+
+        if (previousGroupId != null) {
+            addToChain(previousGroupId, account.getCurrency(), balance.negate());
+        }
+        if (groupId != null) {
+            addToChain(groupId, account.getCurrency(), balance);
+        }
+        log.info("Account {} moved from group {} to {}", account.getAccountCode(), previousGroupId, groupId);
+    }
+
+    private void addToChain(UUID groupId, String currency, BigDecimal delta) {
+        Map<GroupKey, BigDecimal> pending = pendingForCurrentTransaction();
+        for (UUID id : chains.computeIfAbsent(groupId, id -> findGroup(id).selfAndAncestors())) {
+            pending.merge(new GroupKey(id, currency), delta, BigDecimal::add);
+        }
+    }
+
+    private List<AccountGroupResponse> toResponses(List<AccountGroup> groups) {
+        if (groups.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Map<String, BigDecimal>> balances = new HashMap<>();
+        for (Object[] row : balanceRepository.sumByGroupIdIn(groups.stream().map(AccountGroup::getId).toList())) {
+            balances.computeIfAbsent((UUID) row[0], id -> new LinkedHashMap<>()).put((String) row[1], (BigDecimal) row[2]);
+        }
+        return groups.stream()
+                .map(group -> toResponse(group, balances.getOrDefault(group.getId(), Map.of())))
+                .toList();
+    }
+
+    private AccountGroupResponse toResponse(AccountGroup group, Map<String, BigDecimal> balances) {
+        return AccountGroupResponse.builder()
+                .id(group.getId())
+                .groupCode(group.getGroupCode())
+                .groupName(group.getGroupName())
+                .tenantId(group.getTenantId())
+                .parentGroupId(group.getParentGroupId())
+                .path(group.getPath())
+                .depth(group.getDepth())
+                .description(group.getDescription())
+                .balances(balances)
+                .createdAt(group.getCreatedAt())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<GroupKey, BigDecimal> pendingForCurrentTransaction() {
+        Map<GroupKey, BigDecimal> pending = (Map<GroupKey, BigDecimal>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Group balances can only be updated inside a transaction");
+        }
+
+        Map<GroupKey, BigDecimal> created = new TreeMap<>(KEY_ORDER);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                writePending(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AccountGroupService.this);
+            }
+        });
+        return created;
+    }
+
+    private void writePending(Map<GroupKey, BigDecimal> pending) {
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>(pending.size());
+        pending.forEach((key, delta) -> {
+            if (delta.signum() != 0) {
+                rows.add(new Object[]{key.groupId(), key.currency(), slot, delta, now, now});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+        pending.clear();
+    }
+
+    private AccountGroup findGroup(UUID groupId) {
+        return groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("AccountGroup", "id", groupId));
+    }
+
+    private Account findAccount(UUID accountId) {
+        return accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+    }
+
+    private record GroupKey(UUID groupId, String currency) {
+    }
+}
+
+
+
+
@@ -0,0 +1,272 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account Near Cache
+ *
+ * In-process, size-bounded cache of account metadata (code, id, name, type, currency, active, shards),
+ * sitting in front of the shared Redis cache. Postings resolve account codes here, so accounts
+ * that were already seen cost no lookup round trip. Balances are never cached here.
+ *
+ * Invalidations are broadcast to the other instances over Redis pub/sub after commit. Every
+ * invalidation bumps a generation; a load that started before the latest invalidation may have read
+ * the old row, so it is returned but not cached, and can never re-insert what was invalidated. Entries also
+ * expire after a TTL, a backstop for broadcasts lost while Redis was unreachable; the posting path
+ * re-checks that accounts are active under their row locks, so it never relies on this cache alone.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AccountNearCache {
+
+    /**
+     * Redis channel carrying the ids of invalidated accounts
+     */
+    public static final String INVALIDATION_CHANNEL = "ledger:account-cache:invalidations";
+
+    private final AccountRepository accountRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${ledger.account-cache.broadcast.enabled:true}")
+    private boolean broadcast;
+
+    @Value("${ledger.account-cache.max-size:100000}")
+    private int maxSize;
+
+    @Value("${ledger.account-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, AccountRef> byCode = new ConcurrentHashMap<>();
+    private final Map<UUID, AccountRef> byId = new ConcurrentHashMap<>();
+
+    /**
+     * Invalidations so far, on this instance or broadcast
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Resolve an account code, loading it on a miss
+     */
+    public Optional<AccountRef> findByCode(String accountCode) {
+        AccountRef ref = fresh(byCode.get(accountCode));
+        if (ref != null) {
+            return Optional.of(ref);
+        }
+        long loadedAfter = generation();
+        return accountRepository.findByAccountCode(accountCode).map(account -> put(account, loadedAfter));
+    }
+
+    /**
+     * Resolve an account id, loading it on a miss
+     */
+    public Optional<AccountRef> findById(UUID accountId) {
+        AccountRef ref = fresh(byId.get(accountId));
+        if (ref != null) {
+            return Optional.of(ref);
+        }
+        long loadedAfter = generation();
+        return accountRepository.findById(accountId).map(account -> put(account, loadedAfter));
+    }
+
+    /**
+     * Resolve many account codes; all misses are loaded with one IN query.
+     * Unknown codes are absent from the result.
+     */
+    public Map<String, AccountRef> findAllByCodes(Collection<String> accountCodes) {
+        Map<String, AccountRef> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String accountCode : accountCodes) {
+            AccountRef ref = fresh(byCode.get(accountCode));
+            if (ref != null) {
+                resolved.put(accountCode, ref);
+            } else {
+                misses.add(accountCode);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long loadedAfter = generation();
+            for (Account account : accountRepository.findByAccountCodeIn(misses)) {
+                resolved.put(account.getAccountCode(), put(account, loadedAfter));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Cached metadata for an account id, without loading
+     */
+    public Optional<AccountRef> peek(UUID accountId) {
+        return Optional.ofNullable(fresh(byId.get(accountId)));
+    }
+
+    /**
+     * Drop an account here and on every other instance; when called inside a DB transaction
+     * it is dropped again, and broadcast, after commit
+     */
+    public void invalidate(UUID accountId) {
+        remove(accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(accountId);
+                    publish(accountId);
+                }
+            });
+        } else {
+            publish(accountId);
+        }
+    }
+
+    /**
+     * Apply an invalidation broadcast by any instance, this one included
+     */
+    public void onInvalidation(String accountId) {
+        try {
+            remove(UUID.fromString(accountId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed account cache invalidation: {}", accountId);
+        }
+    }
+
+    /**
+     * Generation to pass to {@link #put}, read before the account is loaded
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache an account loaded after reading {@link #generation()}. If an account was invalidated
+     * since, the ref is returned without being cached.
+     */
+    public AccountRef put(Account account, long loadedAfter) {
+        if (byId.size() >= maxSize) {
+            evict();
+        }
+        List<UUID> shardIds = List.of();
+        if (account.getShardCount() != null && account.getShardCount() > 1) {
+            List<UUID> ids = new ArrayList<>();
+            ids.add(account.getId());
+            for (Account shard : accountRepository.findByParentAccountIdOrderByAccountCode(account.getId())) {
+                ids.add(put(shard, loadedAfter).id());
+            }
+            shardIds = List.copyOf(ids);
+        }
+        AccountRef ref = new AccountRef(account.getId(), account.getAccountCode(), account.getAccountName(),
+                account.getAccountType(), account.getCurrency(), Boolean.TRUE.equals(account.getIsActive()),
+                shardIds, account.getParentAccountId(), account.getGroupId(), System.currentTimeMillis());
+        if (generation.get() != loadedAfter) {
+            return ref;
+        }
+        byCode.put(ref.accountCode(), ref);
+        byId.put(ref.id(), ref);
+        // An invalidation that bumped the generation after the check may have run its removal before these puts
+        if (generation.get() != loadedAfter) {
+            byId.remove(ref.id(), ref);
+            byCode.remove(ref.accountCode(), ref);
+        }
+        return ref;
+    }
+
+    private AccountRef fresh(AccountRef ref) {
+        if (ref == null || System.currentTimeMillis() - ref.loadedAt() > ttlSeconds * 1000) {
+            return null;
+        }
+        return ref;
+    }
+
+    private void publish(UUID accountId) {
+        if (!broadcast) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, accountId.toString());
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast invalidation of account {}, other instances drop it within {} s: {}",
+                    accountId, ttlSeconds, e.getMessage());
+        }
+    }
+
+    private void remove(UUID accountId) {
+        generation.incrementAndGet();
+        AccountRef ref = byId.remove(accountId);
+        if (ref != null) {
+            byCode.remove(ref.accountCode());
+        }
+    }
+
+    /**
+     * Make room by dropping roughly a tenth of the entries (arbitrary ones, not strict LRU)
+     */
+    private void evict() {
+        int toEvict = Math.max(1, maxSize / 10);
+        Iterator<AccountRef> iterator = byId.values().iterator();
+        while (toEvict-- > 0 && iterator.hasNext()) {
+            AccountRef ref = iterator.next();
+            iterator.remove();
+            byCode.remove(ref.accountCode());
+        }
+        log.debug("Account near cache evicted entries, size now {}", byId.size());
+    }
+
+    /**
+     * Immutable account metadata.
+     * For a sharded account, shardIds holds the account itself followed by its shard accounts;
+     * a shard account has the sharded account as parentId.
+     */
+    public record AccountRef(UUID id, String accountCode, String accountName, AccountType accountType,
+                             String currency, boolean active, List<UUID> shardIds, UUID parentId, UUID groupId,
+                             long loadedAt) {
+
+        public boolean isSharded() {
+            return shardIds.size() > 1;
+        }
+
+        /**
+         * Account carrying the holds on this physical account's balance: shard 0 for a shard, else itself
+         */
+        public UUID holdAccountId() {
+            return parentId != null ? parentId : id;
+        }
+
+        /**
+         * Physical accounts holding this account's balance
+         */
+        public List<UUID> physicalIds() {
+            return isSharded() ? shardIds : List.of(id);
+        }
+
+        /**
+         * Physical account a posting should hit, spread across shards by hash
+         */
+        public UUID postingTarget(int hash) {
+            return isSharded() ? shardIds.get(Math.floorMod(hash, shardIds.size())) : id;
+        }
+    }
+}
+
+
+
+
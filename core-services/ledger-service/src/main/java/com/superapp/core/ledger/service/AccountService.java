@@ -1,20 +1,36 @@
 package com.superapp.core.ledger.service;
 
 import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.domain.exception.InvalidAccountException;
 import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
 import com.superapp.core.ledger.dto.mapper.AccountMapper;
+import com.superapp.core.ledger.dto.mapper.TransactionMapper;
+import com.superapp.core.ledger.dto.request.BalanceLookupRequest;
 import com.superapp.core.ledger.dto.request.CreateAccountRequest;
+import com.superapp.core.ledger.dto.response.AccountBalanceResponse;
 import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.BalanceLookupResponse;
+import com.superapp.core.ledger.dto.response.CursorPage;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
 import com.superapp.core.ledger.repository.AccountRepository;
+import com.superapp.core.ledger.repository.TransactionEntryRepository;
+import com.superapp.core.ledger.repository.TransactionEntryView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,6 +45,10 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final AccountMapper accountMapper;
+    private final StripedBalanceEngine balanceEngine;
+    private final AccountNearCache accountNearCache;
+    private final TransactionEntryRepository entryRepository;
+    private final TransactionMapper transactionMapper;
 
     /**
      * Create a new account
@@ -48,14 +68,12 @@ public class AccountService {
     }
 
     /**
-     * Get account by ID
+     * Get account by ID. Sharded accounts are not cached: postings move their balance on every shard.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "accounts", key = "#accountId")
+    @Cacheable(value = "accounts", key = "#accountId", unless = "#result.shardCount != null and #result.shardCount > 1")
     public AccountResponse getAccountById(UUID accountId) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
-        return accountMapper.toResponse(account);
+        return toResponse(findById(accountId));
     }
 
     /**
@@ -63,28 +81,26 @@ public class AccountService {
      */
     @Transactional(readOnly = true)
     public AccountResponse getAccountByCode(String accountCode) {
-        Account account = accountRepository.findByAccountCode(accountCode)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "accountCode", accountCode));
-        return accountMapper.toResponse(account);
+        return toResponse(findById(resolve(accountCode).id()));
     }
 
     /**
-     * Get all accounts for a tenant
+     * Get all accounts for a tenant; shards are part of their account, not listed themselves
      */
     @Transactional(readOnly = true)
     public List<AccountResponse> getAccountsByTenant(String tenantId) {
-        return accountRepository.findByTenantId(tenantId).stream()
-                .map(accountMapper::toResponse)
+        return accountRepository.findByTenantIdAndParentAccountIdIsNull(tenantId).stream()
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get accounts for a user
+     * Get accounts for a user; shards are part of their account, not listed themselves
      */
     @Transactional(readOnly = true)
     public List<AccountResponse> getAccountsByUser(UUID userId) {
-        return accountRepository.findByUserId(userId).stream()
-                .map(accountMapper::toResponse)
+        return accountRepository.findByUserIdAndParentAccountIdIsNull(userId).stream()
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -99,6 +115,7 @@ public class AccountService {
 
         account.setIsActive(false);
         accountRepository.save(account);
+        accountNearCache.invalidate(accountId);
 
         log.info("Account deactivated: {}", account.getAccountCode());
     }
@@ -108,9 +125,187 @@ public class AccountService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getAccountBalance(String accountCode) {
-        Account account = accountRepository.findByAccountCode(accountCode)
+        AccountNearCache.AccountRef ref = resolve(accountCode);
+        if (ref.isSharded()) {
+            return aggregatedBalance(ref);
+        }
+        return balanceEngine.currentBalance(ref.id())
+                .orElseGet(() -> findById(ref.id()).getBalance());
+    }
+
+    /**
+     * Balances of many accounts, given by code and/or owning user.
+     * Codes are resolved through the near cache and all balances not held by the balance engine
+     * are read with one query; sharded accounts are summed over their shards.
+     */
+    @Transactional(readOnly = true)
+    public BalanceLookupResponse getBalances(BalanceLookupRequest request) {
+        Map<UUID, AccountNearCache.AccountRef> refs = new LinkedHashMap<>();
+        Map<UUID, BigDecimal> stored = new HashMap<>();
+        List<String> unknownCodes = new ArrayList<>();
+
+        if (request.getAccountCodes() != null && !request.getAccountCodes().isEmpty()) {
+            Map<String, AccountNearCache.AccountRef> byCode = accountNearCache.findAllByCodes(request.getAccountCodes());
+            for (String accountCode : request.getAccountCodes()) {
+                AccountNearCache.AccountRef ref = byCode.get(accountCode);
+                if (ref != null) {
+                    refs.putIfAbsent(ref.id(), ref);
+                } else {
+                    unknownCodes.add(accountCode);
+                }
+            }
+        }
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            // This query already carries the balances, so unsharded user accounts need no second read
+            long loadedAfter = accountNearCache.generation();
+            for (Account account : accountRepository.findByUserIdInAndParentAccountIdIsNull(request.getUserIds())) {
+                refs.putIfAbsent(account.getId(), accountNearCache.put(account, loadedAfter));
+                stored.put(account.getId(), account.getBalance());
+            }
+        }
+
+        List<UUID> toLoad = new ArrayList<>();
+        for (AccountNearCache.AccountRef ref : refs.values()) {
+            for (UUID physicalId : ref.physicalIds()) {
+                if (!stored.containsKey(physicalId) && balanceEngine.currentBalance(physicalId).isEmpty()) {
+                    toLoad.add(physicalId);
+                }
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            for (Object[] row : accountRepository.findBalancesByIdIn(toLoad)) {
+                stored.put((UUID) row[0], (BigDecimal) row[1]);
+            }
+        }
+
+        List<AccountBalanceResponse> balances = new ArrayList<>(refs.size());
+        for (AccountNearCache.AccountRef ref : refs.values()) {
+            BigDecimal balance = BigDecimal.ZERO;
+            for (UUID physicalId : ref.physicalIds()) {
+                balance = balance.add(balanceEngine.currentBalance(physicalId)
+                        .orElseGet(() -> stored.getOrDefault(physicalId, BigDecimal.ZERO)));
+            }
+            balances.add(AccountBalanceResponse.builder()
+                    .accountId(ref.id())
+                    .accountCode(ref.accountCode())
+                    .accountName(ref.accountName())
+                    .accountType(ref.accountType())
+                    .currency(ref.currency())
+                    .balance(balance)
+                    .build());
+        }
+
+        return BalanceLookupResponse.builder()
+                .balances(balances)
+                .unknownAccountCodes(unknownCodes)
+                .build();
+    }
+
+    /**
+     * Spread an account's future postings across shardCount physical accounts.
+     * The account itself is shard 0; missing shard accounts are created. Shards are never removed.
+     */
+    @Transactional
+    @CacheEvict(value = "accounts", key = "#accountId")
+    public AccountResponse shardAccount(UUID accountId, int shardCount) {
+        Account account = findById(accountId);
+        if (account.getParentAccountId() != null) {
+            throw new InvalidAccountException("Account is itself a shard: " + account.getAccountCode());
+        }
+        if (shardCount < account.getShardCount()) {
+            throw new InvalidAccountException(String.format(
+                    "Account %s already has %d shards", account.getAccountCode(), account.getShardCount()));
+        }
+
+        for (int shard = account.getShardCount(); shard < shardCount; shard++) {
+            accountRepository.save(Account.builder()
+                    .accountCode(shardCode(account.getAccountCode(), shard))
+                    .accountName(account.getAccountName() + " (shard " + shard + ")")
+                    .accountType(account.getAccountType())
+                    .tenantId(account.getTenantId())
+                    .userId(account.getUserId())
+                    .currency(account.getCurrency())
+                    .description("Shard " + shard + " of " + account.getAccountCode())
+                    .parentAccountId(account.getId())
+                    .groupId(account.getGroupId())
+                    .build());
+        }
+        account.setShardCount(shardCount);
+        accountRepository.save(account);
+        accountNearCache.invalidate(accountId);
+
+        log.info("Account {} sharded into {} physical accounts", account.getAccountCode(), shardCount);
+        return toResponse(account);
+    }
+
+    /**
+     * Page through an account's entries, newest first; a sharded account's page spans all its shards
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse.TransactionEntryResponse> getAccountEntriesPage(
+            UUID accountId, String cursor, int size) {
+        AccountNearCache.AccountRef ref = accountNearCache.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+        PageCursor position = PageCursor.decode(cursor);
+        Limit limit = PageCursor.limit(size);
+
+        // Each shard's page comes off its own index range; the newest of them make up the account's page
+        List<TransactionEntryView> entries = new ArrayList<>();
+        for (UUID physicalId : ref.physicalIds()) {
+            entries.addAll(entryRepository.findPageByAccountId(physicalId, position.timestamp(), position.id(), limit));
+        }
+        if (ref.isSharded()) {
+            // Ids compare as PostgreSQL does: unsigned, i.e. as lower-case hex
+            entries.sort(Comparator.comparing(TransactionEntryView::createdAt)
+                    .thenComparing(entry -> entry.id().toString()).reversed());
+            entries = entries.subList(0, Math.min(entries.size(), limit.max()));
+        }
+        return PageCursor.page(entries, size, entry -> new PageCursor(entry.createdAt(), entry.id()),
+                transactionMapper::toEntryResponse);
+    }
+
+    private AccountNearCache.AccountRef resolve(String accountCode) {
+        return accountNearCache.findByCode(accountCode)
                 .orElseThrow(() -> new ResourceNotFoundException("Account", "accountCode", accountCode));
-        return account.getBalance();
+    }
+
+    /**
+     * Response with the account's current balance, as getAccountBalance reads it
+     */
+    private AccountResponse toResponse(Account account) {
+        AccountResponse response = accountMapper.toResponse(account);
+        if (account.getShardCount() != null && account.getShardCount() > 1) {
+            response.setBalance(aggregatedBalance(accountNearCache.findById(account.getId()).orElseThrow()));
+        } else {
+            balanceEngine.currentBalance(account.getId()).ifPresent(response::setBalance);
+        }
+        return response;
+    }
+
+    /**
+     * Sum of all shard balances, preferring in-memory engine balances where available
+     */
+    private BigDecimal aggregatedBalance(AccountNearCache.AccountRef ref) {
+        BigDecimal inMemory = BigDecimal.ZERO;
+        List<UUID> stored = new ArrayList<>();
+        for (UUID physicalId : ref.physicalIds()) {
+            Optional<BigDecimal> balance = balanceEngine.currentBalance(physicalId);
+            if (balance.isPresent()) {
+                inMemory = inMemory.add(balance.get());
+            } else {
+                stored.add(physicalId);
+            }
+        }
+        return stored.isEmpty() ? inMemory : inMemory.add(accountRepository.sumBalanceByIdIn(stored));
+    }
+
+    private static String shardCode(String accountCode, int shard) {
+        return accountCode + "-SHARD-" + shard;
+    }
+
+    private Account findById(UUID accountId) {
+        return accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
     }
 }
 
@@ -0,0 +1,364 @@
+package com.superapp.core.ledger.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.duckdb.DuckDBAppender;
+import org.duckdb.DuckDBConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Analytics Export Service
+ *
+ * Incrementally exports transaction entries, joined with their transaction and account
+ * attributes, to Parquet files for analytics:
+ * - Each run fixes a target snapshot and exports the entries visible in it but not in the snapshot
+ *   the previous run exported, by their inserting transaction id, so an entry exported late
+ *   because it committed late is never skipped
+ * - Entries are read in (created_xid, id) keyset pages from read-only transactions (the read
+ *   replica when one is configured, once it has caught up with the target)
+ * - Each page is written through an in-memory DuckDB instance as hive-style partitions,
+ *   {@code <dir>/tenant_id=<tenant>/transaction_day=<yyyy-MM-dd>/part-<page>-<n>.parquet}
+ * - Files are staged and moved into place before the position advances; a resumed run first
+ *   deletes whatever its next page left behind, so a crash in between does not duplicate rows
+ *
+ * Enable on one instance only.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AnalyticsExportService {
+
+    private static final String EXPORT_NAME = "transaction_entries";
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    private static final String FIRST_XID = "0";
+
+    /**
+     * Snapshot in which nothing is visible, for the first run
+     */
+    private static final String NOTHING_EXPORTED = "1:1:";
+
+    private static final String STATE_SQL =
+            "SELECT exported_snapshot::text, target_snapshot::text, last_xid::text, last_entry_id, page_number " +
+            "FROM analytics_export_watermarks WHERE export_name = ?";
+
+    private static final String SAVE_STATE_SQL =
+            "INSERT INTO analytics_export_watermarks (export_name, exported_snapshot, target_snapshot, last_xid, " +
+            "last_entry_id, page_number, rows_exported, updated_at) " +
+            "VALUES (?, CAST(? AS pg_snapshot), CAST(? AS pg_snapshot), CAST(? AS xid8), ?, ?, ?, ?) " +
+            "ON CONFLICT (export_name) DO UPDATE SET exported_snapshot = EXCLUDED.exported_snapshot, " +
+            "target_snapshot = EXCLUDED.target_snapshot, last_xid = EXCLUDED.last_xid, " +
+            "last_entry_id = EXCLUDED.last_entry_id, page_number = EXCLUDED.page_number, " +
+            "rows_exported = analytics_export_watermarks.rows_exported + EXCLUDED.rows_exported, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String CURRENT_SNAPSHOT_SQL = "SELECT pg_current_snapshot()::text";
+
+    /**
+     * Whether every transaction visible in the target has finished in the reading snapshot,
+     * i.e. the server read from has caught up with the target
+     */
+    private static final String COVERS_SQL =
+            "SELECT pg_snapshot_xmax(s.current) >= pg_snapshot_xmax(s.target) AND NOT EXISTS (" +
+            "SELECT 1 FROM pg_snapshot_xip(s.current) x " +
+            "WHERE x < pg_snapshot_xmax(s.target) AND pg_visible_in_snapshot(x, s.target)) " +
+            "FROM (SELECT pg_current_snapshot() AS current, CAST(? AS pg_snapshot) AS target) s";
+
+    private static final String ENTRIES_SELECT =
+            "SELECT e.id, e.created_at, e.transaction_id, t.transaction_number, e.transaction_date, t.tenant_id, " +
+            "t.status, t.currency, t.reference_type, t.reference_id, e.account_id, a.account_code, a.account_type, " +
+            "e.entry_type, e.amount, e.balance_after, e.created_xid::text " +
+            "FROM transaction_entries e " +
+            "JOIN transactions t ON t.id = e.transaction_id AND t.transaction_date = e.transaction_date " +
+            "JOIN accounts a ON a.id = e.account_id ";
+
+    /**
+     * Entries inserted before created_xid was recorded; exported by the first run only
+     */
+    private static final String UNTRACKED_PAGE_SQL = ENTRIES_SELECT +
+            "WHERE e.created_xid IS NULL AND e.id > ? ORDER BY e.id LIMIT ?";
+
+    /**
+     * Entries past the position, visible in the target snapshot and not in the exported one
+     */
+    private static final String PAGE_SQL = ENTRIES_SELECT +
+            "WHERE (e.created_xid, e.id) > (CAST(? AS xid8), ?) " +
+            "AND e.created_xid >= pg_snapshot_xmin(CAST(? AS pg_snapshot)) " +
+            "AND NOT pg_visible_in_snapshot(e.created_xid, CAST(? AS pg_snapshot)) " +
+            "AND e.created_xid < pg_snapshot_xmax(CAST(? AS pg_snapshot)) " +
+            "AND pg_visible_in_snapshot(e.created_xid, CAST(? AS pg_snapshot)) " +
+            "ORDER BY e.created_xid, e.id LIMIT ?";
+
+    private static final String DUCKDB_TABLE_SQL =
+            "CREATE TABLE entries (entry_id VARCHAR, created_at TIMESTAMP, transaction_id VARCHAR, " +
+            "transaction_number VARCHAR, transaction_date TIMESTAMP, tenant_id VARCHAR, status VARCHAR, " +
+            "currency VARCHAR, reference_type VARCHAR, reference_id VARCHAR, account_id VARCHAR, " +
+            "account_code VARCHAR, account_type VARCHAR, entry_type VARCHAR, amount DECIMAL(19, 4), " +
+            "balance_after DECIMAL(19, 4))";
+
+    private static final String DUCKDB_COPY_SQL =
+            "COPY (SELECT *, CAST(transaction_date AS DATE) AS transaction_day FROM entries) TO '%s' " +
+            "(FORMAT PARQUET, COMPRESSION ZSTD, PARTITION_BY (tenant_id, transaction_day), " +
+            "FILENAME_PATTERN 'part-%s-{i}', OVERWRITE_OR_IGNORE)";
+
+    private static final String STAGING_DIR = "_staging";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${ledger.analytics-export.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ledger.analytics-export.dir:./analytics}")
+    private String exportDir;
+
+    @Value("${ledger.analytics-export.page-size:50000}")
+    private int pageSize;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Export every entry committed since the last run, a page at a time; resumes an interrupted run
+     */
+    @Scheduled(fixedDelayString = "${ledger.analytics-export.interval-ms:300000}",
+            initialDelayString = "${ledger.analytics-export.initial-delay-ms:60000}")
+    public void export() {
+        if (!enabled) {
+            return;
+        }
+
+        ExportState state = readState();
+        // A run that stopped may have moved the files of its next page into place without saving its position
+        boolean resumed = state != null && state.target() != null;
+        if (!resumed) {
+            String exported = state != null ? state.exported() : null;
+            String target = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(CURRENT_SNAPSHOT_SQL, String.class));
+            state = new ExportState(exported, target, exported != null ? FIRST_XID : null, MIN_ID, 0);
+            saveState(state, 0);
+        }
+
+        long total = 0;
+        while (state.target() != null) {
+            ExportState current = state;
+            List<EntryRow> page = readOnlyTemplate.execute(status -> readPage(current));
+            if (page == null) {
+                log.debug("Analytics export waiting for the read replica to catch up with {}", state.target());
+                break;
+            }
+            if (!page.isEmpty()) {
+                writePage(page, state.pageKey(), resumed);
+                resumed = false;
+            }
+            state = state.after(page, pageSize);
+            saveState(state, page.size());
+            total += page.size();
+        }
+
+        if (total > 0) {
+            log.info("Exported {} transaction entries to {}", total, exportDir);
+        }
+    }
+
+    /**
+     * The page after the state's position, or null if the snapshot read in does not cover the target yet
+     */
+    private List<EntryRow> readPage(ExportState state) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(COVERS_SQL, Boolean.class, state.target()))) {
+            return null;
+        }
+        if (state.lastXid() == null) {
+            return jdbcTemplate.query(UNTRACKED_PAGE_SQL, AnalyticsExportService::entryRow, state.lastId(), pageSize);
+        }
+        String exported = state.exported() != null ? state.exported() : NOTHING_EXPORTED;
+        return jdbcTemplate.query(PAGE_SQL, AnalyticsExportService::entryRow, state.lastXid(), state.lastId(),
+                exported, exported, state.target(), state.target(), pageSize);
+    }
+
+    private static EntryRow entryRow(ResultSet row, int i) throws SQLException {
+        return new EntryRow(
+                row.getObject(1, UUID.class), row.getTimestamp(2).toLocalDateTime(), row.getObject(3, UUID.class),
+                row.getString(4), row.getTimestamp(5).toLocalDateTime(), row.getString(6), row.getString(7),
+                row.getString(8), row.getString(9), row.getString(10), row.getObject(11, UUID.class),
+                row.getString(12), row.getString(13), row.getString(14), row.getBigDecimal(15), row.getBigDecimal(16),
+                row.getString(17));
+    }
+
+    private ExportState readState() {
+        List<ExportState> states = jdbcTemplate.query(STATE_SQL, (row, i) -> new ExportState(row.getString(1),
+                row.getString(2), row.getString(3), row.getObject(4, UUID.class), row.getInt(5)), EXPORT_NAME);
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    private void saveState(ExportState state, int exported) {
+        jdbcTemplate.update(SAVE_STATE_SQL, EXPORT_NAME, state.exported(), state.target(), state.lastXid(),
+                state.lastId(), state.pageNumber(), exported, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Write one page as Parquet partitions into a staging directory, then move the files into place.
+     * A page being rewritten first loses its earlier files, in whichever partitions they were written.
+     */
+    private void writePage(List<EntryRow> page, String pageKey, boolean rewrite) {
+        Path base = Paths.get(exportDir).toAbsolutePath().normalize();
+        Path staging = base.resolve(STAGING_DIR).resolve(pageKey);
+        try {
+            if (rewrite) {
+                deletePageFiles(base, pageKey);
+            }
+            deleteRecursively(staging);
+            Files.createDirectories(staging.getParent());
+
+            try (Connection duckdb = DriverManager.getConnection("jdbc:duckdb:")) {
+                try (Statement statement = duckdb.createStatement()) {
+                    statement.execute(DUCKDB_TABLE_SQL);
+                }
+                try (DuckDBAppender appender = duckdb.unwrap(DuckDBConnection.class)
+                        .createAppender(DuckDBConnection.DEFAULT_SCHEMA, "entries")) {
+                    for (EntryRow row : page) {
+                        append(appender, row);
+                    }
+                }
+                try (Statement statement = duckdb.createStatement()) {
+                    statement.execute(String.format(DUCKDB_COPY_SQL, staging.toString().replace("'", "''"), pageKey));
+                }
+            }
+
+            try (Stream<Path> files = Files.walk(staging)) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    Path target = base.resolve(staging.relativize(file));
+                    Files.createDirectories(target.getParent());
+                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            deleteRecursively(staging);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Analytics export of page " + pageKey + " failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void append(DuckDBAppender appender, EntryRow row) throws SQLException {
+        appender.beginRow();
+        appender.append(row.entryId().toString());
+        appender.appendLocalDateTime(row.createdAt());
+        appender.append(row.transactionId().toString());
+        appender.append(row.transactionNumber());
+        appender.appendLocalDateTime(row.transactionDate());
+        appender.append(row.tenantId());
+        appender.append(row.status());
+        appender.append(row.currency());
+        appender.append(row.referenceType());
+        appender.append(row.referenceId());
+        appender.append(row.accountId().toString());
+        appender.append(row.accountCode());
+        appender.append(row.accountType());
+        appender.append(row.entryType());
+        appender.appendBigDecimal(scaled(row.amount()));
+        appender.appendBigDecimal(scaled(row.balanceAfter()));
+        appender.endRow();
+    }
+
+    private static BigDecimal scaled(BigDecimal amount) {
+        return amount != null ? amount.setScale(4, RoundingMode.UNNECESSARY) : null;
+    }
+
+    /**
+     * Delete the files a page wrote to any partition directory
+     */
+    private static void deletePageFiles(Path base, String pageKey) throws IOException {
+        if (!Files.exists(base)) {
+            return;
+        }
+        String prefix = "part-" + pageKey + "-";
+        Path staging = base.resolve(STAGING_DIR);
+        try (Stream<Path> files = Files.walk(base)) {
+            for (Path file : files.filter(path -> !path.startsWith(staging) && Files.isRegularFile(path)
+                    && path.getFileName().toString().startsWith(prefix)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private record EntryRow(UUID entryId, LocalDateTime createdAt, UUID transactionId, String transactionNumber,
+                            LocalDateTime transactionDate, String tenantId, String status, String currency,
+                            String referenceType, String referenceId, UUID accountId, String accountCode,
+                            String accountType, String entryType, BigDecimal amount, BigDecimal balanceAfter,
+                            String createdXid) {
+    }
+
+    /**
+     * Export progress. Between runs only exported is set; during a run, target is the snapshot being
+     * exported up to and (lastXid, lastId) the position in it, with lastXid NULL while the entries
+     * that predate created_xid are exported.
+     *
+     * @param exported pg_snapshot text whose visible entries are all exported; NULL before the first run completes
+     */
+    private record ExportState(String exported, String target, String lastXid, UUID lastId, int pageNumber) {
+
+        /**
+         * Files of the next page are named after the run's target and the page's number in the run
+         */
+        String pageKey() {
+            return target.split(":")[1] + "-" + pageNumber;
+        }
+
+        ExportState after(List<EntryRow> page, int pageSize) {
+            int pages = page.isEmpty() ? pageNumber : pageNumber + 1;
+            if (page.size() == pageSize) {
+                EntryRow last = page.get(page.size() - 1);
+                return new ExportState(exported, target, last.createdXid(), last.entryId(), pages);
+            }
+            if (lastXid == null) {
+                return new ExportState(exported, target, FIRST_XID, MIN_ID, pages);
+            }
+            return new ExportState(target, null, null, null, 0);
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,324 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.AccountBalanceCheckpoint;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.EntryType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
+import com.superapp.core.ledger.repository.AccountBalanceCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Balance Checkpoint Service
+ *
+ * Keeps, per account, the balance of all entries dated before each day boundary the account
+ * moved across, so a point-in-time balance is the nearest checkpoint plus a bounded delta of entries.
+ * Time is the transaction date, so back-dated postings count where they belong:
+ * - Each run reads one REPEATABLE READ snapshot and saves it as the watermark; entries committed
+ *   since the previous watermark (by their inserting transaction id, however late they commit)
+ *   are added to every later checkpoint of their account
+ * - Then a checkpoint at the start of the current day is written for every account with entries
+ *   dated since the previous boundary
+ *
+ * Every checkpoint therefore holds exactly the entries dated before it that are visible in the watermark snapshot.
+ *
+ * Archiving a month first closes it: every account gets a checkpoint at the end of the month and
+ * the checkpoints before it are dropped, so balances after the archive horizon stay exact.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceCheckpointService {
+
+    static final String WATERMARK = "balance_checkpoints";
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Serializes checkpoint runs across instances; a lock statement, so it is taken before the run's snapshot
+     */
+    static final String RUN_LOCK_SQL = "LOCK TABLE ledger_watermarks IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String WATERMARK_SQL = "SELECT snapshot::text, boundary FROM ledger_watermarks WHERE name = ?";
+
+    private static final String CURRENT_SNAPSHOT_SQL = "SELECT pg_current_snapshot()::text";
+
+    private static final String SAVE_WATERMARK_SQL =
+            "INSERT INTO ledger_watermarks (name, snapshot, boundary, updated_at) VALUES (?, CAST(? AS pg_snapshot), ?, ?) " +
+            "ON CONFLICT (name) DO UPDATE SET snapshot = EXCLUDED.snapshot, boundary = EXCLUDED.boundary, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    /**
+     * Entries committed after a snapshot, visible in ours: net debits per account and transaction day
+     */
+    private static final String COMMITTED_SINCE_SQL =
+            "SELECT e.account_id, a.account_type, date_trunc('day', e.transaction_date), " +
+            "SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE -e.amount END) " +
+            "FROM transaction_entries e JOIN accounts a ON a.id = e.account_id " +
+            "WHERE e.created_xid >= pg_snapshot_xmin(CAST(? AS pg_snapshot)) " +
+            "AND NOT pg_visible_in_snapshot(e.created_xid, CAST(? AS pg_snapshot)) " +
+            "GROUP BY 1, 2, 3";
+
+    private static final String FOLD_SQL =
+            "UPDATE account_balance_checkpoints SET balance = balance + ?, updated_at = ?, version = version + 1 " +
+            "WHERE account_id = ? AND checkpoint_at > ?";
+
+    private static final String MOVED_ACCOUNTS_SQL =
+            "SELECT DISTINCT e.account_id, a.account_type FROM transaction_entries e JOIN accounts a ON a.id = e.account_id " +
+            "WHERE e.transaction_date >= ? AND e.transaction_date < ?";
+
+    private static final String LATEST_BEFORE_SQL =
+            "SELECT DISTINCT ON (account_id) account_id, checkpoint_at, balance FROM account_balance_checkpoints " +
+            "WHERE account_id = ANY(?) AND checkpoint_at < ? ORDER BY account_id, checkpoint_at DESC";
+
+    /**
+     * Net debits per account over entries dated from that account's own start up to a boundary
+     */
+    private static final String NET_DEBITS_SINCE_SQL =
+            "SELECT f.account_id, SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE -e.amount END) " +
+            "FROM unnest(CAST(? AS uuid[]), CAST(? AS timestamp[])) AS f(account_id, from_date) " +
+            "JOIN transaction_entries e ON e.account_id = f.account_id " +
+            "AND e.transaction_date >= f.from_date AND e.transaction_date < ? " +
+            "GROUP BY f.account_id";
+
+    private static final String CHECKPOINTED_ACCOUNTS_SQL =
+            "SELECT DISTINCT c.account_id, a.account_type FROM account_balance_checkpoints c " +
+            "JOIN accounts a ON a.id = c.account_id WHERE c.checkpoint_at < ?";
+
+    private static final String DELETE_BEFORE_SQL = "DELETE FROM account_balance_checkpoints WHERE checkpoint_at < ?";
+
+    private static final String ARCHIVE_HORIZON_SQL =
+            "SELECT MAX(month) + INTERVAL '1 month' FROM ledger_archived_months";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO account_balance_checkpoints (id, account_id, checkpoint_at, balance, created_at, updated_at, version) " +
+            "VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, 0) ON CONFLICT (account_id, checkpoint_at) DO NOTHING";
+
+    private static final String NET_DEBITS_DATED_SQL =
+            "SELECT COALESCE(SUM(CASE WHEN entry_type = 'DEBIT' THEN amount ELSE -amount END), 0) " +
+            "FROM transaction_entries WHERE account_id = ? AND transaction_date >= ? AND transaction_date <= ?";
+
+    /**
+     * Entries dated before a checkpoint but committed after the watermark, so not in it yet
+     */
+    private static final String NET_DEBITS_UNFOLDED_SQL =
+            "SELECT COALESCE(SUM(CASE WHEN entry_type = 'DEBIT' THEN amount ELSE -amount END), 0) " +
+            "FROM transaction_entries WHERE account_id = ? AND transaction_date < ? " +
+            "AND created_xid >= pg_snapshot_xmin(CAST(? AS pg_snapshot)) " +
+            "AND NOT pg_visible_in_snapshot(created_xid, CAST(? AS pg_snapshot))";
+
+    private final AccountBalanceCheckpointRepository checkpointRepository;
+    private final AccountNearCache accountNearCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${ledger.checkpoints.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Fold late commits into the checkpoints and write the checkpoints of the current day boundary
+     */
+    @Scheduled(fixedDelayString = "${ledger.checkpoints.interval-ms:3600000}",
+            initialDelayString = "${ledger.checkpoints.initial-delay-ms:60000}")
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void createCheckpoints() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute(RUN_LOCK_SQL);
+
+        Watermark watermark = readWatermark();
+        String snapshot = jdbcTemplate.queryForObject(CURRENT_SNAPSHOT_SQL, String.class);
+        LocalDateTime now = LocalDateTime.now();
+        int folded = watermark != null ? foldCommittedSince(watermark.snapshot(), now) : 0;
+
+        LocalDateTime boundary = LocalDate.now().atStartOfDay();
+        LocalDateTime previousBoundary = watermark != null && watermark.boundary() != null ? watermark.boundary() : BEGINNING;
+        int written = 0;
+        if (boundary.isAfter(previousBoundary)) {
+            written = writeCheckpoints(boundary, movedAccounts(previousBoundary, boundary), now);
+        } else {
+            boundary = previousBoundary;
+        }
+
+        jdbcTemplate.update(SAVE_WATERMARK_SQL, WATERMARK, snapshot, Timestamp.valueOf(boundary), Timestamp.valueOf(now));
+        log.info("Balance checkpoints: {} late account-days folded in, {} written at {}", folded, written, boundary);
+    }
+
+    /**
+     * Write a closing checkpoint at the boundary for every account with entries or checkpoints
+     * before it, and drop the earlier checkpoints, so the entries before the boundary can go offline.
+     * The caller locks the ledger_watermarks table with {@link #RUN_LOCK_SQL} and the partitions
+     * being closed before its first query, in a REPEATABLE READ transaction.
+     *
+     * @return closing checkpoints written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int closeBefore(LocalDateTime boundary) {
+        Watermark watermark = readWatermark();
+        String snapshot = jdbcTemplate.queryForObject(CURRENT_SNAPSHOT_SQL, String.class);
+        LocalDateTime now = LocalDateTime.now();
+        if (watermark != null) {
+            foldCommittedSince(watermark.snapshot(), now);
+        }
+
+        Map<UUID, AccountType> accounts = movedAccounts(BEGINNING, boundary);
+        jdbcTemplate.query(CHECKPOINTED_ACCOUNTS_SQL, row -> {
+            accounts.putIfAbsent(row.getObject(1, UUID.class), AccountType.valueOf(row.getString(2)));
+        }, Timestamp.valueOf(boundary));
+        int written = writeCheckpoints(boundary, accounts, now);
+        int dropped = jdbcTemplate.update(DELETE_BEFORE_SQL, Timestamp.valueOf(boundary));
+
+        LocalDateTime previousBoundary = watermark != null ? watermark.boundary() : null;
+        jdbcTemplate.update(SAVE_WATERMARK_SQL, WATERMARK, snapshot,
+                previousBoundary != null ? Timestamp.valueOf(previousBoundary) : null, Timestamp.valueOf(now));
+        log.info("Balances closed at {}: {} checkpoints written, {} earlier ones dropped", boundary, written, dropped);
+        return written;
+    }
+
+    /**
+     * Balance of an account as of an instant, by transaction date: nearest checkpoint plus the entries
+     * dated after it, plus the entries dated before it that committed after the watermark
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal getBalanceAsOf(String accountCode, LocalDateTime asOf) {
+        AccountNearCache.AccountRef ref = accountNearCache.findByCode(accountCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "accountCode", accountCode));
+
+        LocalDateTime horizon = jdbcTemplate.queryForObject(ARCHIVE_HORIZON_SQL, LocalDateTime.class);
+        if (horizon != null && asOf.isBefore(horizon)) {
+            throw new InvalidTransactionException("Balances before " + horizon + " are archived");
+        }
+
+        Watermark watermark = readWatermark();
+        BigDecimal balance = BigDecimal.ZERO;
+        for (UUID accountId : ref.physicalIds()) {
+            balance = balance.add(getPhysicalBalanceAsOf(accountId, ref.accountType(), asOf, watermark));
+        }
+        return balance;
+    }
+
+    private BigDecimal getPhysicalBalanceAsOf(UUID accountId, AccountType accountType, LocalDateTime asOf,
+                                              Watermark watermark) {
+        AccountBalanceCheckpoint checkpoint = watermark == null ? null : checkpointRepository
+                .findTopByAccountIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(accountId, asOf)
+                .orElse(null);
+        BigDecimal base = checkpoint != null ? checkpoint.getBalance() : BigDecimal.ZERO;
+        LocalDateTime from = checkpoint != null ? checkpoint.getCheckpointAt() : BEGINNING;
+
+        BigDecimal netDebits = jdbcTemplate.queryForObject(NET_DEBITS_DATED_SQL, BigDecimal.class,
+                accountId, Timestamp.valueOf(from), Timestamp.valueOf(asOf));
+        if (checkpoint != null) {
+            netDebits = netDebits.add(jdbcTemplate.queryForObject(NET_DEBITS_UNFOLDED_SQL, BigDecimal.class,
+                    accountId, Timestamp.valueOf(from), watermark.snapshot(), watermark.snapshot()));
+        }
+        return base.add(accountType.balanceDelta(EntryType.DEBIT, netDebits));
+    }
+
+    /**
+     * Add the entries committed since a snapshot to every checkpoint after their transaction day
+     *
+     * @return account-days folded in
+     */
+    private int foldCommittedSince(String snapshot, LocalDateTime now) {
+        List<Object[]> folds = new ArrayList<>();
+        jdbcTemplate.query(COMMITTED_SINCE_SQL, row -> {
+            BigDecimal delta = AccountType.valueOf(row.getString(2)).balanceDelta(EntryType.DEBIT, row.getBigDecimal(4));
+            if (delta.signum() != 0) {
+                folds.add(new Object[]{delta, Timestamp.valueOf(now), row.getObject(1, UUID.class), row.getTimestamp(3)});
+            }
+        }, snapshot, snapshot);
+        if (!folds.isEmpty()) {
+            jdbcTemplate.batchUpdate(FOLD_SQL, folds);
+        }
+        return folds.size();
+    }
+
+    private Map<UUID, AccountType> movedAccounts(LocalDateTime from, LocalDateTime to) {
+        Map<UUID, AccountType> accounts = new LinkedHashMap<>();
+        jdbcTemplate.query(MOVED_ACCOUNTS_SQL, row -> {
+            accounts.put(row.getObject(1, UUID.class), AccountType.valueOf(row.getString(2)));
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return accounts;
+    }
+
+    /**
+     * Write a checkpoint at the boundary for each account: its latest earlier checkpoint plus the entries dated since
+     *
+     * @return checkpoints written
+     */
+    private int writeCheckpoints(LocalDateTime boundary, Map<UUID, AccountType> accounts, LocalDateTime now) {
+        List<UUID> accountIds = new ArrayList<>(accounts.keySet());
+        int written = 0;
+        for (int start = 0; start < accountIds.size(); start += CHUNK_SIZE) {
+            List<UUID> chunk = accountIds.subList(start, Math.min(start + CHUNK_SIZE, accountIds.size()));
+
+            Map<UUID, BigDecimal> balances = new HashMap<>();
+            Map<UUID, LocalDateTime> from = new HashMap<>();
+            jdbcTemplate.query(LATEST_BEFORE_SQL, statement -> {
+                statement.setArray(1, statement.getConnection().createArrayOf("uuid", chunk.toArray()));
+                statement.setTimestamp(2, Timestamp.valueOf(boundary));
+            }, row -> {
+                UUID accountId = row.getObject(1, UUID.class);
+                from.put(accountId, row.getTimestamp(2).toLocalDateTime());
+                balances.put(accountId, row.getBigDecimal(3));
+            });
+
+            jdbcTemplate.query(NET_DEBITS_SINCE_SQL, statement -> {
+                statement.setArray(1, statement.getConnection().createArrayOf("uuid", chunk.toArray()));
+                statement.setArray(2, statement.getConnection().createArrayOf("timestamp", chunk.stream()
+                        .map(id -> Timestamp.valueOf(from.getOrDefault(id, BEGINNING)))
+                        .toArray()));
+                statement.setTimestamp(3, Timestamp.valueOf(boundary));
+            }, row -> {
+                UUID accountId = row.getObject(1, UUID.class);
+                BigDecimal delta = accounts.get(accountId).balanceDelta(EntryType.DEBIT, row.getBigDecimal(2));
+                balances.merge(accountId, delta, BigDecimal::add);
+            });
+
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (UUID accountId : chunk) {
+                rows.add(new Object[]{accountId, Timestamp.valueOf(boundary),
+                        balances.getOrDefault(accountId, BigDecimal.ZERO), Timestamp.valueOf(now), Timestamp.valueOf(now)});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            written += rows.size();
+        }
+        return written;
+    }
+
+    private Watermark readWatermark() {
+        List<Watermark> watermarks = jdbcTemplate.query(WATERMARK_SQL, (row, i) -> new Watermark(row.getString(1),
+                row.getTimestamp(2) != null ? row.getTimestamp(2).toLocalDateTime() : null), WATERMARK);
+        return watermarks.isEmpty() ? null : watermarks.get(0);
+    }
+
+    /**
+     * @param snapshot pg_snapshot text, e.g. {@code 100:104:101,103}
+     */
+    private record Watermark(String snapshot, LocalDateTime boundary) {
+    }
+}
+
+
+
+
@@ -0,0 +1,254 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Group Commit Executor
+ *
+ * Runs units of work in a DB transaction. With group commit enabled, work submitted
+ * concurrently within a short window is executed by a single committer thread in one
+ * shared transaction, so many postings pay for one commit (and one WAL fsync).
+ *
+ * Per-submission semantics are preserved: if the shared transaction fails, every
+ * member of the group is re-run in its own transaction and gets its own outcome.
+ *
+ * Work that locks accounts runs in two steps. A group first prepares every member, then
+ * locks the accounts of all members in one canonical-order pass, then runs the members.
+ * Members therefore never take row locks out of order between them.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GroupCommitExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+
+    @Value("${ledger.posting.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ledger.posting.group-commit.window-ms:2}")
+    private long windowMs;
+
+    @Value("${ledger.posting.group-commit.max-batch:256}")
+    private int maxBatch;
+
+    /**
+     * Backstop for a caller waiting on the committer
+     */
+    @Value("${ledger.posting.group-commit.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    private final BlockingQueue<PendingWork<?, ?>> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread committer;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        committer = new Thread(this::runCommitter, "ledger-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+        log.info("Group commit enabled (window: {} ms, max batch: {})", windowMs, maxBatch);
+    }
+
+    /**
+     * Stop taking new groups; the committer finishes its current group and commits whatever is queued
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (committer != null) {
+            committer.join(waitTimeoutMs);
+        }
+    }
+
+    /**
+     * Execute work in a DB transaction, sharing the commit with concurrent submissions when enabled
+     */
+    public <T> T execute(Supplier<T> work) {
+        return execute(work, value -> List.of(), Function.identity());
+    }
+
+    /**
+     * Execute work that locks accounts in a DB transaction, sharing the commit with concurrent
+     * submissions when enabled. In a group, the accounts of every prepared member are locked
+     * before any member runs.
+     *
+     * @param prepare  first step, takes no account locks
+     * @param accounts accounts the second step locks
+     * @param run      second step
+     */
+    public <P, T> T execute(Supplier<P> prepare, Function<P, Collection<Account>> accounts, Function<P, T> run) {
+        PendingWork<P, T> pending = new PendingWork<>(prepare, accounts, run);
+        if (!running) {
+            return transactionTemplate.execute(status -> pending.runAlone());
+        }
+
+        queue.add(pending);
+        // The committer may have stopped and drained the queue between the check and the add:
+        // whoever removes the work from the queue runs it, so it cannot be stranded
+        if (!running && queue.remove(pending)) {
+            return transactionTemplate.execute(status -> pending.runAlone());
+        }
+
+        try {
+            return pending.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                return transactionTemplate.execute(status -> pending.runAlone());
+            }
+            throw new IllegalStateException("Group commit did not finish within " + waitTimeoutMs
+                    + " ms; the work may still commit");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void runCommitter() {
+        List<PendingWork<?, ?>> group = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingWork<?, ?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (group.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWork<?, ?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(this::commitAlone);
+                break;
+            } finally {
+                group.clear();
+            }
+        }
+
+        List<PendingWork<?, ?>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(this::commitAlone);
+    }
+
+    private void commitGroup(List<PendingWork<?, ?>> group) {
+        if (group.size() == 1) {
+            commitAlone(group.get(0));
+            return;
+        }
+
+        List<Object> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                List<Account> accounts = new ArrayList<>();
+                for (PendingWork<?, ?> pending : group) {
+                    accounts.addAll(pending.prepare());
+                }
+                // Lock the union of the members' accounts at once, as a batch chunk does
+                if (!accounts.isEmpty()) {
+                    accountRepository.lockInCanonicalOrder(accounts);
+                }
+                List<Object> values = new ArrayList<>(group.size());
+                for (PendingWork<?, ?> pending : group) {
+                    values.add(pending.run());
+                }
+                return values;
+            });
+        } catch (RuntimeException e) {
+            log.debug("Group of {} failed ({}), committing members individually", group.size(), e.getMessage());
+            group.forEach(this::commitAlone);
+            return;
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).complete(results.get(i));
+        }
+    }
+
+    private void commitAlone(PendingWork<?, ?> pending) {
+        try {
+            pending.complete(transactionTemplate.execute(status -> pending.runAlone()));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingWork<P, T> {
+        private final Supplier<P> prepare;
+        private final Function<P, Collection<Account>> accounts;
+        private final Function<P, T> run;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private P prepared;
+
+        private PendingWork(Supplier<P> prepare, Function<P, Collection<Account>> accounts, Function<P, T> run) {
+            this.prepare = prepare;
+            this.accounts = accounts;
+            this.run = run;
+        }
+
+        /**
+         * First step; returns the accounts the second step locks
+         */
+        private Collection<Account> prepare() {
+            prepared = prepare.get();
+            return accounts.apply(prepared);
+        }
+
+        private T run() {
+            return run.apply(prepared);
+        }
+
+        /**
+         * Both steps, when the work runs alone and takes its own locks
+         */
+        private T runAlone() {
+            prepared = prepare.get();
+            return run();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object value) {
+            result.complete((T) value);
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,329 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.domain.entity.AccountHold;
+import com.superapp.core.ledger.domain.enums.HoldStatus;
+import com.superapp.core.ledger.domain.exception.InsufficientBalanceException;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
+import com.superapp.core.ledger.dto.request.CaptureHoldRequest;
+import com.superapp.core.ledger.dto.request.CreateHoldRequest;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AvailableBalanceResponse;
+import com.superapp.core.ledger.dto.response.HoldResponse;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
+import com.superapp.core.ledger.repository.AccountHoldRepository;
+import com.superapp.core.ledger.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Hold Service
+ *
+ * Authorize/capture on ledger accounts:
+ * - Placing a hold locks the account row, checks the balance against the open holds totalled on
+ *   that row and adds to the total, so instances placing holds on one account take turns
+ * - Capturing closes the hold and posts the held funds to a counter account in one DB transaction;
+ *   of concurrent captures one posts and the others return its result
+ * - Releasing, or expiring via the sweeper, takes the hold off the account's total
+ *
+ * Holds on a sharded account are kept on shard 0 and cover the balance summed over all shards.
+ * The locked posting path refuses postings that would spend held funds. Postings through the
+ * striped balance engine take no row lock, so holds cannot be placed while the engine runs.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HoldService {
+
+    static final String CAPTURE_REFERENCE_TYPE = "HOLD_CAPTURE";
+
+    private final AccountHoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final AccountNearCache accountNearCache;
+    private final AccountService accountService;
+    private final LedgerService ledgerService;
+    private final StripedBalanceEngine balanceEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ledger.holds.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${ledger.holds.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    /**
+     * Place a hold if the account's available balance covers it.
+     * Idempotent on (referenceType, referenceId): a retry returns the original hold.
+     */
+    public HoldResponse createHold(CreateHoldRequest request) {
+        boolean hasReference = request.getReferenceType() != null && request.getReferenceId() != null;
+        if (hasReference) {
+            Optional<AccountHold> existing = holdRepository.findByReferenceTypeAndReferenceId(request.getReferenceType(), request.getReferenceId());
+            if (existing.isPresent()) {
+                return toResponse(existing.get());
+            }
+        }
+
+        try {
+            return transactionTemplate.execute(status -> placeHold(request));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same reference committed first (idx_hold_reference)
+            if (hasReference) {
+                return holdRepository.findByReferenceTypeAndReferenceId(request.getReferenceType(), request.getReferenceId())
+                        .map(this::toResponse)
+                        .orElseThrow(() -> e);
+            }
+            throw e;
+        }
+    }
+
+    private HoldResponse placeHold(CreateHoldRequest request) {
+        balanceEngine.excludeUntilCommit();
+        AccountNearCache.AccountRef ref = resolve(request.getAccountCode());
+        Account account = lockAccount(ref.id());
+        if (!Boolean.TRUE.equals(account.getIsActive())) {
+            throw new InvalidTransactionException("Account is inactive: " + ref.accountCode());
+        }
+
+        // Sharded: postings that lower any shard lock shard 0 too, so the summed balance cannot drop meanwhile
+        BigDecimal balance = accountService.getAccountBalance(ref.accountCode());
+        if (balance.subtract(account.getHeldAmount()).compareTo(request.getAmount()) < 0) {
+            throw new InsufficientBalanceException("Insufficient available balance on account: " + ref.accountCode());
+        }
+        account.setHeldAmount(account.getHeldAmount().add(request.getAmount()));
+
+        long ttlSeconds = request.getExpiresInSeconds() != null ? request.getExpiresInSeconds() : defaultTtlSeconds;
+        AccountHold hold = holdRepository.save(AccountHold.builder()
+                .accountId(ref.id())
+                .tenantId(request.getTenantId())
+                .amount(request.getAmount())
+                .currency(ref.currency())
+                .status(HoldStatus.ACTIVE)
+                .referenceType(request.getReferenceType())
+                .referenceId(request.getReferenceId())
+                .description(request.getDescription())
+                .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds))
+                .build());
+
+        log.info("Hold {} placed on {} for {}", hold.getId(), ref.accountCode(), hold.getAmount());
+        return toResponse(hold);
+    }
+
+    /**
+     * Post a hold's funds (all or part) to a counter account; retrying a capture is safe
+     */
+    public HoldResponse captureHold(UUID holdId, CaptureHoldRequest request) {
+        AccountHold hold = findHold(holdId);
+        if (hold.getStatus() == HoldStatus.CAPTURED) {
+            return toResponse(hold);
+        }
+        BigDecimal amount = request.getAmount() != null ? request.getAmount() : hold.getAmount();
+        if (amount.compareTo(hold.getAmount()) > 0) {
+            throw new InvalidTransactionException("Capture amount exceeds hold amount: " + hold.getAmount());
+        }
+        CreateTransactionRequest capture = captureTransaction(hold, amount, request);
+
+        return transactionTemplate.execute(status -> {
+            if (holdRepository.capture(holdId, LocalDateTime.now()) == 0) {
+                // Another capture won the row, or the hold is closed or expired: report what it is now
+                AccountHold current = findHold(holdId);
+                if (current.getStatus() == HoldStatus.CAPTURED) {
+                    return toResponse(current);
+                }
+                if (current.getStatus() == HoldStatus.ACTIVE) {
+                    throw new InvalidTransactionException("Hold has expired: " + holdId);
+                }
+                throw new InvalidTransactionException("Hold is " + current.getStatus() + ": " + holdId);
+            }
+
+            // The whole hold leaves the total before posting, so the capture may spend it
+            lockAccounts(capture);
+            unhold(hold.getAccountId(), hold.getAmount());
+            TransactionResponse posted = ledgerService.createTransactionInCurrentTransaction(capture);
+            holdRepository.attachTransaction(holdId, posted.getId());
+
+            log.info("Hold {} captured for {} by transaction {}", holdId, amount, posted.getTransactionNumber());
+            return toResponse(findHold(holdId));
+        });
+    }
+
+    /**
+     * Release an active hold; releasing an already released hold is a no-op
+     */
+    public HoldResponse releaseHold(UUID holdId) {
+        return transactionTemplate.execute(status -> {
+            AccountHold hold = findHold(holdId);
+            if (holdRepository.transition(holdId, HoldStatus.ACTIVE, HoldStatus.RELEASED, null, LocalDateTime.now()) == 0) {
+                AccountHold current = findHold(holdId);
+                if (current.getStatus() == HoldStatus.RELEASED) {
+                    return toResponse(current);
+                }
+                throw new InvalidTransactionException("Hold is " + current.getStatus() + ": " + holdId);
+            }
+            unhold(hold.getAccountId(), hold.getAmount());
+            log.info("Hold {} released", holdId);
+            return toResponse(findHold(holdId));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public HoldResponse getHold(UUID holdId) {
+        return toResponse(findHold(holdId));
+    }
+
+    /**
+     * Account balance, open holds and what is left to authorize
+     */
+    @Transactional(readOnly = true)
+    public AvailableBalanceResponse getAvailableBalance(String accountCode) {
+        AccountNearCache.AccountRef ref = resolve(accountCode);
+        BigDecimal balance = accountService.getAccountBalance(accountCode);
+        BigDecimal held = accountRepository.findById(ref.id())
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", ref.id()))
+                .getHeldAmount();
+        return AvailableBalanceResponse.builder()
+                .accountCode(accountCode)
+                .currency(ref.currency())
+                .balance(balance)
+                .held(held)
+                .available(balance.subtract(held))
+                .build();
+    }
+
+    /**
+     * Expire active holds past their expiry, a batch per DB transaction
+     */
+    @Scheduled(fixedDelayString = "${ledger.holds.sweep-interval-ms:5000}")
+    public void sweepExpired() {
+        int swept;
+        int total = 0;
+        do {
+            Integer count = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<UUID> ids = holdRepository.lockExpired(now, sweepBatchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                Map<UUID, BigDecimal> expired = new TreeMap<>();
+                for (AccountHold hold : holdRepository.findAllById(ids)) {
+                    expired.merge(hold.getAccountId(), hold.getAmount(), BigDecimal::add);
+                }
+                holdRepository.expire(ids, now);
+                accountRepository.lockInCanonicalOrder(accountRepository.findAllById(expired.keySet()));
+                expired.forEach(this::unhold);
+                return ids.size();
+            });
+            swept = count != null ? count : 0;
+            total += swept;
+        } while (swept == sweepBatchSize);
+
+        if (total > 0) {
+            log.info("Expired {} holds", total);
+        }
+    }
+
+    private CreateTransactionRequest captureTransaction(AccountHold hold, BigDecimal amount, CaptureHoldRequest request) {
+        AccountNearCache.AccountRef ref = accountNearCache.peek(hold.getAccountId())
+                .orElseGet(() -> resolve(accountService.getAccountById(hold.getAccountId()).getAccountCode()));
+        // The held side is the one that lowers the account's balance
+        boolean debitNormal = ref.accountType().hasDebitNormalBalance();
+        return CreateTransactionRequest.builder()
+                .tenantId(hold.getTenantId())
+                .transactionDate(LocalDateTime.now())
+                .description(request.getDescription() != null ? request.getDescription() : "Capture of hold " + hold.getId())
+                .referenceType(CAPTURE_REFERENCE_TYPE)
+                .referenceId(hold.getId().toString())
+                .totalAmount(amount)
+                .currency(hold.getCurrency())
+                .entries(List.of(
+                        CreateTransactionRequest.TransactionEntryRequest.builder()
+                                .accountCode(ref.accountCode())
+                                .entryType(debitNormal ? "CREDIT" : "DEBIT")
+                                .amount(amount)
+                                .build(),
+                        CreateTransactionRequest.TransactionEntryRequest.builder()
+                                .accountCode(request.getCounterAccountCode())
+                                .entryType(debitNormal ? "DEBIT" : "CREDIT")
+                                .amount(amount)
+                                .build()))
+                .build();
+    }
+
+    /**
+     * Lock an account row for the rest of the DB transaction
+     */
+    private Account lockAccount(UUID accountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+        accountRepository.lockInCanonicalOrder(List.of(account));
+        return account;
+    }
+
+    /**
+     * Lock every account a posting may touch, in the posting path's order, so changing one of them first cannot deadlock
+     */
+    private void lockAccounts(CreateTransactionRequest transaction) {
+        Set<UUID> accountIds = new HashSet<>();
+        for (CreateTransactionRequest.TransactionEntryRequest entry : transaction.getEntries()) {
+            accountIds.addAll(resolve(entry.getAccountCode()).physicalIds());
+        }
+        accountRepository.lockInCanonicalOrder(accountRepository.findAllById(accountIds));
+    }
+
+    /**
+     * Take closed holds off the account's total
+     */
+    private void unhold(UUID accountId, BigDecimal amount) {
+        Account account = lockAccount(accountId);
+        account.setHeldAmount(account.getHeldAmount().subtract(amount));
+    }
+
+    private AccountNearCache.AccountRef resolve(String accountCode) {
+        return accountNearCache.findByCode(accountCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "accountCode", accountCode));
+    }
+
+    private AccountHold findHold(UUID holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("AccountHold", "id", holdId));
+    }
+
+    private HoldResponse toResponse(AccountHold hold) {
+        return HoldResponse.builder()
+                .id(hold.getId())
+                .accountId(hold.getAccountId())
+                .tenantId(hold.getTenantId())
+                .amount(hold.getAmount())
+                .currency(hold.getCurrency())
+                .status(hold.getStatus())
+                .referenceId(hold.getReferenceId())
+                .referenceType(hold.getReferenceType())
+                .description(hold.getDescription())
+                .expiresAt(hold.getExpiresAt())
+                .transactionId(hold.getTransactionId())
+                .completedAt(hold.getCompletedAt())
+                .createdAt(hold.getCreatedAt())
+                .build();
+    }
+}
+
+
+
+
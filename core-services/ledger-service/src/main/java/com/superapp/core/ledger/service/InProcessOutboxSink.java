@@ -0,0 +1,29 @@
+package com.superapp.core.ledger.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Outbox sink that publishes every event as a Spring application event;
+ * listen with {@code @EventListener} on {@link OutboxEvent}
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(String destination, List<OutboxEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
+
+
+
+
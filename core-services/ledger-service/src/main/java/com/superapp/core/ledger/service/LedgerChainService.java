@@ -0,0 +1,431 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.dto.response.ChainVerificationResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * Ledger Chain Service
+ *
+ * Makes posted transactions tamper-evident without touching the posting path:
+ * - A scheduled sealer hashes newly posted transactions (with their entries) and appends them
+ *   to a per-tenant hash chain, in posting order, once they are older than the settle window
+ * - Every sealed batch gets a checkpoint holding the Merkle root of its transaction hashes
+ * - The verifier recomputes a range of links in parallel chunks; every link carries the
+ *   previous chain hash it depends on, so chunks need no coordination
+ *
+ * Transactions that commit later than the lookback window behind the last sealed posting are not sealed.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerChainService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String WATERMARK_SQL = "SELECT MAX(posted_at) FROM ledger_chain_links";
+
+    private static final String UNSEALED_SQL =
+            "SELECT t.id, t.tenant_id, t.transaction_date, t.created_at FROM transactions t " +
+            "WHERE t.status IN ('POSTED', 'REVERSED') AND t.created_at > ? AND t.created_at <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM ledger_chain_links l WHERE l.transaction_id = t.id) " +
+            "ORDER BY t.created_at, t.id LIMIT ?";
+
+    private static final String TENANT_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?))";
+
+    private static final String SEALED_SQL = "SELECT transaction_id FROM ledger_chain_links WHERE transaction_id = ANY(?)";
+
+    private static final String HEAD_SQL =
+            "SELECT seq, chain_hash FROM ledger_chain_links WHERE tenant_id = ? ORDER BY seq DESC LIMIT 1";
+
+    private static final String INSERT_LINK_SQL =
+            "INSERT INTO ledger_chain_links (tenant_id, seq, transaction_id, transaction_date, posted_at, " +
+            "transaction_hash, chain_hash, sealed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO ledger_chain_checkpoints (id, tenant_id, from_seq, to_seq, merkle_root, chain_hash, created_at) " +
+            "VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?)";
+
+    private static final String ARCHIVED_MONTHS_SQL = "SELECT month FROM ledger_archived_months";
+
+    private static final String TRANSACTIONS_SQL =
+            "SELECT id, transaction_number, tenant_id, transaction_date, total_amount, currency, reference_type, reference_id " +
+            "FROM transactions WHERE id = ANY(?) AND transaction_date BETWEEN ? AND ?";
+
+    private static final String ENTRIES_SQL =
+            "SELECT transaction_id, account_id, entry_type, amount FROM transaction_entries " +
+            "WHERE transaction_id = ANY(?) AND transaction_date BETWEEN ? AND ?";
+
+    private static final String SEQ_RANGE_SQL =
+            "SELECT MIN(seq), MAX(seq) FROM ledger_chain_links WHERE tenant_id = ? AND posted_at BETWEEN ? AND ?";
+
+    private static final String LINKS_SQL =
+            "SELECT seq, transaction_id, transaction_date, transaction_hash, chain_hash FROM ledger_chain_links " +
+            "WHERE tenant_id = ? AND seq BETWEEN ? AND ? ORDER BY seq";
+
+    private static final String CHECKPOINTS_SQL =
+            "SELECT from_seq, to_seq, merkle_root, chain_hash FROM ledger_chain_checkpoints " +
+            "WHERE tenant_id = ? AND from_seq >= ? AND to_seq <= ? ORDER BY from_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${ledger.audit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Transactions younger than this may still be uncommitted and are left to the next run
+     */
+    @Value("${ledger.audit.settle-seconds:60}")
+    private long settleSeconds;
+
+    /**
+     * How far behind the last sealed posting the sealer looks for late commits
+     */
+    @Value("${ledger.audit.lookback-seconds:3600}")
+    private long lookbackSeconds;
+
+    @Value("${ledger.audit.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${ledger.audit.verify-chunk-size:2000}")
+    private int verifyChunkSize;
+
+    /**
+     * Verifier threads; 0 uses one per core
+     */
+    @Value("${ledger.audit.verify-parallelism:0}")
+    private int verifyParallelism;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTemplate;
+    private ForkJoinPool verifyPool;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+        verifyPool = new ForkJoinPool(verifyParallelism > 0 ? verifyParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifyPool.shutdownNow();
+    }
+
+    /**
+     * Append settled, unsealed transactions to their tenants' chains, one batch at a time
+     */
+    @Scheduled(fixedDelayString = "${ledger.audit.seal-interval-ms:10000}",
+            initialDelayString = "${ledger.audit.initial-delay-ms:30000}")
+    public void seal() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime watermark = jdbcTemplate.queryForObject(WATERMARK_SQL, LocalDateTime.class);
+        LocalDateTime from = watermark != null ? watermark.minusSeconds(lookbackSeconds) : BEGINNING;
+        LocalDateTime to = LocalDateTime.now().minusSeconds(settleSeconds);
+
+        int sealed;
+        List<Unsealed> batch;
+        do {
+            batch = jdbcTemplate.query(UNSEALED_SQL, (row, i) -> new Unsealed(row.getObject(1, UUID.class),
+                            row.getString(2), row.getTimestamp(3).toLocalDateTime(), row.getTimestamp(4).toLocalDateTime()),
+                    Timestamp.valueOf(from), Timestamp.valueOf(to), batchSize);
+
+            Map<String, List<Unsealed>> byTenant = new LinkedHashMap<>();
+            batch.forEach(transaction -> byTenant.computeIfAbsent(transaction.tenantId(), t -> new ArrayList<>()).add(transaction));
+
+            sealed = 0;
+            for (Map.Entry<String, List<Unsealed>> tenant : byTenant.entrySet()) {
+                Integer count = transactionTemplate.execute(status -> sealTenant(tenant.getKey(), tenant.getValue()));
+                sealed += count != null ? count : 0;
+            }
+            if (sealed > 0) {
+                log.info("Sealed {} transactions into hash chains for {} tenants", sealed, byTenant.size());
+            }
+        } while (sealed > 0 && batch.size() == batchSize);
+    }
+
+    /**
+     * Verify every link posted in a time range, recomputing transaction hashes, chain steps and
+     * the Merkle roots of checkpoints that lie entirely inside the range
+     */
+    public ChainVerificationResponse verify(String tenantId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new InvalidTransactionException("from must not be after to");
+        }
+        long started = System.currentTimeMillis();
+
+        Long[] range = jdbcTemplate.queryForObject(SEQ_RANGE_SQL, (row, i) -> new Long[]{
+                row.getObject(1, Long.class), row.getObject(2, Long.class)}, tenantId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        ChainVerificationResponse.ChainVerificationResponseBuilder response = ChainVerificationResponse.builder()
+                .tenantId(tenantId)
+                .from(from)
+                .to(to);
+        if (range == null || range[0] == null) {
+            return response.valid(true).mismatches(List.of()).durationMs(System.currentTimeMillis() - started).build();
+        }
+        long fromSeq = range[0];
+        long toSeq = range[1];
+        Set<YearMonth> archivedMonths = new HashSet<>();
+        jdbcTemplate.query(ARCHIVED_MONTHS_SQL, row -> {
+            archivedMonths.add(YearMonth.from(row.getDate(1).toLocalDate()));
+        });
+
+        List<ChunkResult> results = verifyPool.submit(() -> LongStream
+                .rangeClosed(0, (toSeq - fromSeq) / verifyChunkSize)
+                .parallel()
+                .mapToObj(chunk -> {
+                    long lo = fromSeq + chunk * verifyChunkSize;
+                    return verifyChunk(tenantId, lo, Math.min(lo + verifyChunkSize - 1, toSeq), archivedMonths);
+                })
+                .toList()).join();
+        ChunkResult checkpoints = verifyCheckpoints(tenantId, fromSeq, toSeq);
+
+        List<ChainVerificationResponse.Mismatch> mismatches = new ArrayList<>();
+        long links = 0;
+        long archived = 0;
+        for (ChunkResult result : results) {
+            links += result.checked;
+            archived += result.archived;
+            mismatches.addAll(result.mismatches);
+        }
+        mismatches.addAll(checkpoints.mismatches);
+
+        if (!mismatches.isEmpty()) {
+            log.warn("Hash chain verification for tenant {} found {} mismatches between seq {} and {}",
+                    tenantId, mismatches.size(), fromSeq, toSeq);
+        }
+        return response
+                .fromSeq(fromSeq)
+                .toSeq(toSeq)
+                .linksChecked(links)
+                .linksArchived(archived)
+                .checkpointsChecked(checkpoints.checked)
+                .valid(mismatches.isEmpty())
+                .mismatches(mismatches)
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    /**
+     * Seal one tenant's share of a batch; skipped when another instance holds the tenant's chain
+     */
+    private int sealTenant(String tenantId, List<Unsealed> transactions) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TENANT_LOCK_SQL, Boolean.class, tenantId))) {
+            return 0;
+        }
+
+        // Another instance may have sealed some of these before we got the lock
+        Set<UUID> alreadySealed = new HashSet<>(jdbcTemplate.query(SEALED_SQL,
+                statement -> statement.setArray(1, uuidArray(statement.getConnection(), ids(transactions))),
+                (row, i) -> row.getObject(1, UUID.class)));
+        List<Unsealed> pending = transactions.stream()
+                .filter(transaction -> !alreadySealed.contains(transaction.id()))
+                .toList();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, LedgerHashes.HashedTransaction> hashed = loadHashed(pending.stream()
+                .map(transaction -> new LinkRef(transaction.id(), transaction.transactionDate()))
+                .toList());
+
+        List<Map.Entry<Long, String>> head = jdbcTemplate.query(HEAD_SQL,
+                (row, i) -> Map.entry(row.getLong(1), row.getString(2)), tenantId);
+        long seq = head.isEmpty() ? 0 : head.get(0).getKey();
+        String chainHash = head.isEmpty() ? LedgerHashes.GENESIS : head.get(0).getValue();
+        long fromSeq = seq + 1;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<String> transactionHashes = new ArrayList<>(pending.size());
+        List<Object[]> links = new ArrayList<>(pending.size());
+        for (Unsealed transaction : pending) {
+            String transactionHash = LedgerHashes.transactionHash(hashed.get(transaction.id()));
+            chainHash = LedgerHashes.chain(chainHash, transactionHash);
+            transactionHashes.add(transactionHash);
+            links.add(new Object[]{tenantId, ++seq, transaction.id(), Timestamp.valueOf(transaction.transactionDate()),
+                    Timestamp.valueOf(transaction.postedAt()), transactionHash, chainHash, now});
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_LINK_SQL, links);
+        jdbcTemplate.update(INSERT_CHECKPOINT_SQL, tenantId, fromSeq, seq,
+                LedgerHashes.merkleRoot(transactionHashes), chainHash, now);
+        log.debug("Tenant {} chain sealed up to seq {}: {}", tenantId, seq, chainHash);
+        return pending.size();
+    }
+
+    /**
+     * Links of archived months keep their chain steps checked; their transactions are offline,
+     * so their hashes cannot be recomputed
+     */
+    private ChunkResult verifyChunk(String tenantId, long fromSeq, long toSeq, Set<YearMonth> archivedMonths) {
+        return readOnlyTemplate.execute(status -> {
+            ChunkResult result = new ChunkResult();
+            // One link before the chunk supplies the chain hash the chunk continues from
+            List<Link> links = links(tenantId, Math.max(1, fromSeq - 1), toSeq);
+            Map<UUID, LedgerHashes.HashedTransaction> hashed = loadHashed(links.stream()
+                    .filter(link -> link.seq >= fromSeq)
+                    .map(link -> new LinkRef(link.transactionId, link.transactionDate))
+                    .toList());
+
+            Link previous = null;
+            long expectedSeq = fromSeq;
+            for (Link link : links) {
+                if (link.seq < fromSeq) {
+                    previous = link;
+                    continue;
+                }
+                result.checked++;
+                if (link.seq != expectedSeq) {
+                    result.mismatch(expectedSeq, null, "SEQUENCE_GAP");
+                }
+                expectedSeq = link.seq + 1;
+
+                LedgerHashes.HashedTransaction transaction = hashed.get(link.transactionId);
+                if (transaction == null && archivedMonths.contains(YearMonth.from(link.transactionDate))) {
+                    result.archived++;
+                } else if (transaction == null) {
+                    result.mismatch(link.seq, link.transactionId, "TRANSACTION_MISSING");
+                } else if (!LedgerHashes.transactionHash(transaction).equals(link.transactionHash)) {
+                    result.mismatch(link.seq, link.transactionId, "TRANSACTION_ALTERED");
+                }
+
+                String previousHash = previous != null ? previous.chainHash : LedgerHashes.GENESIS;
+                boolean continues = previous != null ? previous.seq == link.seq - 1 : link.seq == 1;
+                if (continues && !LedgerHashes.chain(previousHash, link.transactionHash).equals(link.chainHash)) {
+                    result.mismatch(link.seq, link.transactionId, "CHAIN_BROKEN");
+                }
+                previous = link;
+            }
+            if (expectedSeq <= toSeq) {
+                result.mismatch(expectedSeq, null, "SEQUENCE_GAP");
+            }
+            return result;
+        });
+    }
+
+    private ChunkResult verifyCheckpoints(String tenantId, long fromSeq, long toSeq) {
+        return readOnlyTemplate.execute(status -> {
+            ChunkResult result = new ChunkResult();
+            jdbcTemplate.query(CHECKPOINTS_SQL, row -> {
+                long checkpointFrom = row.getLong(1);
+                long checkpointTo = row.getLong(2);
+                List<Link> links = links(tenantId, checkpointFrom, checkpointTo);
+                result.checked++;
+                if (links.size() != checkpointTo - checkpointFrom + 1
+                        || !LedgerHashes.merkleRoot(links.stream().map(link -> link.transactionHash).toList()).equals(row.getString(3))
+                        || !links.get(links.size() - 1).chainHash.equals(row.getString(4))) {
+                    result.mismatch(checkpointFrom, null, "CHECKPOINT_MISMATCH");
+                }
+            }, tenantId, fromSeq, toSeq);
+            return result;
+        });
+    }
+
+    private List<Link> links(String tenantId, long fromSeq, long toSeq) {
+        return jdbcTemplate.query(LINKS_SQL, (row, i) -> new Link(row.getLong(1), row.getObject(2, UUID.class),
+                row.getTimestamp(3).toLocalDateTime(), row.getString(4), row.getString(5)), tenantId, fromSeq, toSeq);
+    }
+
+    /**
+     * Transactions and their entries as stored now, keyed by id; transaction dates bound the partitions read
+     */
+    private Map<UUID, LedgerHashes.HashedTransaction> loadHashed(List<LinkRef> refs) {
+        if (refs.isEmpty()) {
+            return Map.of();
+        }
+        List<UUID> ids = refs.stream().map(LinkRef::transactionId).toList();
+        Timestamp minDate = Timestamp.valueOf(refs.stream().map(LinkRef::transactionDate).min(LocalDateTime::compareTo).orElseThrow());
+        Timestamp maxDate = Timestamp.valueOf(refs.stream().map(LinkRef::transactionDate).max(LocalDateTime::compareTo).orElseThrow());
+
+        Map<UUID, List<LedgerHashes.HashedEntry>> entries = new HashMap<>();
+        jdbcTemplate.query(ENTRIES_SQL, statement -> {
+            statement.setArray(1, uuidArray(statement.getConnection(), ids));
+            statement.setTimestamp(2, minDate);
+            statement.setTimestamp(3, maxDate);
+        }, row -> {
+            entries.computeIfAbsent(row.getObject(1, UUID.class), id -> new ArrayList<>())
+                    .add(new LedgerHashes.HashedEntry(row.getObject(2, UUID.class), row.getString(3), row.getBigDecimal(4)));
+        });
+
+        Map<UUID, LedgerHashes.HashedTransaction> transactions = new HashMap<>();
+        jdbcTemplate.query(TRANSACTIONS_SQL, statement -> {
+            statement.setArray(1, uuidArray(statement.getConnection(), ids));
+            statement.setTimestamp(2, minDate);
+            statement.setTimestamp(3, maxDate);
+        }, row -> {
+            UUID id = row.getObject(1, UUID.class);
+            BigDecimal totalAmount = row.getBigDecimal(5);
+            transactions.put(id, new LedgerHashes.HashedTransaction(id, row.getString(2), row.getString(3),
+                    row.getTimestamp(4).toLocalDateTime().toString(), totalAmount, row.getString(6), row.getString(7),
+                    row.getString(8), entries.getOrDefault(id, List.of())));
+        });
+        return transactions;
+    }
+
+    private static List<UUID> ids(List<Unsealed> transactions) {
+        return transactions.stream().map(Unsealed::id).toList();
+    }
+
+    private static Array uuidArray(Connection connection, List<UUID> ids) throws SQLException {
+        return connection.createArrayOf("uuid", ids.toArray());
+    }
+
+    private record Unsealed(UUID id, String tenantId, LocalDateTime transactionDate, LocalDateTime postedAt) {
+    }
+
+    private record LinkRef(UUID transactionId, LocalDateTime transactionDate) {
+    }
+
+    private record Link(long seq, UUID transactionId, LocalDateTime transactionDate, String transactionHash, String chainHash) {
+    }
+
+    private static final class ChunkResult {
+        private long checked;
+        private long archived;
+        private final List<ChainVerificationResponse.Mismatch> mismatches = new ArrayList<>();
+
+        private void mismatch(long seq, UUID transactionId, String reason) {
+            mismatches.add(ChainVerificationResponse.Mismatch.builder()
+                    .seq(seq)
+                    .transactionId(transactionId)
+                    .reason(reason)
+                    .build());
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,125 @@
+package com.superapp.core.ledger.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ledger Hashes
+ *
+ * SHA-256 hashing for the audit hash chain: a canonical hash per transaction, the chain step,
+ * and Merkle roots over batches of transaction hashes. Hashes are lower-case hex.
+ */
+public final class LedgerHashes {
+
+    /**
+     * Chain hash before a tenant's first link
+     */
+    public static final String GENESIS = "0".repeat(64);
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final byte LEAF = 0;
+    private static final byte NODE = 1;
+
+    private LedgerHashes() {
+    }
+
+    /**
+     * Hash of a transaction's immutable fields and its entries, independent of entry order and amount scale
+     */
+    public static String transactionHash(HashedTransaction transaction) {
+        StringBuilder canonical = new StringBuilder()
+                .append(transaction.id()).append('|')
+                .append(transaction.transactionNumber()).append('|')
+                .append(transaction.tenantId()).append('|')
+                .append(transaction.transactionDate()).append('|')
+                .append(plain(transaction.totalAmount())).append('|')
+                .append(transaction.currency()).append('|')
+                .append(transaction.referenceType()).append('|')
+                .append(transaction.referenceId());
+
+        List<HashedEntry> entries = new ArrayList<>(transaction.entries());
+        entries.sort(Comparator.comparing(HashedEntry::accountId)
+                .thenComparing(HashedEntry::entryType)
+                .thenComparing(entry -> plain(entry.amount())));
+        for (HashedEntry entry : entries) {
+            canonical.append('\n')
+                    .append(entry.accountId()).append('|')
+                    .append(entry.entryType()).append('|')
+                    .append(plain(entry.amount()));
+        }
+        return HEX.formatHex(sha256().digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Next chain hash: sha256(previous chain hash || transaction hash)
+     */
+    public static String chain(String previousChainHash, String transactionHash) {
+        MessageDigest digest = sha256();
+        digest.update(HEX.parseHex(previousChainHash));
+        digest.update(HEX.parseHex(transactionHash));
+        return HEX.formatHex(digest.digest());
+    }
+
+    /**
+     * Merkle root over transaction hashes; leaves and inner nodes are domain-separated,
+     * and an odd node is carried up to the next level unchanged
+     */
+    public static String merkleRoot(List<String> transactionHashes) {
+        if (transactionHashes.isEmpty()) {
+            throw new IllegalArgumentException("Merkle root of no hashes");
+        }
+        List<byte[]> level = new ArrayList<>(transactionHashes.size());
+        for (String hash : transactionHashes) {
+            level.add(node(LEAF, HEX.parseHex(hash), null));
+        }
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                next.add(i + 1 < level.size() ? node(NODE, level.get(i), level.get(i + 1)) : level.get(i));
+            }
+            level = next;
+        }
+        return HEX.formatHex(level.get(0));
+    }
+
+    private static byte[] node(byte prefix, byte[] left, byte[] right) {
+        MessageDigest digest = sha256();
+        digest.update(prefix);
+        digest.update(left);
+        if (right != null) {
+            digest.update(right);
+        }
+        return digest.digest();
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount.signum() == 0 ? "0" : amount.stripTrailingZeros().toPlainString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record HashedTransaction(UUID id, String transactionNumber, String tenantId, String transactionDate,
+                                    BigDecimal totalAmount, String currency, String referenceType,
+                                    String referenceId, List<HashedEntry> entries) {
+    }
+
+    public record HashedEntry(UUID accountId, String entryType, BigDecimal amount) {
+    }
+}
+
+
+
+
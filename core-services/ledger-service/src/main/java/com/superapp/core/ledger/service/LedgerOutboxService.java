@@ -0,0 +1,307 @@
+package com.superapp.core.ledger.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superapp.core.ledger.domain.entity.Transaction;
+import com.superapp.core.ledger.domain.entity.TransactionEntry;
+import com.superapp.core.ledger.domain.enums.EntryType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Ledger Outbox Service
+ *
+ * Transactional outbox for posting events:
+ * - postTransaction records a TRANSACTION_POSTED event; the events of one DB transaction are
+ *   batch-inserted just before it commits, so an event exists if and only if the posting committed
+ * - A relay publishes unpublished rows in id order, in batches, to each destination of the
+ *   configured OutboxSink and marks them published. A batch is leased in a short DB transaction
+ *   (FOR UPDATE SKIP LOCKED, then claimed_until) and published with no lock or connection held,
+ *   so relays on several instances never publish the same batch while its lease lasts
+ * - Each destination a row reaches is recorded, so a retry only goes to the destinations that failed
+ * - Failed rows are retried with exponential backoff, one at a time so a poison event cannot hold its
+ *   batch back, and after max-attempts are dead-lettered (dead_at) and no longer relayed
+ * - Published rows are deleted after the retention period
+ *
+ * Delivery is at least once: a batch whose sink call fails, whose mark fails, or whose lease runs
+ * out mid-publish is published again.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerOutboxService {
+
+    static final String TRANSACTION_POSTED = "TRANSACTION_POSTED";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_outbox (event_type, tenant_id, aggregate_id, payload, created_at) " +
+            "VALUES (?, ?, ?, CAST(? AS jsonb), ?)";
+
+    private static final String CLAIM_SQL =
+            "SELECT id, event_type, tenant_id, aggregate_id, payload, created_at, attempts, next_attempt_at, delivered_to " +
+            "FROM ledger_outbox WHERE published_at IS NULL AND dead_at IS NULL " +
+            "AND (claimed_until IS NULL OR claimed_until < ?) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL = "UPDATE ledger_outbox SET claimed_until = ? WHERE id = ANY(?)";
+
+    private static final String DELIVERED_SQL =
+            "UPDATE ledger_outbox SET delivered_to = array_append(delivered_to, ?) WHERE id = ANY(?)";
+
+    private static final String PUBLISHED_SQL =
+            "UPDATE ledger_outbox SET published_at = ?, attempts = attempts + 1, last_error = NULL, " +
+            "claimed_until = NULL, next_attempt_at = NULL WHERE id = ANY(?)";
+
+    /**
+     * Back off by initial * 2^(attempts so far), capped; dead-letter on the last attempt.
+     * Returns whether each row was dead-lettered.
+     */
+    private static final String FAILED_SQL =
+            "UPDATE ledger_outbox SET attempts = attempts + 1, last_error = ?, claimed_until = NULL, " +
+            "next_attempt_at = CAST(? AS TIMESTAMP) + LEAST(? * POWER(2, LEAST(attempts, 30)), ?) * INTERVAL '1 millisecond', " +
+            "dead_at = CASE WHEN attempts + 1 >= ? THEN CAST(? AS TIMESTAMP) END " +
+            "WHERE id = ANY(?) RETURNING dead_at IS NOT NULL";
+
+    private static final String CLEANUP_SQL =
+            "DELETE FROM ledger_outbox WHERE published_at IS NOT NULL AND published_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxSink sink;
+
+    @Value("${ledger.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ledger.outbox.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * How long a relay may take to publish a batch before another relay may publish it again
+     */
+    @Value("${ledger.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${ledger.outbox.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${ledger.outbox.retry.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${ledger.outbox.retry.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${ledger.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    /**
+     * Queue a posted event for a transaction; must run inside the posting's DB transaction
+     */
+    public void recordPosted(Transaction transaction, Function<TransactionEntry, String> accountCodeOf) {
+        if (!enabled) {
+            return;
+        }
+        List<PostedEntry> entries = new ArrayList<>(transaction.getEntries().size());
+        for (TransactionEntry entry : transaction.getEntries()) {
+            entries.add(new PostedEntry(entry.getAccount().getId(), accountCodeOf.apply(entry), entry.getEntryType(),
+                    entry.getAmount(), entry.getBalanceAfter()));
+        }
+        PostedEvent event = new PostedEvent(transaction.getId(), transaction.getTransactionNumber(),
+                transaction.getTenantId(), transaction.getTransactionDate(), transaction.getTotalAmount(),
+                transaction.getCurrency(), transaction.getReferenceType(), transaction.getReferenceId(), entries);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Posted event could not be serialized", e);
+        }
+        pendingForCurrentTransaction().add(new Object[]{TRANSACTION_POSTED, transaction.getTenantId(),
+                transaction.getId(), payload, Timestamp.valueOf(LocalDateTime.now())});
+    }
+
+    /**
+     * Publish unpublished events, a batch at a time, until none are due or the sink fails
+     */
+    @Scheduled(fixedDelayString = "${ledger.outbox.relay-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        int published;
+        do {
+            published = relayBatch();
+        } while (published > 0);
+    }
+
+    @Scheduled(cron = "${ledger.outbox.cleanup-cron:0 15 * * * *}")
+    public void deletePublished() {
+        int deleted = jdbcTemplate.update(CLEANUP_SQL, Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted > 0) {
+            log.info("Deleted {} published outbox events", deleted);
+        }
+    }
+
+    /**
+     * @return events published, or -1 if the sink failed
+     */
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ClaimedEvent> claimed = transactionTemplate.execute(status -> claim(now));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = claimed.stream().map(event -> event.event().id()).toArray(Long[]::new);
+
+        List<String> destinations = sink.destinations();
+        for (String destination : destinations) {
+            List<ClaimedEvent> undelivered = claimed.stream()
+                    .filter(event -> !event.deliveredTo().contains(destination))
+                    .toList();
+            if (undelivered.isEmpty()) {
+                continue;
+            }
+            try {
+                sink.publish(destination, undelivered.stream().map(ClaimedEvent::event).toList());
+            } catch (RuntimeException e) {
+                recordFailure(ids, destination, e);
+                return -1;
+            }
+            if (destinations.size() > 1) {
+                Long[] delivered = undelivered.stream().map(event -> event.event().id()).toArray(Long[]::new);
+                jdbcTemplate.update(DELIVERED_SQL, statement -> {
+                    statement.setString(1, destination);
+                    statement.setArray(2, statement.getConnection().createArrayOf("bigint", delivered));
+                });
+            }
+        }
+
+        jdbcTemplate.update(PUBLISHED_SQL, statement -> {
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setArray(2, statement.getConnection().createArrayOf("bigint", ids));
+        });
+        log.debug("Published {} outbox events up to {}", claimed.size(), ids[ids.length - 1]);
+        return claimed.size();
+    }
+
+    /**
+     * Lease the next due events in id order. Stops at the first event still backing off, and
+     * takes an event that failed before on its own.
+     */
+    private List<ClaimedEvent> claim(LocalDateTime now) {
+        List<ClaimedEvent> candidates = jdbcTemplate.query(CLAIM_SQL, (row, i) -> new ClaimedEvent(
+                new OutboxEvent(row.getLong(1), row.getString(2), row.getString(3), row.getObject(4, UUID.class),
+                        row.getString(5), row.getTimestamp(6).toLocalDateTime()),
+                row.getInt(7), row.getTimestamp(8) != null ? row.getTimestamp(8).toLocalDateTime() : null,
+                Set.copyOf(Arrays.asList((String[]) row.getArray(9).getArray()))), Timestamp.valueOf(now), batchSize);
+
+        List<ClaimedEvent> due = new ArrayList<>();
+        for (ClaimedEvent candidate : candidates) {
+            if (candidate.nextAttemptAt() != null && candidate.nextAttemptAt().isAfter(now)) {
+                break;
+            }
+            if (candidate.attempts() > 0) {
+                if (due.isEmpty()) {
+                    due.add(candidate);
+                }
+                break;
+            }
+            due.add(candidate);
+        }
+        if (!due.isEmpty()) {
+            Long[] ids = due.stream().map(event -> event.event().id()).toArray(Long[]::new);
+            jdbcTemplate.update(LEASE_SQL, statement -> {
+                statement.setTimestamp(1, Timestamp.valueOf(now.plus(leaseMs, ChronoUnit.MILLIS)));
+                statement.setArray(2, statement.getConnection().createArrayOf("bigint", ids));
+            });
+        }
+        return due;
+    }
+
+    private void recordFailure(Long[] ids, String destination, RuntimeException e) {
+        log.warn("Outbox sink failed for {} events starting at {} to {}", ids.length, ids[0], destination, e);
+        String error = destination + ": " + e.getMessage();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Boolean> dead = jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(FAILED_SQL);
+            statement.setString(1, error.length() > 1000 ? error.substring(0, 1000) : error);
+            statement.setTimestamp(2, now);
+            statement.setLong(3, initialBackoffMs);
+            statement.setLong(4, maxBackoffMs);
+            statement.setInt(5, maxAttempts);
+            statement.setTimestamp(6, now);
+            statement.setArray(7, con.createArrayOf("bigint", ids));
+            return statement;
+        }, (row, i) -> row.getBoolean(1));
+        long deadLettered = dead.stream().filter(Boolean::booleanValue).count();
+        if (deadLettered > 0) {
+            log.error("Dead-lettered {} outbox events after {} attempts, starting at {}", deadLettered, maxAttempts, ids[0]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pendingForCurrentTransaction() {
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox events can only be recorded inside a transaction");
+        }
+
+        List<Object[]> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!created.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, created);
+                    created.clear();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LedgerOutboxService.this);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Payload of a TRANSACTION_POSTED event
+     */
+    public record PostedEvent(UUID transactionId, String transactionNumber, String tenantId,
+                              LocalDateTime transactionDate, BigDecimal totalAmount, String currency,
+                              String referenceType, String referenceId, List<PostedEntry> entries) {
+    }
+
+    public record PostedEntry(UUID accountId, String accountCode, EntryType entryType, BigDecimal amount,
+                              BigDecimal balanceAfter) {
+    }
+
+    private record ClaimedEvent(OutboxEvent event, int attempts, LocalDateTime nextAttemptAt, Set<String> deliveredTo) {
+    }
+}
+
+
+
+
@@ -0,0 +1,277 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Transaction;
+import com.superapp.core.ledger.domain.entity.TransactionEntry;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.EntryType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.dto.response.DailyMovementResponse;
+import com.superapp.core.ledger.dto.response.TrialBalanceResponse;
+import com.superapp.core.ledger.repository.LedgerDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Ledger Rollup Service
+ *
+ * Maintains per-tenant, per-account-type, per-currency debit/credit totals per day, month and year.
+ * Postings add to an accumulator bound to the current DB transaction; the accumulated rows
+ * are upserted in key order just before commit (days, then months, then years), so a group
+ * commit or batch chunk writes each rollup row once and concurrent writers always lock rollup
+ * rows in the same order.
+ *
+ * A trial balance adds up the years before its own, the months of its year before its own and
+ * the days of its month, so its cost does not grow with the age of the ledger.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerRollupService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO ledger_daily_rollups (id, tenant_id, account_type, currency, rollup_date, slot, " +
+            "debit_total, credit_total, entry_count, created_at, updated_at, version) " +
+            "VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON CONFLICT (tenant_id, account_type, currency, rollup_date, slot) DO UPDATE SET " +
+            "debit_total = ledger_daily_rollups.debit_total + EXCLUDED.debit_total, " +
+            "credit_total = ledger_daily_rollups.credit_total + EXCLUDED.credit_total, " +
+            "entry_count = ledger_daily_rollups.entry_count + EXCLUDED.entry_count, " +
+            "updated_at = EXCLUDED.updated_at, version = ledger_daily_rollups.version + 1";
+
+    private static final String UPSERT_PERIOD_SQL =
+            "INSERT INTO ledger_period_rollups (id, tenant_id, account_type, currency, period, period_start, slot, " +
+            "debit_total, credit_total, entry_count, created_at, updated_at, version) " +
+            "VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON CONFLICT (tenant_id, account_type, currency, period, period_start, slot) DO UPDATE SET " +
+            "debit_total = ledger_period_rollups.debit_total + EXCLUDED.debit_total, " +
+            "credit_total = ledger_period_rollups.credit_total + EXCLUDED.credit_total, " +
+            "entry_count = ledger_period_rollups.entry_count + EXCLUDED.entry_count, " +
+            "updated_at = EXCLUDED.updated_at, version = ledger_period_rollups.version + 1";
+
+    private static final String DELETE_PERIODS_SQL = "DELETE FROM ledger_period_rollups WHERE tenant_id = ?";
+
+    private static final String REBUILD_PERIODS_SQL =
+            "INSERT INTO ledger_period_rollups (id, tenant_id, account_type, currency, period, period_start, slot, " +
+            "debit_total, credit_total, entry_count, created_at, updated_at, version) " +
+            "SELECT gen_random_uuid(), tenant_id, account_type, currency, p.period, " +
+            "CAST(date_trunc(lower(p.period), rollup_date) AS DATE), 0, " +
+            "SUM(debit_total), SUM(credit_total), SUM(entry_count), NOW(), NOW(), 0 " +
+            "FROM ledger_daily_rollups CROSS JOIN (VALUES ('MONTH'), ('YEAR')) AS p(period) " +
+            "WHERE tenant_id = ? " +
+            "GROUP BY tenant_id, account_type, currency, p.period, CAST(date_trunc(lower(p.period), rollup_date) AS DATE)";
+
+    /**
+     * [accountType, currency, debitTotal, creditTotal] up to and including a day: years before its year,
+     * months of its year before its month, days of its month
+     */
+    private static final String TRIAL_BALANCE_SQL =
+            "SELECT account_type, currency, SUM(debit_total), SUM(credit_total) FROM (" +
+            "SELECT account_type, currency, debit_total, credit_total FROM ledger_period_rollups " +
+            "WHERE tenant_id = ? AND period = 'YEAR' AND period_start < ? " +
+            "UNION ALL " +
+            "SELECT account_type, currency, debit_total, credit_total FROM ledger_period_rollups " +
+            "WHERE tenant_id = ? AND period = 'MONTH' AND period_start >= ? AND period_start < ? " +
+            "UNION ALL " +
+            "SELECT account_type, currency, debit_total, credit_total FROM ledger_daily_rollups " +
+            "WHERE tenant_id = ? AND rollup_date >= ? AND rollup_date <= ?" +
+            ") r GROUP BY account_type, currency ORDER BY currency, account_type";
+
+    private static final String MONTH = "MONTH";
+    private static final String YEAR = "YEAR";
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::tenantId)
+            .thenComparing(RollupKey::accountType)
+            .thenComparing(RollupKey::currency)
+            .thenComparing(RollupKey::date);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerDailyRollupRepository rollupRepository;
+
+    /**
+     * Rows per key; each DB transaction writes to one slot picked at random
+     */
+    @Value("${ledger.rollups.slots:8}")
+    private int slots;
+
+    /**
+     * Add a posted transaction's entries to the rollups; must run inside the posting's DB transaction
+     */
+    public void record(Transaction transaction, Function<TransactionEntry, AccountType> accountTypeOf) {
+        Map<RollupKey, Movement> pending = pendingForCurrentTransaction();
+        LocalDate date = transaction.getTransactionDate().toLocalDate();
+        for (TransactionEntry entry : transaction.getEntries()) {
+            RollupKey key = new RollupKey(transaction.getTenantId(), accountTypeOf.apply(entry),
+                    transaction.getCurrency(), date);
+            pending.computeIfAbsent(key, k -> new Movement()).add(entry);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TrialBalanceResponse getTrialBalance(String tenantId, LocalDate asOf) {
+        List<TrialBalanceResponse.Line> lines = new ArrayList<>();
+        Map<String, BigDecimal> netDebitsByCurrency = new HashMap<>();
+
+        Date yearStart = Date.valueOf(asOf.withDayOfYear(1));
+        Date monthStart = Date.valueOf(asOf.withDayOfMonth(1));
+        List<Object[]> rows = jdbcTemplate.query(TRIAL_BALANCE_SQL, (row, i) -> new Object[]{
+                        AccountType.valueOf(row.getString(1)), row.getString(2), row.getBigDecimal(3), row.getBigDecimal(4)},
+                tenantId, yearStart, tenantId, yearStart, monthStart, tenantId, monthStart, Date.valueOf(asOf));
+
+        for (Object[] row : rows) {
+            AccountType accountType = (AccountType) row[0];
+            String currency = (String) row[1];
+            BigDecimal debitTotal = (BigDecimal) row[2];
+            BigDecimal creditTotal = (BigDecimal) row[3];
+            BigDecimal netDebits = debitTotal.subtract(creditTotal);
+
+            netDebitsByCurrency.merge(currency, netDebits, BigDecimal::add);
+            lines.add(TrialBalanceResponse.Line.builder()
+                    .accountType(accountType)
+                    .currency(currency)
+                    .debitTotal(debitTotal)
+                    .creditTotal(creditTotal)
+                    .balance(accountType.balanceDelta(EntryType.DEBIT, netDebits))
+                    .build());
+        }
+
+        return TrialBalanceResponse.builder()
+                .tenantId(tenantId)
+                .asOf(asOf)
+                .balanced(netDebitsByCurrency.values().stream().allMatch(net -> net.signum() == 0))
+                .lines(lines)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyMovementResponse> getDailyMovements(String tenantId, LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new InvalidTransactionException("fromDate must not be after toDate");
+        }
+        return rollupRepository.sumByDay(tenantId, fromDate, toDate).stream()
+                .map(row -> DailyMovementResponse.builder()
+                        .date((LocalDate) row[0])
+                        .accountType((AccountType) row[1])
+                        .currency((String) row[2])
+                        .debitTotal((BigDecimal) row[3])
+                        .creditTotal((BigDecimal) row[4])
+                        .entryCount(((Number) row[5]).longValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Recompute a tenant's month and year totals from its daily rollups; runs in the caller's DB transaction
+     */
+    public void rebuildPeriods(String tenantId) {
+        jdbcTemplate.update(DELETE_PERIODS_SQL, tenantId);
+        jdbcTemplate.update(REBUILD_PERIODS_SQL, tenantId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<RollupKey, Movement> pendingForCurrentTransaction() {
+        Map<RollupKey, Movement> pending = (Map<RollupKey, Movement>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Rollups can only be recorded inside a transaction");
+        }
+
+        Map<RollupKey, Movement> created = new TreeMap<>(KEY_ORDER);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                writePending(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LedgerRollupService.this);
+            }
+        });
+        return created;
+    }
+
+    private void writePending(Map<RollupKey, Movement> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>(pending.size());
+        Map<RollupKey, Movement> months = new TreeMap<>(KEY_ORDER);
+        Map<RollupKey, Movement> years = new TreeMap<>(KEY_ORDER);
+        pending.forEach((key, movement) -> {
+            rows.add(new Object[]{key.tenantId(), key.accountType().name(), key.currency(), Date.valueOf(key.date()),
+                    slot, movement.debitTotal, movement.creditTotal, movement.entryCount, now, now});
+            months.computeIfAbsent(key.withDate(key.date().withDayOfMonth(1)), k -> new Movement()).add(movement);
+            years.computeIfAbsent(key.withDate(key.date().withDayOfYear(1)), k -> new Movement()).add(movement);
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+
+        List<Object[]> periodRows = new ArrayList<>(months.size() + years.size());
+        months.forEach((key, movement) -> periodRows.add(periodRow(key, MONTH, slot, movement, now)));
+        years.forEach((key, movement) -> periodRows.add(periodRow(key, YEAR, slot, movement, now)));
+        jdbcTemplate.batchUpdate(UPSERT_PERIOD_SQL, periodRows);
+        pending.clear();
+    }
+
+    private static Object[] periodRow(RollupKey key, String period, int slot, Movement movement, Timestamp now) {
+        return new Object[]{key.tenantId(), key.accountType().name(), key.currency(), period, Date.valueOf(key.date()),
+                slot, movement.debitTotal, movement.creditTotal, movement.entryCount, now, now};
+    }
+
+    private record RollupKey(String tenantId, AccountType accountType, String currency, LocalDate date) {
+
+        RollupKey withDate(LocalDate periodStart) {
+            return new RollupKey(tenantId, accountType, currency, periodStart);
+        }
+    }
+
+    private static final class Movement {
+        private BigDecimal debitTotal = BigDecimal.ZERO;
+        private BigDecimal creditTotal = BigDecimal.ZERO;
+        private long entryCount;
+
+        private void add(TransactionEntry entry) {
+            if (entry.getEntryType() == EntryType.DEBIT) {
+                debitTotal = debitTotal.add(entry.getAmount());
+            } else {
+                creditTotal = creditTotal.add(entry.getAmount());
+            }
+            entryCount++;
+        }
+
+        private void add(Movement other) {
+            debitTotal = debitTotal.add(other.debitTotal);
+            creditTotal = creditTotal.add(other.creditTotal);
+            entryCount += other.entryCount;
+        }
+    }
+}
+
+
+
+
@@ -1,29 +1,51 @@
 package com.superapp.core.ledger.service;
 
+import com.superapp.core.id.IdGenerator;
 import com.superapp.core.ledger.domain.entity.Account;
 import com.superapp.core.ledger.domain.entity.Transaction;
 import com.superapp.core.ledger.domain.entity.TransactionEntry;
+import com.superapp.core.ledger.domain.enums.AccountType;
 import com.superapp.core.ledger.domain.enums.EntryType;
 import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import com.superapp.core.ledger.domain.exception.InsufficientBalanceException;
 import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
 import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
 import com.superapp.core.ledger.dto.mapper.TransactionMapper;
 import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.BatchTransactionResponse;
+import com.superapp.core.ledger.dto.response.CursorPage;
 import com.superapp.core.ledger.dto.response.TransactionResponse;
 import com.superapp.core.ledger.repository.AccountRepository;
+import com.superapp.core.ledger.repository.TransactionEntryRepository;
+import com.superapp.core.ledger.repository.TransactionEntryView;
 import com.superapp.core.ledger.repository.TransactionRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Ledger Service
@@ -35,17 +57,247 @@ import java.util.stream.Collectors;
 public class LedgerService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionEntryRepository entryRepository;
     private final AccountRepository accountRepository;
     private final TransactionMapper transactionMapper;
+    private final StripedBalanceEngine balanceEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final AccountNearCache accountNearCache;
+    private final Validator validator;
+    private final IdGenerator idGenerator;
+    private final ReferenceFilter referenceFilter;
+    private final LedgerRollupService rollupService;
+    private final AccountGroupService accountGroupService;
+    private final LedgerOutboxService outboxService;
+
+    @Value("${ledger.batch.chunk-size:500}")
+    private int batchChunkSize;
 
     /**
-     * Create a new transaction with double-entry validation
+     * Create a new transaction with double-entry validation.
+     * Validation runs on the caller's thread; the write may share a group commit.
+     *
+     * Idempotent on (referenceType, referenceId): a retry returns the original transaction.
      */
-    @Transactional
     public TransactionResponse createTransaction(CreateTransactionRequest request) {
         log.info("Creating transaction for tenant: {}", request.getTenantId());
 
-        // Validate entries balance (debits = credits)
+        validateBalanced(request);
+
+        if (hasReference(request) && referenceFilter.mightContain(request.getReferenceType(), request.getReferenceId())) {
+            Optional<TransactionResponse> existing = findByReference(request);
+            if (existing.isPresent()) {
+                log.info("Transaction already posted for reference {}/{}", request.getReferenceType(), request.getReferenceId());
+                return existing.get();
+            }
+        }
+
+        try {
+            return groupCommitExecutor.execute(() -> save(request), this::accountsToLock, this::post);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same reference committed first
+            if (hasReference(request)) {
+                return findByReference(request).orElseThrow(() -> e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Validate, save and post a request in the caller's DB transaction, bypassing group commit,
+     * so the posting commits or rolls back with the caller's other writes
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public TransactionResponse createTransactionInCurrentTransaction(CreateTransactionRequest request) {
+        validateBalanced(request);
+        return post(save(request));
+    }
+
+    private Optional<TransactionResponse> findByReference(CreateTransactionRequest request) {
+        return transactionTemplate.execute(status -> transactionRepository
+                .findByReferenceIdAndReferenceType(request.getReferenceId(), request.getReferenceType())
+                .map(transaction -> toResponses(List.of(transaction)).get(0)));
+    }
+
+    private static boolean hasReference(CreateTransactionRequest request) {
+        return request.getReferenceId() != null && request.getReferenceType() != null;
+    }
+
+    /**
+     * Build and save a validated request as a PENDING transaction inside the current DB transaction;
+     * takes no account locks
+     */
+    private Transaction save(CreateTransactionRequest request) {
+        Transaction transaction = buildTransaction(request, accountCode -> requireActive(
+                accountNearCache.findByCode(accountCode)
+                        .orElseThrow(() -> new ResourceNotFoundException("Account", "accountCode", accountCode))));
+
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        rememberReference(savedTransaction);
+        return savedTransaction;
+    }
+
+    /**
+     * Post a saved transaction (update account balances) inside the current DB transaction
+     */
+    private TransactionResponse post(Transaction transaction) {
+        postTransaction(transaction);
+
+        log.info("Transaction created: {}", transaction.getTransactionNumber());
+        return toPostedResponse(transaction);
+    }
+
+    /**
+     * Create many transactions in one call.
+     * Requests are validated individually, written in chunks with one account lookup per chunk,
+     * and reported per item; a chunk that fails to commit is retried item by item.
+     */
+    public BatchTransactionResponse createTransactions(List<CreateTransactionRequest> requests) {
+        log.info("Creating batch of {} transactions", requests.size());
+
+        BatchTransactionResponse.ItemResult[] results = new BatchTransactionResponse.ItemResult[requests.size()];
+        List<Integer> accepted = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validateForBatch(requests.get(i));
+            if (error != null) {
+                results[i] = BatchTransactionResponse.ItemResult.failed(i, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += batchChunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + batchChunkSize, accepted.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> postChunk(requests, chunk, results));
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk of {} transactions failed, retrying individually: {}", chunk.size(), e.getMessage());
+                for (Integer index : chunk) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> postChunk(requests, List.of(index), results));
+                    } catch (RuntimeException itemError) {
+                        results[index] = BatchTransactionResponse.ItemResult.failed(index, itemError.getMessage());
+                    }
+                }
+            }
+        }
+
+        List<BatchTransactionResponse.ItemResult> itemResults = List.of(results);
+        long succeeded = itemResults.stream()
+                .filter(result -> result.getStatus() == TransactionStatus.POSTED)
+                .count();
+
+        log.info("Batch completed: {} posted, {} failed", succeeded, requests.size() - succeeded);
+        return BatchTransactionResponse.builder()
+                .total(requests.size())
+                .succeeded((int) succeeded)
+                .failed(requests.size() - (int) succeeded)
+                .results(itemResults)
+                .build();
+    }
+
+    /**
+     * Build, save and post one chunk of batch requests; accounts are resolved with a single IN query
+     */
+    private void postChunk(List<CreateTransactionRequest> requests, List<Integer> chunk,
+                           BatchTransactionResponse.ItemResult[] results) {
+        Set<String> accountCodes = chunk.stream()
+                .flatMap(index -> requests.get(index).getEntries().stream())
+                .map(CreateTransactionRequest.TransactionEntryRequest::getAccountCode)
+                .collect(Collectors.toSet());
+        Map<String, AccountNearCache.AccountRef> accounts = accountNearCache.findAllByCodes(accountCodes);
+        Map<List<String>, Transaction> alreadyPosted = findAlreadyPosted(chunk.stream().map(requests::get).toList());
+
+        List<Integer> posted = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        // A reference repeated within the chunk gets the transaction posted for its first occurrence
+        Map<List<String>, Integer> postedByReference = new HashMap<>();
+        Map<Integer, Integer> repeats = new HashMap<>();
+        for (Integer index : chunk) {
+            CreateTransactionRequest request = requests.get(index);
+            List<String> reference = Arrays.asList(request.getReferenceType(), request.getReferenceId());
+            Transaction existing = alreadyPosted.get(reference);
+            if (existing != null) {
+                results[index] = BatchTransactionResponse.ItemResult.posted(index, existing);
+                continue;
+            }
+            Integer first = hasReference(request) ? postedByReference.get(reference) : null;
+            if (first != null) {
+                repeats.put(index, first);
+                continue;
+            }
+            String error = null;
+            for (CreateTransactionRequest.TransactionEntryRequest entryReq : request.getEntries()) {
+                AccountNearCache.AccountRef ref = accounts.get(entryReq.getAccountCode());
+                if (ref == null) {
+                    error = new ResourceNotFoundException("Account", "accountCode", entryReq.getAccountCode()).getMessage();
+                    break;
+                }
+                if (!ref.active()) {
+                    error = inactiveAccountMessage(ref);
+                    break;
+                }
+            }
+            if (error != null) {
+                results[index] = BatchTransactionResponse.ItemResult.failed(index, error);
+                continue;
+            }
+            if (hasReference(request)) {
+                postedByReference.put(reference, transactions.size());
+            }
+            posted.add(index);
+            transactions.add(buildTransaction(request, accounts::get));
+        }
+
+        if (!balanceEngine.isEnabled()) {
+            // Take all row locks for the chunk at once so the chunk follows the canonical order too
+            accountRepository.lockInCanonicalOrder(accountsToLock(transactions.stream()
+                    .flatMap(transaction -> transaction.getEntries().stream())));
+        }
+
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        saved.forEach(this::rememberReference);
+        saved.forEach(this::postTransaction);
+
+        for (int i = 0; i < saved.size(); i++) {
+            results[posted.get(i)] = BatchTransactionResponse.ItemResult.posted(posted.get(i), saved.get(i));
+        }
+        repeats.forEach((index, first) ->
+                results[index] = BatchTransactionResponse.ItemResult.posted(index, saved.get(first)));
+    }
+
+    /**
+     * Transactions already posted for the batch requests' references, keyed by [referenceType, referenceId].
+     * Only references the filter cannot rule out are looked up, with one IN query.
+     */
+    private Map<List<String>, Transaction> findAlreadyPosted(List<CreateTransactionRequest> requests) {
+        Set<String> referenceIds = requests.stream()
+                .filter(LedgerService::hasReference)
+                .filter(request -> referenceFilter.mightContain(request.getReferenceType(), request.getReferenceId()))
+                .map(CreateTransactionRequest::getReferenceId)
+                .collect(Collectors.toSet());
+        if (referenceIds.isEmpty()) {
+            return Map.of();
+        }
+        return transactionRepository.findByReferenceIdIn(referenceIds).stream()
+                .filter(transaction -> transaction.getReferenceType() != null)
+                .collect(Collectors.toMap(
+                        transaction -> Arrays.asList(transaction.getReferenceType(), transaction.getReferenceId()),
+                        Function.identity(), (first, second) -> first));
+    }
+
+    private void rememberReference(Transaction transaction) {
+        if (transaction.getReferenceId() != null && transaction.getReferenceType() != null) {
+            referenceFilter.add(transaction.getReferenceType(), transaction.getReferenceId());
+        }
+    }
+
+    /**
+     * Validate entries balance (debits = credits)
+     */
+    private void validateBalanced(CreateTransactionRequest request) {
         BigDecimal totalDebits = BigDecimal.ZERO;
         BigDecimal totalCredits = BigDecimal.ZERO;
 
@@ -54,6 +306,8 @@ public class LedgerService {
                 totalDebits = totalDebits.add(entryReq.getAmount());
             } else if (entryReq.getEntryType().equalsIgnoreCase("CREDIT")) {
                 totalCredits = totalCredits.add(entryReq.getAmount());
+            } else {
+                throw new InvalidTransactionException("Invalid entry type: " + entryReq.getEntryType());
             }
         }
 
@@ -62,10 +316,36 @@ public class LedgerService {
                     String.format("Transaction not balanced. Debits: %s, Credits: %s", 
                             totalDebits, totalCredits));
         }
+    }
+
+    /**
+     * Bean validation plus balance check for one batch item; returns the error message or null
+     */
+    private String validateForBatch(CreateTransactionRequest request) {
+        Set<ConstraintViolation<CreateTransactionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            validateBalanced(request);
+            return null;
+        } catch (InvalidTransactionException e) {
+            return e.getMessage();
+        }
+    }
 
-        // Create transaction
+    /**
+     * Build a PENDING transaction and its entries from a request.
+     * Entries for a sharded account go to one of its shards, picked by the transaction number's hash.
+     */
+    private Transaction buildTransaction(CreateTransactionRequest request,
+                                         Function<String, AccountNearCache.AccountRef> accountResolver) {
+        String transactionNumber = idGenerator.nextNumber("TXN");
         Transaction transaction = Transaction.builder()
-                .transactionNumber(generateTransactionNumber())
+                .transactionNumber(transactionNumber)
                 .tenantId(request.getTenantId())
                 .transactionDate(request.getTransactionDate())
                 .description(request.getDescription())
@@ -78,15 +358,15 @@ public class LedgerService {
                 .metadata(request.getMetadata())
                 .build();
 
-        // Create entries
         for (CreateTransactionRequest.TransactionEntryRequest entryReq : request.getEntries()) {
-            Account account = accountRepository.findByAccountCode(entryReq.getAccountCode())
-                    .orElseThrow(() -> new ResourceNotFoundException("Account", "accountCode", entryReq.getAccountCode()));
+            Account account = accountRepository.getReferenceById(
+                    accountResolver.apply(entryReq.getAccountCode()).postingTarget(transactionNumber.hashCode()));
 
             EntryType entryType = EntryType.valueOf(entryReq.getEntryType().toUpperCase());
 
             TransactionEntry entry = TransactionEntry.builder()
                     .transaction(transaction)
+                    .transactionDate(transaction.getTransactionDate())
                     .account(account)
                     .entryType(entryType)
                     .amount(entryReq.getAmount())
@@ -96,14 +376,7 @@ public class LedgerService {
             transaction.addEntry(entry);
         }
 
-        // Save transaction
-        Transaction savedTransaction = transactionRepository.save(transaction);
-
-        // Post transaction (update account balances)
-        postTransaction(savedTransaction);
-
-        log.info("Transaction created: {}", savedTransaction.getTransactionNumber());
-        return transactionMapper.toResponse(savedTransaction);
+        return transaction;
     }
 
     /**
@@ -115,28 +388,167 @@ public class LedgerService {
             throw new InvalidTransactionException("Only PENDING transactions can be posted");
         }
 
-        for (TransactionEntry entry : transaction.getEntries()) {
-            Account account = entry.getAccount();
+        if (balanceEngine.isEnabled()) {
+            postThroughBalanceEngine(transaction);
+        } else {
+            // Lock every touched account up front, in id order, before mutating any balance
+            accountRepository.lockInCanonicalOrder(accountsToLock(transaction.getEntries().stream()));
 
-            // Update account balance based on entry type
-            if (entry.getEntryType() == EntryType.DEBIT) {
-                account.debit(entry.getAmount());
-            } else {
-                account.credit(entry.getAmount());
-            }
+            Set<UUID> loweredShardedAccounts = new LinkedHashSet<>();
+            for (TransactionEntry entry : transaction.getEntries()) {
+                Account account = entry.getAccount();
+                // The near cache may predate a deactivation on another instance; the locked row cannot
+                if (!Boolean.TRUE.equals(account.getIsActive())) {
+                    throw new InvalidTransactionException("Account is inactive: " + account.getAccountCode());
+                }
+
+                // Update account balance based on entry type
+                BigDecimal before = account.getBalance();
+                if (entry.getEntryType() == EntryType.DEBIT) {
+                    account.debit(entry.getAmount());
+                } else {
+                    account.credit(entry.getAmount());
+                }
+                if (account.getParentAccountId() == null && account.getShardCount() == 1) {
+                    requireUnheldFunds(account, before);
+                } else if (account.getBalance().compareTo(before) < 0) {
+                    // Holds on a sharded account are on shard 0 and cover the balance of all shards
+                    loweredShardedAccounts.add(account.getParentAccountId() != null
+                            ? account.getParentAccountId() : account.getId());
+                }
 
-            // Record balance snapshot
-            entry.setBalanceAfter(account.getBalance());
+                // Record balance snapshot
+                entry.setBalanceAfter(account.getBalance());
 
-            accountRepository.save(account);
+                accountRepository.save(account);
+            }
+            loweredShardedAccounts.forEach(this::requireUnheldShardedFunds);
         }
 
+        rollupService.record(transaction, entry -> accountTypeOf(entry.getAccount()));
+        accountGroupService.record(transaction, entry -> groupOf(entry.getAccount()),
+                entry -> accountTypeOf(entry.getAccount()), entry -> currencyOf(entry.getAccount()));
+
         transaction.setStatus(TransactionStatus.POSTED);
         transactionRepository.save(transaction);
+        outboxService.recordPosted(transaction, entry -> accountCodeOf(entry.getAccount()));
 
         log.info("Transaction posted: {}", transaction.getTransactionNumber());
     }
 
+    /**
+     * Accounts posting a transaction locks; none with the striped balance engine
+     */
+    private Collection<Account> accountsToLock(Transaction transaction) {
+        return balanceEngine.isEnabled() ? List.of() : accountsToLock(transaction.getEntries().stream());
+    }
+
+    /**
+     * Accounts a posting locks: the entries' accounts, plus shard 0 of every sharded account an entry
+     * lowers, since that row carries the account's holds and placing a hold locks it
+     */
+    private List<Account> accountsToLock(Stream<TransactionEntry> entries) {
+        List<Account> accounts = new ArrayList<>();
+        entries.forEach(entry -> {
+            Account account = entry.getAccount();
+            accounts.add(account);
+            UUID holdAccountId = accountNearCache.peek(account.getId())
+                    .map(AccountNearCache.AccountRef::holdAccountId)
+                    .orElseGet(() -> account.getParentAccountId() != null ? account.getParentAccountId() : account.getId());
+            if (!holdAccountId.equals(account.getId())
+                    && accountTypeOf(account).balanceDelta(entry.getEntryType(), entry.getAmount()).signum() < 0) {
+                accounts.add(accountRepository.getReferenceById(holdAccountId));
+            }
+        });
+        return accounts;
+    }
+
+    /**
+     * Refuse a posting that lowers a locked, unsharded account's balance below its open holds
+     */
+    private static void requireUnheldFunds(Account account, BigDecimal before) {
+        BigDecimal held = account.getHeldAmount();
+        if (held.signum() > 0 && account.getBalance().compareTo(before) < 0 && account.getBalance().compareTo(held) < 0) {
+            throw new InsufficientBalanceException("Posting would spend funds held on account: " + account.getAccountCode());
+        }
+    }
+
+    /**
+     * Refuse a posting that lowered a sharded account's balance, summed over its shards, below its open holds.
+     * Shard 0 is locked, so no hold is placed and no other lowering posting runs meanwhile.
+     */
+    private void requireUnheldShardedFunds(UUID accountId) {
+        Account account = accountRepository.getReferenceById(accountId);
+        BigDecimal held = account.getHeldAmount();
+        if (held.signum() > 0 && accountRepository.sumShardedBalance(accountId).compareTo(held) < 0) {
+            throw new InsufficientBalanceException("Posting would spend funds held on account: " + account.getAccountCode());
+        }
+    }
+
+    /**
+     * Apply entries as in-memory balance deltas on commit; the engine flushes them to accounts in batches
+     * and fills in the entries' balance_after snapshots as it does.
+     * No row lock is taken, so accounts are re-read to refuse ones deactivated after the near cache loaded them.
+     * Holds need no check: none can be open while the engine runs.
+     */
+    private void postThroughBalanceEngine(Transaction transaction) {
+        List<String> inactive = accountRepository.findInactiveCodesByIdIn(transaction.getEntries().stream()
+                .map(entry -> entry.getAccount().getId())
+                .collect(Collectors.toSet()));
+        if (!inactive.isEmpty()) {
+            throw new InvalidTransactionException("Account is inactive: " + inactive.get(0));
+        }
+        for (TransactionEntry entry : transaction.getEntries()) {
+            Account account = entry.getAccount();
+            BigDecimal delta = accountTypeOf(account).balanceDelta(entry.getEntryType(), entry.getAmount());
+            balanceEngine.apply(account.getId(), entry.getId(), entry.getTransactionDate(), delta, account::getBalance);
+        }
+    }
+
+    /**
+     * Account type from the near cache, so an uninitialized account proxy is not loaded just for it
+     */
+    private AccountType accountTypeOf(Account account) {
+        return accountNearCache.peek(account.getId())
+                .map(AccountNearCache.AccountRef::accountType)
+                .orElseGet(account::getAccountType);
+    }
+
+    private String currencyOf(Account account) {
+        return accountNearCache.peek(account.getId())
+                .map(AccountNearCache.AccountRef::currency)
+                .orElseGet(account::getCurrency);
+    }
+
+    private String accountCodeOf(Account account) {
+        return accountNearCache.peek(account.getId())
+                .map(AccountNearCache.AccountRef::accountCode)
+                .orElseGet(account::getAccountCode);
+    }
+
+    /**
+     * Group of an account: from the entity once it is loaded (and locked), else from the near cache
+     */
+    private UUID groupOf(Account account) {
+        if (Hibernate.isInitialized(account)) {
+            return account.getGroupId();
+        }
+        return accountNearCache.peek(account.getId())
+                .map(AccountNearCache.AccountRef::groupId)
+                .orElseGet(account::getGroupId);
+    }
+
+    private AccountNearCache.AccountRef requireActive(AccountNearCache.AccountRef ref) {
+        if (!ref.active()) {
+            throw new InvalidTransactionException(inactiveAccountMessage(ref));
+        }
+        return ref;
+    }
+
+    private String inactiveAccountMessage(AccountNearCache.AccountRef ref) {
+        return "Account is inactive: " + ref.accountCode();
+    }
+
     /**
      * Get transaction by ID
      */
@@ -144,7 +556,7 @@ public class LedgerService {
     public TransactionResponse getTransaction(UUID transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", transactionId));
-        return transactionMapper.toResponse(transaction);
+        return toResponses(List.of(transaction)).get(0);
     }
 
     /**
@@ -152,9 +564,7 @@ public class LedgerService {
      */
     @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionsByTenant(String tenantId) {
-        return transactionRepository.findByTenantId(tenantId).stream()
-                .map(transactionMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(transactionRepository.findByTenantId(tenantId));
     }
 
     /**
@@ -163,19 +573,99 @@ public class LedgerService {
     @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionsByDateRange(
             String tenantId, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate).stream()
-                .map(transactionMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(transactionRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate));
+    }
+
+    /**
+     * Page through a tenant's transactions, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getTransactionsByTenantPage(String tenantId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        return PageCursor.mapPage(
+                transactionRepository.findPageByTenantId(tenantId, position.timestamp(), position.id(), PageCursor.limit(size)),
+                size, this::cursorOf, this::toResponses);
+    }
+
+    /**
+     * Page through a tenant's transactions within a date range, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getTransactionsByDateRangePage(
+            String tenantId, LocalDateTime startDate, LocalDateTime endDate, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        return PageCursor.mapPage(
+                transactionRepository.findPageByTenantIdAndDateRange(tenantId, startDate, endDate,
+                        position.timestamp(), position.id(), PageCursor.limit(size)),
+                size, this::cursorOf, this::toResponses);
     }
 
     /**
-     * Generate unique transaction number
+     * Page through a tenant's transactions in a status, newest first
      */
-    private String generateTransactionNumber() {
-        String prefix = "TXN";
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        return prefix + "-" + timestamp + "-" + random;
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getTransactionsByStatusPage(
+            String tenantId, TransactionStatus status, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        return PageCursor.mapPage(
+                transactionRepository.findPageByTenantIdAndStatus(tenantId, status,
+                        position.timestamp(), position.id(), PageCursor.limit(size)),
+                size, this::cursorOf, this::toResponses);
+    }
+
+    private PageCursor cursorOf(Transaction transaction) {
+        return new PageCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    /**
+     * Map transactions with their entries using one projection query for all entries,
+     * instead of walking each lazy entries collection and each entry's account
+     */
+    private List<TransactionResponse> toResponses(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> ids = new ArrayList<>(transactions.size());
+        LocalDateTime fromDate = LocalDateTime.MAX;
+        LocalDateTime toDate = LocalDateTime.MIN;
+        for (Transaction transaction : transactions) {
+            ids.add(transaction.getId());
+            fromDate = transaction.getTransactionDate().isBefore(fromDate) ? transaction.getTransactionDate() : fromDate;
+            toDate = transaction.getTransactionDate().isAfter(toDate) ? transaction.getTransactionDate() : toDate;
+        }
+
+        Map<UUID, List<TransactionResponse.TransactionEntryResponse>> entriesByTransaction = entryRepository
+                .findViewsByTransactionIds(ids, fromDate, toDate).stream()
+                .collect(Collectors.groupingBy(TransactionEntryView::transactionId,
+                        Collectors.mapping(transactionMapper::toEntryResponse, Collectors.toList())));
+
+        List<TransactionResponse> responses = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            TransactionResponse response = transactionMapper.toSummaryResponse(transaction);
+            response.setEntries(entriesByTransaction.getOrDefault(transaction.getId(), List.of()));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * Map a transaction just posted by this service; account codes and names come from the
+     * near cache, so account proxies created for posting are not initialized
+     */
+    private TransactionResponse toPostedResponse(Transaction transaction) {
+        TransactionResponse response = transactionMapper.toSummaryResponse(transaction);
+        List<TransactionResponse.TransactionEntryResponse> entries = new ArrayList<>(transaction.getEntries().size());
+        for (TransactionEntry entry : transaction.getEntries()) {
+            TransactionResponse.TransactionEntryResponse entryResponse = transactionMapper.toEntrySummaryResponse(entry);
+            Account account = entry.getAccount();
+            Optional<AccountNearCache.AccountRef> ref = accountNearCache.peek(account.getId());
+            entryResponse.setAccountCode(ref.map(AccountNearCache.AccountRef::accountCode).orElseGet(account::getAccountCode));
+            entryResponse.setAccountName(ref.map(AccountNearCache.AccountRef::accountName).orElseGet(account::getAccountName));
+            entries.add(entryResponse);
+        }
+        response.setEntries(entries);
+        return response;
     }
 }
 
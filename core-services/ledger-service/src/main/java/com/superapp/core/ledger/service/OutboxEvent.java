@@ -0,0 +1,18 @@
+package com.superapp.core.ledger.service;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An outbox row as handed to an OutboxSink. The payload is the event's JSON document.
+ * Delivery is at least once, so consumers should de-duplicate on id.
+ */
+public record OutboxEvent(long id, String eventType, String tenantId, UUID aggregateId,
+                          @JsonRawValue String payload, LocalDateTime createdAt) {
+}
+
+
+
+
@@ -0,0 +1,28 @@
+package com.superapp.core.ledger.service;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay publishes to, selected with ledger.outbox.sink
+ */
+public interface OutboxSink {
+
+    String DEFAULT_DESTINATION = "default";
+
+    /**
+     * Where each batch goes; delivery to each is recorded per event, so a retry after one of them
+     * fails is not sent again to those that already took it
+     */
+    default List<String> destinations() {
+        return List.of(DEFAULT_DESTINATION);
+    }
+
+    /**
+     * Publish a batch of events in id order to one destination; throwing leaves the batch undelivered there for a retry
+     */
+    void publish(String destination, List<OutboxEvent> events);
+}
+
+
+
+
@@ -0,0 +1,86 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.exception.InvalidCursorException;
+import com.superapp.core.ledger.dto.response.CursorPage;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset pagination position: the (timestamp, id) of the last row returned.
+ * Encoded as an opaque URL-safe token.
+ */
+public record PageCursor(LocalDateTime timestamp, UUID id) {
+
+    /**
+     * Position before the first row of a newest-first listing
+     */
+    public static final PageCursor START = new PageCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59), new UUID(-1L, -1L));
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Row limit for a page query: one extra row tells whether another page follows
+     */
+    public static Limit limit(int pageSize) {
+        return Limit.of(clamp(pageSize) + 1);
+    }
+
+    /**
+     * Trim the extra row, map the page and derive the cursor of its last row
+     */
+    public static <E, R> CursorPage<R> page(List<E> rows, int pageSize,
+                                            Function<E, PageCursor> cursorOf, Function<E, R> mapper) {
+        return mapPage(rows, pageSize, cursorOf, pageRows -> pageRows.stream().map(mapper).collect(Collectors.toList()));
+    }
+
+    /**
+     * Like page, but maps all rows of the page at once (e.g. to load their children in one query)
+     */
+    public static <E, R> CursorPage<R> mapPage(List<E> rows, int pageSize,
+                                               Function<E, PageCursor> cursorOf, Function<List<E>, List<R>> mapper) {
+        int size = clamp(pageSize);
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+        return CursorPage.<R>builder()
+                .items(mapper.apply(pageRows))
+                .nextCursor(hasMore ? cursorOf.apply(pageRows.get(size - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static int clamp(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(
+                    Long.parseLong(parts[0]), Integer.parseInt(parts[1]), ZoneOffset.UTC);
+            return new PageCursor(timestamp, UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp.toEpochSecond(ZoneOffset.UTC) + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
+
+
+
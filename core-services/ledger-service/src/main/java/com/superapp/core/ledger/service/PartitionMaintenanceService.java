@@ -0,0 +1,302 @@
+package com.superapp.core.ledger.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Partition Maintenance Service
+ *
+ * transactions and transaction_entries are range partitioned by month of transaction_date:
+ * - Partitions are created monthsAhead months in advance (at startup and daily)
+ * - Months older than the retention are closed with balance checkpoints and detached,
+ *   their unique keys are pruned in batches, then they are exported to gzip'd CSV files
+ *   in archiveDir and dropped
+ *
+ * Archiving is off unless a retention is configured. Past the archive horizon, balances start
+ * from the closing checkpoints; references and transaction numbers of archived transactions
+ * are no longer held unique, and point-in-time balances before the horizon are not served.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    /**
+     * Parent first; entries reference transactions, so they are archived first
+     */
+    private static final List<String> PARTITIONED_TABLES = List.of("transactions", "transaction_entries");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String MONTHLY_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'transactions' AND c.relname ~ '^transactions_[0-9]{4}_[0-9]{2}$' ORDER BY c.relname";
+
+    private static final String DETACHED_MONTHS_SQL =
+            "SELECT month FROM ledger_archived_months WHERE archived_at IS NULL ORDER BY month";
+
+    /**
+     * Parents in the order postings lock them, so the detach never waits on a posting that waits on it
+     */
+    private static final String LOCK_PARENTS_SQL =
+            "LOCK TABLE " + String.join(", ", PARTITIONED_TABLES) + " IN ACCESS EXCLUSIVE MODE";
+
+    /**
+     * Keyset batches of the archived transactions; formatted with the detached transactions table
+     */
+    private static final String ARCHIVED_IDS_SQL = "SELECT id FROM %s WHERE id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * Unique keys of one batch of archived transactions, between two ids of the batch
+     */
+    private static final String PRUNE_REFERENCES_SQL =
+            "DELETE FROM transaction_references r USING %s t " +
+            "WHERE r.transaction_id = t.id AND t.id >= ? AND t.id <= ?";
+
+    private static final String PRUNE_NUMBERS_SQL =
+            "DELETE FROM transaction_numbers n USING %s t " +
+            "WHERE n.transaction_id = t.id AND t.id >= ? AND t.id <= ?";
+
+    private static final String INSERT_ARCHIVED_MONTH_SQL =
+            "INSERT INTO ledger_archived_months (month, detached_at) VALUES (?, ?)";
+
+    private static final String MARK_ARCHIVED_SQL = "UPDATE ledger_archived_months SET archived_at = ? WHERE month = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceCheckpointService balanceCheckpointService;
+
+    @Value("${ledger.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ledger.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    /**
+     * Months kept online besides the current one; 0 keeps everything
+     */
+    @Value("${ledger.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${ledger.partitions.archive-dir:./archive}")
+    private String archiveDir;
+
+    /**
+     * How long the detach waits for the parent tables before giving up until the next run
+     */
+    @Value("${ledger.partitions.lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    @Value("${ledger.partitions.prune-batch-size:1000}")
+    private int pruneBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            createFuturePartitions();
+        }
+    }
+
+    @Scheduled(cron = "${ledger.partitions.cron:0 30 2 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        createFuturePartitions();
+        if (retentionMonths > 0) {
+            archiveExpiredPartitions();
+        }
+    }
+
+    /**
+     * Create the monthly partitions from the current month to monthsAhead months ahead, where missing
+     */
+    public void createFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        for (int offset = 0; offset <= monthsAhead; offset++) {
+            YearMonth month = current.plusMonths(offset);
+            for (String table : PARTITIONED_TABLES) {
+                try {
+                    jdbcTemplate.execute(String.format(
+                            "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                            partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1)));
+                } catch (DataAccessException e) {
+                    // Typically rows for this month already sit in the default partition
+                    log.error("Could not create partition {}", partitionName(table, month), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Archive every monthly partition that ended before the retention window, after finishing
+     * any month a previous run detached but did not drop.
+     *
+     * @return the archived months
+     */
+    public List<YearMonth> archiveExpiredPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        List<YearMonth> archived = new ArrayList<>();
+
+        for (LocalDate detached : jdbcTemplate.queryForList(DETACHED_MONTHS_SQL, LocalDate.class)) {
+            finishDetached(YearMonth.from(detached));
+            archived.add(YearMonth.from(detached));
+        }
+        for (String partition : jdbcTemplate.queryForList(MONTHLY_PARTITIONS_SQL, String.class)) {
+            YearMonth month = YearMonth.parse(partition.substring("transactions_".length()), SUFFIX);
+            if (month.isBefore(oldestKept)) {
+                archivePartition(month);
+                archived.add(month);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Take one month offline. In one REPEATABLE READ transaction, with the partitioned tables
+     * locked against postings (parents first, like postings, and for at most lockTimeoutMs):
+     * write closing balance checkpoints at the end of the month and detach the partitions.
+     * Once that commits, the month's references and transaction numbers are pruned in batches
+     * and the detached tables are exported to archiveDir and dropped; a failure leaves them
+     * in place for the next run, which picks up from there.
+     */
+    public void archivePartition(YearMonth month) {
+        TransactionTemplate detachTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        detachTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        List<String> childFirst = new ArrayList<>(PARTITIONED_TABLES);
+        Collections.reverse(childFirst);
+
+        detachTemplate.executeWithoutResult(status -> {
+            // Lock statements only, so the snapshot the checkpoints are computed from is taken after them
+            jdbcTemplate.execute(BalanceCheckpointService.RUN_LOCK_SQL);
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+            jdbcTemplate.execute(LOCK_PARENTS_SQL);
+
+            balanceCheckpointService.closeBefore(month.plusMonths(1).atDay(1).atStartOfDay());
+
+            for (String table : childFirst) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partitionName(table, month));
+            }
+            jdbcTemplate.update(INSERT_ARCHIVED_MONTH_SQL, month.atDay(1), Timestamp.valueOf(LocalDateTime.now()));
+        });
+        log.info("Partitions for {} detached behind closing balance checkpoints", month);
+
+        finishDetached(month);
+    }
+
+    /**
+     * Prune a detached month's unique keys, export it to archiveDir, then drop its tables
+     */
+    private void finishDetached(YearMonth month) {
+        pruneUniqueKeys(partitionName("transactions", month));
+
+        Path directory = Paths.get(archiveDir);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<String> childFirst = new ArrayList<>(PARTITIONED_TABLES);
+        Collections.reverse(childFirst);
+
+        for (String table : childFirst) {
+            String partition = partitionName(table, month);
+            long rows = exportPartition(partition, directory.resolve(partition + ".csv.gz"));
+            log.info("Archived {} rows of {} to {}", rows, partition, directory);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String table : childFirst) {
+                jdbcTemplate.execute("DROP TABLE " + partitionName(table, month));
+            }
+            jdbcTemplate.update(MARK_ARCHIVED_SQL, Timestamp.valueOf(LocalDateTime.now()), month.atDay(1));
+        });
+        log.info("Partitions for {} archived and dropped", month);
+    }
+
+    /**
+     * Delete the references and transaction numbers of a detached transactions table, pruneBatchSize
+     * transactions per statement so no statement holds many row locks for long. The detached table
+     * keeps the ids until it is dropped, so an interrupted prune is simply run again.
+     */
+    private void pruneUniqueKeys(String transactions) {
+        String idsSql = String.format(ARCHIVED_IDS_SQL, transactions);
+        String referencesSql = String.format(PRUNE_REFERENCES_SQL, transactions);
+        String numbersSql = String.format(PRUNE_NUMBERS_SQL, transactions);
+
+        UUID after = new UUID(0, 0);
+        long pruned = 0;
+        List<UUID> ids;
+        do {
+            ids = jdbcTemplate.queryForList(idsSql, UUID.class, after, pruneBatchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            UUID first = ids.get(0);
+            after = ids.get(ids.size() - 1);
+            pruned += jdbcTemplate.update(referencesSql, first, after);
+            pruned += jdbcTemplate.update(numbersSql, first, after);
+        } while (ids.size() == pruneBatchSize);
+        log.info("Pruned {} unique keys of {}", pruned, transactions);
+    }
+
+    /**
+     * COPY a partition out as gzip'd CSV with a header; written to a temp file and moved into place
+     */
+    private long exportPartition(String partition, Path target) {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows != null ? rows : 0;
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_" + month.format(SUFFIX);
+    }
+}
+
+
+
+
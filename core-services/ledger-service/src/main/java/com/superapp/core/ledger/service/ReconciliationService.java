@@ -0,0 +1,353 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.EntryType;
+import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
+import com.superapp.core.ledger.dto.response.ReconciliationRunResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reconciliation Service
+ *
+ * Verifies that every account's stored balance equals the balance recomputed from its entries:
+ * - Accounts are split into chunks that a fork-join pool reconciles in parallel
+ * - Each chunk reads balances and per-account entry sums in one REPEATABLE READ, read-only
+ *   snapshot, so it takes no locks and never blocks postings
+ * - Entry sums are turned into balances with AccountType.balanceDelta, the rule behind Account.debit/credit
+ * - Once months are archived, an account's balance is recomputed from its closing checkpoint at the
+ *   archive horizon plus the entries that checkpoint does not hold, so archived entries are not missed
+ * - Drifting accounts are checked once more after the balance engine flushes, so in-memory
+ *   deltas that have not reached the accounts table yet are not reported
+ *
+ * Runs and their progress are kept in memory; one run at a time.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReconciliationService {
+
+    private static final String ACCOUNTS_SQL = "SELECT id FROM accounts ORDER BY id";
+
+    private static final String BALANCES_SQL =
+            "SELECT id, account_code, account_type, balance FROM accounts WHERE id = ANY(?)";
+
+    private static final String ENTRY_SUMS_SQL =
+            "SELECT account_id, entry_type, SUM(amount), COUNT(*) FROM transaction_entries " +
+            "WHERE account_id = ANY(?) GROUP BY account_id, entry_type";
+
+    private static final String ARCHIVE_HORIZON_SQL =
+            "SELECT MAX(month) + INTERVAL '1 month' FROM ledger_archived_months";
+
+    private static final String WATERMARK_SQL = "SELECT snapshot::text FROM ledger_watermarks WHERE name = ?";
+
+    private static final String OPENING_BALANCES_SQL =
+            "SELECT account_id, balance FROM account_balance_checkpoints WHERE account_id = ANY(?) AND checkpoint_at = ?";
+
+    /**
+     * Entries not held by the account's closing checkpoint: dated from the horizon on, or dated
+     * before it and committed after the checkpoint watermark; all entries without a closing checkpoint
+     */
+    private static final String ENTRY_SUMS_SINCE_OPENING_SQL =
+            "SELECT e.account_id, e.entry_type, SUM(e.amount), COUNT(*) FROM transaction_entries e " +
+            "LEFT JOIN account_balance_checkpoints c ON c.account_id = e.account_id AND c.checkpoint_at = ? " +
+            "WHERE e.account_id = ANY(?) AND (c.id IS NULL OR e.transaction_date >= c.checkpoint_at " +
+            "OR (e.created_xid >= pg_snapshot_xmin(CAST(? AS pg_snapshot)) " +
+            "AND NOT pg_visible_in_snapshot(e.created_xid, CAST(? AS pg_snapshot)))) " +
+            "GROUP BY e.account_id, e.entry_type";
+
+    private static final int MAX_KEPT_RUNS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final StripedBalanceEngine balanceEngine;
+
+    @Value("${ledger.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${ledger.reconciliation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${ledger.reconciliation.max-reported-drifts:1000}")
+    private int maxReportedDrifts;
+
+    private ForkJoinPool pool;
+    private TransactionTemplate snapshotTemplate;
+    private TransactionTemplate primarySnapshotTemplate;
+
+    private final Map<UUID, Run> runs = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism);
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setReadOnly(true);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        // Not read-only, so a read replica never serves it
+        primarySnapshotTemplate = new TransactionTemplate(transactionManager);
+        primarySnapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Start a run in the background; returns the run already in progress if there is one
+     */
+    public ReconciliationRunResponse start() {
+        Run run = new Run();
+        if (!current.compareAndSet(null, run)) {
+            return current.get().toResponse();
+        }
+        remember(run);
+        pool.execute(() -> execute(run));
+        return run.toResponse();
+    }
+
+    public ReconciliationRunResponse getRun(UUID runId) {
+        Run run = runs.get(runId);
+        if (run == null) {
+            throw new ResourceNotFoundException("ReconciliationRun", "id", runId);
+        }
+        return run.toResponse();
+    }
+
+    public List<ReconciliationRunResponse> getRuns() {
+        synchronized (runs) {
+            List<ReconciliationRunResponse> responses = new ArrayList<>(runs.size());
+            runs.values().forEach(run -> responses.add(run.toResponse()));
+            Collections.reverse(responses);
+            return responses;
+        }
+    }
+
+    private void execute(Run run) {
+        try {
+            List<UUID> accountIds = jdbcTemplate.queryForList(ACCOUNTS_SQL, UUID.class);
+            run.totalAccounts = accountIds.size();
+            log.info("Reconciliation {} started for {} accounts", run.id, accountIds.size());
+
+            List<List<UUID>> chunks = new ArrayList<>();
+            for (int from = 0; from < accountIds.size(); from += chunkSize) {
+                chunks.add(accountIds.subList(from, Math.min(from + chunkSize, accountIds.size())));
+            }
+            pool.invoke(new ChunkTask(run, chunks, 0, chunks.size()));
+
+            recheckDrifts(run);
+            run.finish("COMPLETED", null);
+            log.info("Reconciliation {} completed: {} accounts, {} entries, {} drifting",
+                    run.id, run.accountsChecked.get(), run.entriesChecked.get(), run.drifts.size());
+        } catch (RuntimeException e) {
+            log.error("Reconciliation {} failed", run.id, e);
+            run.finish("FAILED", e.getMessage());
+        } finally {
+            current.set(null);
+        }
+    }
+
+    /**
+     * Splits the chunk range in halves until one chunk is left, then reconciles it
+     */
+    private final class ChunkTask extends RecursiveAction {
+        private final Run run;
+        private final List<List<UUID>> chunks;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(Run run, List<List<UUID>> chunks, int from, int to) {
+            this.run = run;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    Map<UUID, ReconciliationRunResponse.Drift> drifts = reconcileChunk(snapshotTemplate, chunks.get(from), run);
+                    run.candidates.putAll(drifts);
+                    run.accountsChecked.addAndGet(chunks.get(from).size());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(run, chunks, from, middle), new ChunkTask(run, chunks, middle, to));
+        }
+    }
+
+    /**
+     * Recompute the balances of one chunk of accounts from a single snapshot
+     *
+     * @param template snapshot transaction to read in
+     * @return drifting accounts by id
+     */
+    private Map<UUID, ReconciliationRunResponse.Drift> reconcileChunk(TransactionTemplate template, List<UUID> accountIds, Run run) {
+        return template.execute(status -> {
+            Map<UUID, ReconciliationRunResponse.Drift> stored = new HashMap<>();
+            Map<UUID, AccountType> types = new HashMap<>();
+            jdbcTemplate.query(BALANCES_SQL, statement -> statement.setArray(1, uuidArray(statement.getConnection(), accountIds)),
+                    row -> {
+                        UUID id = row.getObject(1, UUID.class);
+                        types.put(id, AccountType.valueOf(row.getString(3)));
+                        stored.put(id, ReconciliationRunResponse.Drift.builder()
+                                .accountId(id)
+                                .accountCode(row.getString(2))
+                                .storedBalance(row.getBigDecimal(4))
+                                .computedBalance(BigDecimal.ZERO)
+                                .build());
+                    });
+
+            RowCallbackHandler entrySums = row -> {
+                UUID id = row.getObject(1, UUID.class);
+                ReconciliationRunResponse.Drift account = stored.get(id);
+                BigDecimal delta = types.get(id).balanceDelta(EntryType.valueOf(row.getString(2)), row.getBigDecimal(3));
+                account.setComputedBalance(account.getComputedBalance().add(delta));
+                if (run != null) {
+                    run.entriesChecked.addAndGet(row.getLong(4));
+                }
+            };
+
+            LocalDateTime horizon = jdbcTemplate.queryForObject(ARCHIVE_HORIZON_SQL, LocalDateTime.class);
+            if (horizon == null) {
+                jdbcTemplate.query(ENTRY_SUMS_SQL, statement -> statement.setArray(1, uuidArray(statement.getConnection(), accountIds)),
+                        entrySums);
+            } else {
+                String watermark = jdbcTemplate.queryForObject(WATERMARK_SQL, String.class, BalanceCheckpointService.WATERMARK);
+                jdbcTemplate.query(OPENING_BALANCES_SQL, statement -> {
+                    statement.setArray(1, uuidArray(statement.getConnection(), accountIds));
+                    statement.setTimestamp(2, Timestamp.valueOf(horizon));
+                }, row -> {
+                    stored.get(row.getObject(1, UUID.class)).setComputedBalance(row.getBigDecimal(2));
+                });
+                jdbcTemplate.query(ENTRY_SUMS_SINCE_OPENING_SQL, statement -> {
+                    statement.setTimestamp(1, Timestamp.valueOf(horizon));
+                    statement.setArray(2, uuidArray(statement.getConnection(), accountIds));
+                    statement.setString(3, watermark);
+                    statement.setString(4, watermark);
+                }, entrySums);
+            }
+
+            Map<UUID, ReconciliationRunResponse.Drift> drifts = new HashMap<>();
+            stored.forEach((id, account) -> {
+                BigDecimal difference = account.getStoredBalance().subtract(account.getComputedBalance());
+                if (difference.signum() != 0) {
+                    account.setDifference(difference);
+                    drifts.put(id, account);
+                }
+            });
+            return drifts;
+        });
+    }
+
+    /**
+     * Flush in-memory balance deltas and check the drifting accounts again in a fresh snapshot of the
+     * primary, which a replica may not have caught up with yet
+     */
+    private void recheckDrifts(Run run) {
+        if (run.candidates.isEmpty()) {
+            return;
+        }
+        balanceEngine.flush();
+        List<UUID> candidates = new ArrayList<>(run.candidates.keySet());
+        for (int from = 0; from < candidates.size(); from += chunkSize) {
+            run.record(reconcileChunk(primarySnapshotTemplate, candidates.subList(from, Math.min(from + chunkSize, candidates.size())), null).values(),
+                    maxReportedDrifts);
+        }
+    }
+
+    private static Array uuidArray(Connection connection, List<UUID> ids) throws SQLException {
+        return connection.createArrayOf("uuid", ids.toArray());
+    }
+
+    private void remember(Run run) {
+        synchronized (runs) {
+            runs.put(run.id, run);
+            if (runs.size() > MAX_KEPT_RUNS) {
+                runs.remove(runs.keySet().iterator().next());
+            }
+        }
+    }
+
+    private static final class Run {
+        private final UUID id = UUID.randomUUID();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong accountsChecked = new AtomicLong();
+        private final AtomicLong entriesChecked = new AtomicLong();
+        private final Map<UUID, ReconciliationRunResponse.Drift> candidates = new ConcurrentHashMap<>();
+        private final List<ReconciliationRunResponse.Drift> drifts = Collections.synchronizedList(new ArrayList<>());
+        private volatile long totalAccounts;
+        private volatile long driftCount;
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private void record(Iterable<ReconciliationRunResponse.Drift> confirmed, int maxReported) {
+            for (ReconciliationRunResponse.Drift drift : confirmed) {
+                driftCount++;
+                if (drifts.size() < maxReported) {
+                    drifts.add(drift);
+                }
+            }
+        }
+
+        private void finish(String finalStatus, String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private ReconciliationRunResponse toResponse() {
+            long total = totalAccounts;
+            long checked = accountsChecked.get();
+            return ReconciliationRunResponse.builder()
+                    .runId(id)
+                    .status(status)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .totalAccounts(total)
+                    .accountsChecked(checked)
+                    .entriesChecked(entriesChecked.get())
+                    .progressPercent(total == 0 ? ("RUNNING".equals(status) ? 0 : 100) : checked * 100.0 / total)
+                    .driftCount(driftCount)
+                    .drifts(List.copyOf(drifts))
+                    .error(error)
+                    .build();
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,186 @@
+package com.superapp.core.ledger.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reference Filter
+ *
+ * Bloom filter over the (referenceType, referenceId) pairs of recent transactions.
+ * A negative answer means the reference was not posted within the warm window, so the
+ * idempotency lookup can be skipped; a positive answer only means "look it up".
+ *
+ * Each rebuild sizes the filter for the references in the warm window plus those expected
+ * until the next rebuild, so the false positive rate holds as volume grows.
+ *
+ * Correctness never depends on the filter: the unique constraint on the reference still
+ * rejects a duplicate that the filter missed (older than the window, or posted by another instance).
+ * Until the first warm-up finishes every reference is reported as possibly present.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReferenceFilter {
+
+    private static final String RECENT_COUNT_SQL =
+            "SELECT COUNT(*) FROM transactions " +
+            "WHERE reference_type IS NOT NULL AND reference_id IS NOT NULL AND transaction_date >= ?";
+
+    private static final String RECENT_REFERENCES_SQL =
+            "SELECT reference_type, reference_id FROM transactions " +
+            "WHERE reference_type IS NOT NULL AND reference_id IS NOT NULL AND transaction_date >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Least number of references the filter is sized for
+     */
+    @Value("${ledger.idempotency.filter.expected-insertions:2000000}")
+    private long expectedInsertions;
+
+    @Value("${ledger.idempotency.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${ledger.idempotency.filter.warm-hours:72}")
+    private long warmHours;
+
+    @Value("${ledger.idempotency.filter.rebuild-interval-ms:86400000}")
+    private long rebuildIntervalMs;
+
+    private volatile Bits bits;
+
+    /**
+     * True if the reference may have been posted before
+     */
+    public boolean mightContain(String referenceType, String referenceId) {
+        Bits current = bits;
+        return current == null || current.mightContain(referenceType, referenceId);
+    }
+
+    public void add(String referenceType, String referenceId) {
+        Bits current = bits;
+        if (current != null) {
+            current.add(referenceType, referenceId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild from the warm window so references that aged out stop filling the filter.
+     * References posted while the rebuild runs may be missed; they fall back to the constraint.
+     */
+    @Scheduled(fixedDelayString = "${ledger.idempotency.filter.rebuild-interval-ms:86400000}",
+            initialDelayString = "${ledger.idempotency.filter.rebuild-interval-ms:86400000}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusHours(warmHours));
+        Long recent = jdbcTemplate.queryForObject(RECENT_COUNT_SQL, Long.class, since);
+        long capacity = capacityFor(recent != null ? recent : 0);
+
+        Bits fresh = new Bits(capacity, falsePositiveRate);
+        long[] count = {0};
+        jdbcTemplate.query(RECENT_REFERENCES_SQL, row -> {
+            fresh.add(row.getString(1), row.getString(2));
+            count[0]++;
+        }, since);
+
+        bits = fresh;
+        log.info("Reference filter warmed with {} references, sized for {}, in {} ms",
+                count[0], capacity, System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * References the filter must hold until the next rebuild: the warm window's, plus as many
+     * again per rebuild interval as the window saw on average, and at least expectedInsertions
+     */
+    long capacityFor(long recent) {
+        long warmMs = Math.max(1, warmHours * 3_600_000L);
+        long untilRebuild = (long) Math.ceil((double) recent * rebuildIntervalMs / warmMs);
+        return Math.max(expectedInsertions, recent + untilRebuild);
+    }
+
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+
+        private Bits(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((m + 63) >>> 6));
+            this.bitCount = (long) words.length() << 6;
+            this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        }
+
+        boolean mightContain(String referenceType, String referenceId) {
+            long hash1 = hash(referenceType, referenceId);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(String referenceType, String referenceId) {
+            long hash1 = hash(referenceType, referenceId);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                while (((value = words.get(word)) & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    // lost a race with another writer on the same word, retry
+                }
+            }
+        }
+
+        /**
+         * FNV-1a over type, a separator and id
+         */
+        private static long hash(String referenceType, String referenceId) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < referenceType.length(); i++) {
+                hash = (hash ^ referenceType.charAt(i)) * 0x100000001b3L;
+            }
+            hash *= 0x100000001b3L;
+            for (int i = 0; i < referenceId.length(); i++) {
+                hash = (hash ^ referenceId.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        /**
+         * MurmurHash3 finalizer, for the second, independent-enough hash
+         */
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash | 1;
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,358 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.EntryType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped Balance Engine
+ *
+ * Single-writer balance engine for hot ledger accounts:
+ * - Every account is routed to a fixed stripe, so deltas for one account are applied in order
+ * - Balances are kept in memory; postings never take a row lock on accounts
+ * - A delta reaches the in-memory balance only once its DB transaction has committed, so a
+ *   rollback never has to take back a balance another posting has already built on
+ * - Committed deltas are coalesced per account and flushed to the accounts table in batches;
+ *   entries' balance_after snapshots are written by the same flush, in commit order, and are
+ *   NULL until then
+ *
+ * Only one instance may run the engine against a database: it holds a session-level advisory
+ * lock for its lifetime and refuses to start when another instance holds it. Postings through the
+ * engine take no row locks, so cannot enforce holds: the engine refuses to start while accounts have
+ * open holds, and placing a hold takes the same lock in shared mode, failing while an engine runs.
+ * Deltas committed but not yet flushed when the process dies are recovered from their entries,
+ * whose balance_after is still NULL: the next engine replays them before it takes postings.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StripedBalanceEngine {
+
+    private static final String FLUSH_SQL =
+            "UPDATE accounts SET balance = balance + ?, version = version + 1, updated_at = ? WHERE id = ?";
+
+    private static final String SNAPSHOT_SQL =
+            "UPDATE transaction_entries SET balance_after = ? WHERE id = ? AND transaction_date = ?";
+
+    private static final String SINGLE_WRITER_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('ledger-striped-balance-engine'))";
+
+    /**
+     * Shared form of the single-writer lock, held by DB transactions that place holds
+     */
+    private static final String EXCLUDE_ENGINE_SQL =
+            "SELECT pg_try_advisory_xact_lock_shared(hashtext('ledger-striped-balance-engine'))";
+
+    /**
+     * Entries whose delta committed but was not flushed: every other path writes balance_after with the entry
+     */
+    private static final String UNFLUSHED_SQL =
+            "SELECT e.id, e.transaction_date, e.account_id, e.entry_type, e.amount, a.account_type, a.balance " +
+            "FROM transaction_entries e JOIN accounts a ON a.id = e.account_id " +
+            "WHERE e.balance_after IS NULL ORDER BY e.created_at, e.id";
+
+    private static final String HELD_ACCOUNTS_SQL = "SELECT EXISTS (SELECT 1 FROM accounts WHERE held_amount > 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+
+    @Value("${ledger.posting.striped.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ledger.posting.striped.stripes:16}")
+    private int stripeCount;
+
+    @Value("${ledger.posting.striped.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private Stripe[] stripes;
+    private TransactionTemplate flushTemplate;
+    private Connection singleWriterLock;
+
+    @PostConstruct
+    void init() throws SQLException {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        flushTemplate = new TransactionTemplate(transactionManager);
+        if (enabled) {
+            acquireSingleWriterLock();
+            replayUnflushed();
+            log.info("Striped balance engine enabled with {} stripes", stripeCount);
+        }
+    }
+
+    /**
+     * Apply and flush the deltas a previous engine committed but did not flush before it died.
+     * Runs under the single-writer lock and before the engine takes postings, so nothing else
+     * writes these balances meanwhile.
+     */
+    private void replayUnflushed() {
+        int[] replayed = {0};
+        jdbcTemplate.query(UNFLUSHED_SQL, rs -> {
+            UUID accountId = rs.getObject("account_id", UUID.class);
+            BigDecimal delta = AccountType.valueOf(rs.getString("account_type"))
+                    .balanceDelta(EntryType.valueOf(rs.getString("entry_type")), rs.getBigDecimal("amount"));
+            // The stored balance seeds the account's first delta; later ones build on the in-memory balance
+            commit(stripeFor(accountId), new Snapshot(accountId, rs.getObject("id", UUID.class),
+                    rs.getTimestamp("transaction_date").toLocalDateTime(), delta, rs.getBigDecimal("balance")));
+            replayed[0]++;
+        });
+        if (replayed[0] > 0) {
+            log.warn("Replaying {} balance deltas committed but not flushed by the previous engine", replayed[0]);
+            flush();
+        }
+    }
+
+    /**
+     * Hold a session advisory lock on a dedicated connection for as long as the engine runs
+     */
+    private void acquireSingleWriterLock() throws SQLException {
+        singleWriterLock = dataSource.getConnection();
+        try (Statement statement = singleWriterLock.createStatement();
+             ResultSet result = statement.executeQuery(SINGLE_WRITER_LOCK_SQL)) {
+            if (!result.next() || !result.getBoolean(1)) {
+                singleWriterLock.close();
+                throw new IllegalStateException("Another instance is running the striped balance engine, or placing "
+                        + "a hold; ledger.posting.striped.enabled must be set on one instance only");
+            }
+        }
+        try (Statement statement = singleWriterLock.createStatement();
+             ResultSet result = statement.executeQuery(HELD_ACCOUNTS_SQL)) {
+            if (result.next() && result.getBoolean(1)) {
+                singleWriterLock.close();
+                throw new IllegalStateException("Accounts have open holds, which the striped balance engine does not "
+                        + "enforce; release them or keep ledger.posting.striped.enabled off");
+            }
+        }
+    }
+
+    /**
+     * Keep the engine from starting on any instance until the current DB transaction ends.
+     * Holds are enforced under account row locks, which postings through the engine do not take,
+     * so holds may only be placed while no engine runs.
+     *
+     * @throws InvalidTransactionException if an engine is running
+     */
+    public void excludeUntilCommit() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXCLUDE_ENGINE_SQL, Boolean.class))) {
+            throw new InvalidTransactionException("Holds cannot be placed while the striped balance engine runs");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Apply a signed balance delta for an entry once the surrounding DB transaction commits
+     * (immediately when there is none). The entry's balance_after is written by the next flush.
+     *
+     * @param persistedBalance supplies the stored balance, called only if the engine has not seen the account
+     */
+    public void apply(UUID accountId, UUID entryId, LocalDateTime transactionDate, BigDecimal delta,
+                      Supplier<BigDecimal> persistedBalance) {
+        Stripe stripe = stripeFor(accountId);
+
+        // Seed outside the stripe lock: loading the stored balance may hit the database
+        BigDecimal seed = currentBalance(accountId).isPresent() ? null : persistedBalance.get();
+        Snapshot snapshot = new Snapshot(accountId, entryId, transactionDate, delta, seed);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    commit(stripe, snapshot);
+                }
+            });
+        } else {
+            commit(stripe, snapshot);
+        }
+    }
+
+    /**
+     * In-memory balance for an account, if this engine has seen it; committed deltas only
+     */
+    public Optional<BigDecimal> currentBalance(UUID accountId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Stripe stripe = stripeFor(accountId);
+        stripe.lock.lock();
+        try {
+            return Optional.ofNullable(stripe.balances.get(accountId));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Flush coalesced deltas to the accounts table, and balance_after snapshots to their entries.
+     * Rows are updated in account id order so concurrent flushers never deadlock.
+     */
+    @Scheduled(fixedDelayString = "${ledger.posting.striped.flush-interval-ms:50}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<UUID, BigDecimal> drained = new HashMap<>();
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (!stripe.pending.isEmpty()) {
+                    drained.putAll(stripe.pending);
+                    snapshots.addAll(stripe.snapshots);
+                    stripe.pending = new HashMap<>();
+                    stripe.snapshots = new ArrayList<>();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<UUID> accountIds = new ArrayList<>(drained.keySet());
+        accountIds.sort(null);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try {
+            flushTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < accountIds.size(); from += flushBatchSize) {
+                    List<Object[]> batch = new ArrayList<>();
+                    for (UUID accountId : accountIds.subList(from, Math.min(from + flushBatchSize, accountIds.size()))) {
+                        batch.add(new Object[]{drained.get(accountId), now, accountId});
+                    }
+                    jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                }
+                for (int from = 0; from < snapshots.size(); from += flushBatchSize) {
+                    List<Object[]> batch = new ArrayList<>();
+                    for (Snapshot snapshot : snapshots.subList(from, Math.min(from + flushBatchSize, snapshots.size()))) {
+                        batch.add(new Object[]{snapshot.balanceAfter, snapshot.entryId,
+                                Timestamp.valueOf(snapshot.transactionDate)});
+                    }
+                    jdbcTemplate.batchUpdate(SNAPSHOT_SQL, batch);
+                }
+            });
+            log.debug("Flushed balance deltas for {} accounts, {} entry snapshots", accountIds.size(), snapshots.size());
+        } catch (RuntimeException e) {
+            log.error("Balance flush failed for {} accounts, re-queueing", accountIds.size(), e);
+            requeue(drained, snapshots);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws SQLException {
+        flush();
+        if (singleWriterLock != null) {
+            // Closing the session releases the advisory lock
+            singleWriterLock.close();
+        }
+    }
+
+    /**
+     * Apply a committed delta to the in-memory balance and queue it, with its snapshot, for flushing
+     */
+    private void commit(Stripe stripe, Snapshot snapshot) {
+        stripe.lock.lock();
+        try {
+            BigDecimal current = stripe.balances.get(snapshot.accountId);
+            snapshot.balanceAfter = (current != null ? current : snapshot.seed).add(snapshot.delta);
+            stripe.balances.put(snapshot.accountId, snapshot.balanceAfter);
+            stripe.pending.merge(snapshot.accountId, snapshot.delta, BigDecimal::add);
+            stripe.snapshots.add(snapshot);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void requeue(Map<UUID, BigDecimal> deltas, List<Snapshot> snapshots) {
+        deltas.forEach((accountId, delta) -> {
+            Stripe stripe = stripeFor(accountId);
+            stripe.lock.lock();
+            try {
+                stripe.pending.merge(accountId, delta, BigDecimal::add);
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+        for (Snapshot snapshot : snapshots) {
+            Stripe stripe = stripeFor(snapshot.accountId);
+            stripe.lock.lock();
+            try {
+                stripe.snapshots.add(snapshot);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private Stripe stripeFor(UUID accountId) {
+        return stripes[Math.floorMod(accountId.hashCode(), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<UUID, BigDecimal> balances = new HashMap<>();
+        private Map<UUID, BigDecimal> pending = new HashMap<>();
+        private List<Snapshot> snapshots = new ArrayList<>();
+    }
+
+    /**
+     * One entry's delta; balanceAfter is set when the delta is applied at commit
+     */
+    private static final class Snapshot {
+        private final UUID accountId;
+        private final UUID entryId;
+        private final LocalDateTime transactionDate;
+        private final BigDecimal delta;
+        private final BigDecimal seed;
+        private BigDecimal balanceAfter;
+
+        private Snapshot(UUID accountId, UUID entryId, LocalDateTime transactionDate, BigDecimal delta, BigDecimal seed) {
+            this.accountId = accountId;
+            this.entryId = entryId;
+            this.transactionDate = transactionDate;
+            this.delta = delta;
+            this.seed = seed;
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,318 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.domain.exception.ResourceNotFoundException;
+import com.superapp.core.ledger.dto.response.TenantTransferResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Tenant Transfer Service
+ *
+ * Moves a tenant's ledger between databases with PostgreSQL binary COPY:
+ * - Export dumps the tenant's accounts, transactions and entries from one REPEATABLE READ snapshot
+ *   into a directory of .bin files plus a manifest of column lists and row counts
+ * - Import loads a dump into a database that has no accounts for the tenant, in one DB transaction,
+ *   then recomputes account balances and daily, monthly and yearly rollups from the loaded entries once
+ *
+ * Only accounts, transactions and entries are transferred: holds, balance checkpoints and hash chain
+ * links and checkpoints stay behind, as does account group membership. Balances are rebuilt from the
+ * imported entries, so held amounts start at zero. Imported transactions posted before the hash
+ * chain's lookback window are not sealed.
+ *
+ * Export inlines the tenant id into its COPY statements, so tenant ids must match TENANT_ID.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TenantTransferService {
+
+    private static final String MANIFEST = "manifest.properties";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_.-]{1,100}");
+
+    /**
+     * Parents first: that is the import order foreign keys need
+     */
+    private static final List<String> TABLES = List.of("accounts", "transactions", "transaction_entries");
+
+    /**
+     * Columns left out of the dump, by table
+     */
+    private static final Map<String, Set<String>> EXCLUDED_COLUMNS = Map.of(
+            // Holds are not transferred, so neither is what they reserve
+            "accounts", Set.of("group_id", "held_amount"),
+            // Inserting transaction ids belong to the source database; imported entries get the importing one
+            "transaction_entries", Set.of("created_xid"));
+
+    private static final String COLUMNS_SQL =
+            "SELECT column_name FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = ? ORDER BY ordinal_position";
+
+    private static final String TENANT_EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM accounts WHERE tenant_id = ?)";
+
+    private static final String REFERENCES_SQL =
+            "SELECT reference_type, reference_id FROM transactions " +
+            "WHERE tenant_id = ? AND reference_type IS NOT NULL AND reference_id IS NOT NULL";
+
+    private static final String REBUILD_BALANCES_SQL =
+            "UPDATE accounts a SET balance = CASE WHEN a.account_type IN (%s) THEN s.net_debits ELSE -s.net_debits END, " +
+            "version = a.version + 1, updated_at = NOW() " +
+            "FROM (SELECT acc.id, COALESCE(SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE -e.amount END), 0) AS net_debits " +
+            "      FROM accounts acc LEFT JOIN transaction_entries e ON e.account_id = acc.id " +
+            "      WHERE acc.tenant_id = ? GROUP BY acc.id) s " +
+            "WHERE a.id = s.id";
+
+    private static final String REBUILD_ROLLUPS_SQL =
+            "INSERT INTO ledger_daily_rollups (id, tenant_id, account_type, currency, rollup_date, slot, " +
+            "debit_total, credit_total, entry_count, created_at, updated_at, version) " +
+            "SELECT gen_random_uuid(), t.tenant_id, a.account_type, t.currency, CAST(t.transaction_date AS DATE), 0, " +
+            "SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE 0 END), " +
+            "SUM(CASE WHEN e.entry_type = 'CREDIT' THEN e.amount ELSE 0 END), COUNT(*), NOW(), NOW(), 0 " +
+            "FROM transaction_entries e " +
+            "JOIN transactions t ON t.id = e.transaction_id AND t.transaction_date = e.transaction_date " +
+            "JOIN accounts a ON a.id = e.account_id " +
+            "WHERE t.tenant_id = ? AND t.status IN ('POSTED', 'REVERSED') " +
+            "GROUP BY t.tenant_id, a.account_type, t.currency, CAST(t.transaction_date AS DATE) " +
+            "ON CONFLICT (tenant_id, account_type, currency, rollup_date, slot) DO UPDATE SET " +
+            "debit_total = ledger_daily_rollups.debit_total + EXCLUDED.debit_total, " +
+            "credit_total = ledger_daily_rollups.credit_total + EXCLUDED.credit_total, " +
+            "entry_count = ledger_daily_rollups.entry_count + EXCLUDED.entry_count, " +
+            "updated_at = EXCLUDED.updated_at, version = ledger_daily_rollups.version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ReferenceFilter referenceFilter;
+    private final LedgerRollupService rollupService;
+
+    @Value("${ledger.tenant-transfer.dir:./tenant-dumps}")
+    private String transferDir;
+
+    private TransactionTemplate snapshotTemplate;
+    private TransactionTemplate importTemplate;
+
+    @PostConstruct
+    void init() {
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setReadOnly(true);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        importTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Dump a tenant's ledger into a new directory under the transfer dir
+     */
+    public TenantTransferResponse exportTenant(String tenantId) {
+        requireValidTenantId(tenantId);
+        long started = System.currentTimeMillis();
+        String directoryName = tenantId.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + LocalDateTime.now().format(STAMP);
+        Path directory = baseDir().resolve(directoryName);
+
+        Map<String, Long> rows = snapshotTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TENANT_EXISTS_SQL, Boolean.class, tenantId))) {
+                throw new ResourceNotFoundException("Tenant", "tenantId", tenantId);
+            }
+            createDirectory(directory);
+
+            Properties manifest = new Properties();
+            manifest.setProperty("tenantId", tenantId);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (String table : TABLES) {
+                List<String> columns = columns(table);
+                long count = copyOut("COPY (" + exportQuery(table, columns, tenantId) + ") TO STDOUT (FORMAT binary)",
+                        directory.resolve(table + ".bin"));
+                manifest.setProperty(table + ".columns", String.join(",", columns));
+                manifest.setProperty(table + ".rows", Long.toString(count));
+                counts.put(table, count);
+            }
+            writeManifest(directory, manifest);
+            return counts;
+        });
+
+        TenantTransferResponse response = response(tenantId, directoryName, rows, started);
+        log.info("Exported tenant {} to {}: {} accounts, {} transactions, {} entries", tenantId, directory,
+                response.getAccounts(), response.getTransactions(), response.getEntries());
+        return response;
+    }
+
+    /**
+     * Load a dump made by exportTenant; the tenant must not have any accounts here yet
+     */
+    public TenantTransferResponse importTenant(String tenantId, String directoryName) {
+        requireValidTenantId(tenantId);
+        long started = System.currentTimeMillis();
+        Path directory = baseDir().resolve(directoryName).normalize();
+        if (!directory.startsWith(baseDir()) || !Files.isRegularFile(directory.resolve(MANIFEST))) {
+            throw new ResourceNotFoundException("TenantDump", "directory", directoryName);
+        }
+        Properties manifest = readManifest(directory);
+        if (!tenantId.equals(manifest.getProperty("tenantId"))) {
+            throw new InvalidTransactionException("Dump " + directoryName + " is not of tenant " + tenantId);
+        }
+
+        Map<String, Long> rows = importTemplate.execute(status -> {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(TENANT_EXISTS_SQL, Boolean.class, tenantId))) {
+                throw new InvalidTransactionException("Tenant already has accounts: " + tenantId);
+            }
+
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (String table : TABLES) {
+                List<String> columns = Arrays.asList(manifest.getProperty(table + ".columns").split(","));
+                if (!new HashSet<>(columns(table)).containsAll(columns)) {
+                    throw new InvalidTransactionException("Dump columns of " + table + " do not match this schema");
+                }
+                counts.put(table, copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT binary)",
+                        directory.resolve(table + ".bin")));
+            }
+
+            String debitNormalTypes = Arrays.stream(AccountType.values())
+                    .filter(AccountType::hasDebitNormalBalance)
+                    .map(type -> "'" + type.name() + "'")
+                    .collect(Collectors.joining(", "));
+            jdbcTemplate.update(String.format(REBUILD_BALANCES_SQL, debitNormalTypes), tenantId);
+            jdbcTemplate.update(REBUILD_ROLLUPS_SQL, tenantId);
+            rollupService.rebuildPeriods(tenantId);
+            return counts;
+        });
+
+        jdbcTemplate.query(REFERENCES_SQL, row -> {
+            referenceFilter.add(row.getString(1), row.getString(2));
+        }, tenantId);
+
+        TenantTransferResponse response = response(tenantId, directoryName, rows, started);
+        log.info("Imported tenant {} from {}: {} accounts, {} transactions, {} entries", tenantId, directory,
+                response.getAccounts(), response.getTransactions(), response.getEntries());
+        return response;
+    }
+
+    private static void requireValidTenantId(String tenantId) {
+        if (tenantId == null || !TENANT_ID.matcher(tenantId).matches()) {
+            throw new InvalidTransactionException("Invalid tenant id: tenant transfer requires letters, digits, '_', '.' or '-'");
+        }
+    }
+
+    /**
+     * Rows of a table belonging to the tenant; shards sort after the accounts they point to
+     */
+    private static String exportQuery(String table, List<String> columns, String tenantId) {
+        String tenant = "'" + tenantId.replace("'", "''") + "'";
+        return switch (table) {
+            case "accounts" -> "SELECT " + String.join(", ", columns) + " FROM accounts WHERE tenant_id = " + tenant +
+                    " ORDER BY parent_account_id NULLS FIRST";
+            case "transactions" -> "SELECT " + String.join(", ", columns) + " FROM transactions WHERE tenant_id = " + tenant;
+            case "transaction_entries" -> "SELECT " + columns.stream().map(column -> "e." + column).collect(Collectors.joining(", ")) +
+                    " FROM transaction_entries e JOIN transactions t" +
+                    " ON t.id = e.transaction_id AND t.transaction_date = e.transaction_date WHERE t.tenant_id = " + tenant;
+            default -> throw new IllegalArgumentException(table);
+        };
+    }
+
+    private List<String> columns(String table) {
+        Set<String> excluded = EXCLUDED_COLUMNS.getOrDefault(table, Set.of());
+        return jdbcTemplate.queryForList(COLUMNS_SQL, String.class, table).stream()
+                .filter(column -> !excluded.contains(column))
+                .toList();
+    }
+
+    private long copyOut(String sql, Path target) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private long copyIn(String sql, Path source) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private Path baseDir() {
+        return Paths.get(transferDir).toAbsolutePath().normalize();
+    }
+
+    private static void createDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeManifest(Path directory, Properties manifest) {
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            manifest.store(writer, "Ledger tenant dump");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Properties readManifest(Path directory) {
+        Properties manifest = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            manifest.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return manifest;
+    }
+
+    private static TenantTransferResponse response(String tenantId, String directory, Map<String, Long> rows, long started) {
+        return TenantTransferResponse.builder()
+                .tenantId(tenantId)
+                .directory(directory)
+                .accounts(rows.getOrDefault("accounts", 0L))
+                .transactions(rows.getOrDefault("transactions", 0L))
+                .entries(rows.getOrDefault("transaction_entries", 0L))
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+    }
+}
+
+
+
+
@@ -0,0 +1,194 @@
+package com.superapp.core.ledger.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superapp.core.ledger.domain.entity.Transaction;
+import com.superapp.core.ledger.domain.entity.TransactionEntry;
+import com.superapp.core.ledger.dto.mapper.TransactionMapper;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
+import com.superapp.core.ledger.repository.TransactionEntryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Transaction Export Service
+ *
+ * Streams a tenant's statement straight to an output stream. Entries are read through a
+ * server-side cursor with a fixed fetch size and detached as soon as they are written,
+ * so memory stays flat regardless of tenant size.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+    private static final String CSV_HEADER = "transactionNumber,transactionDate,status,description,referenceId," +
+            "referenceType,currency,accountCode,accountName,entryType,amount,balanceAfter";
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final TransactionEntryRepository entryRepository;
+    private final TransactionMapper transactionMapper;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Write a tenant's transactions (optionally limited to a date range) in the given format
+     */
+    public void export(String tenantId, LocalDateTime startDate, LocalDateTime endDate, Format format,
+                       OutputStream outputStream) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        template.executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try (Stream<TransactionEntry> entries = entryRepository.streamByTenantIdAndDateRange(tenantId,
+                    startDate != null ? startDate : BEGINNING, endDate != null ? endDate : END_OF_TIME)) {
+                long count = format == Format.CSV ? writeCsv(entries.iterator(), writer) : writeNdjson(entries.iterator(), writer);
+                writer.flush();
+                log.info("Exported {} transactions for tenant: {}", count, tenantId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * One JSON transaction per line; consecutive entries of the same transaction are grouped
+     */
+    private long writeNdjson(Iterator<TransactionEntry> entries, Writer writer) throws IOException {
+        long count = 0;
+        List<TransactionEntry> group = new ArrayList<>();
+        while (entries.hasNext()) {
+            TransactionEntry entry = entries.next();
+            if (!group.isEmpty() && !group.get(0).getTransaction().getId().equals(entry.getTransaction().getId())) {
+                writeTransaction(group, writer);
+                count++;
+            }
+            group.add(entry);
+        }
+        if (!group.isEmpty()) {
+            writeTransaction(group, writer);
+            count++;
+        }
+        return count;
+    }
+
+    private void writeTransaction(List<TransactionEntry> group, Writer writer) throws IOException {
+        Transaction transaction = group.get(0).getTransaction();
+        TransactionResponse response = transactionMapper.toSummaryResponse(transaction);
+        List<TransactionResponse.TransactionEntryResponse> entryResponses = new ArrayList<>(group.size());
+        for (TransactionEntry entry : group) {
+            entryResponses.add(transactionMapper.toEntryResponse(entry));
+        }
+        response.setEntries(entryResponses);
+
+        writer.write(objectMapper.writeValueAsString(response));
+        writer.write('\n');
+
+        group.forEach(this::detach);
+        entityManager.detach(transaction);
+        group.clear();
+    }
+
+    /**
+     * One CSV row per entry
+     */
+    private long writeCsv(Iterator<TransactionEntry> entries, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long count = 0;
+        Transaction previous = null;
+        while (entries.hasNext()) {
+            TransactionEntry entry = entries.next();
+            Transaction transaction = entry.getTransaction();
+            if (previous == null || !previous.getId().equals(transaction.getId())) {
+                if (previous != null) {
+                    entityManager.detach(previous);
+                }
+                previous = transaction;
+                count++;
+            }
+
+            writer.write(String.join(",",
+                    csv(transaction.getTransactionNumber()),
+                    csv(transaction.getTransactionDate()),
+                    csv(transaction.getStatus()),
+                    csv(transaction.getDescription()),
+                    csv(transaction.getReferenceId()),
+                    csv(transaction.getReferenceType()),
+                    csv(transaction.getCurrency()),
+                    csv(entry.getAccount().getAccountCode()),
+                    csv(entry.getAccount().getAccountName()),
+                    csv(entry.getEntryType()),
+                    csv(entry.getAmount()),
+                    csv(entry.getBalanceAfter())));
+            writer.write('\n');
+            detach(entry);
+        }
+        return count;
+    }
+
+    private void detach(TransactionEntry entry) {
+        entityManager.detach(entry);
+        entityManager.detach(entry.getAccount());
+    }
+
+    /**
+     * One CSV cell; text starting like a spreadsheet formula is prefixed with ' so it is shown, not evaluated
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!(value instanceof Number) && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
+
+
+
+
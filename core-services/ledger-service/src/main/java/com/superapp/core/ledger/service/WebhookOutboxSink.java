@@ -0,0 +1,95 @@
+package com.superapp.core.ledger.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Outbox sink that POSTs each batch as a JSON array to every configured webhook URL.
+ * With a secret configured, the body's HMAC-SHA256 is sent in X-Ledger-Signature.
+ * Each URL is a destination of its own: a non-2xx response fails the batch for that URL only,
+ * and the retry is not sent again to the URLs that already took it.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.outbox.sink", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${ledger.outbox.webhook.urls:}")
+    private List<String> urls;
+
+    @Value("${ledger.outbox.webhook.secret:}")
+    private String secret;
+
+    @Value("${ledger.outbox.webhook.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${ledger.outbox.webhook.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    private RestClient restClient;
+
+    @PostConstruct
+    void init() {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("ledger.outbox.webhook.urls must be set for the webhook outbox sink");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public List<String> destinations() {
+        return urls;
+    }
+
+    @Override
+    public void publish(String url, List<OutboxEvent> events) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox events could not be serialized", e);
+        }
+
+        RestClient.RequestBodySpec request = restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!secret.isEmpty()) {
+            request.header("X-Ledger-Signature", "sha256=" + sign(body));
+        }
+        request.body(body).retrieve().toBodilessEntity();
+    }
+
+    private String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Webhook signature could not be computed", e);
+        }
+    }
+}
+
+
+
+
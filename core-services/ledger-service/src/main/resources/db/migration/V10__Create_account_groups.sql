@@ -0,0 +1,45 @@
+-- Account groups: a tree of account groups addressed by materialized path
+CREATE TABLE account_groups (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(255) NOT NULL,
+    group_code VARCHAR(255) NOT NULL UNIQUE,
+    group_name VARCHAR(255) NOT NULL,
+    parent_group_id UUID REFERENCES account_groups(id),
+    path VARCHAR(2000) NOT NULL,
+    depth INTEGER NOT NULL,
+    description VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0
+);
+
+CREATE INDEX idx_account_group_tenant ON account_groups(tenant_id);
+CREATE INDEX idx_account_group_parent ON account_groups(parent_group_id);
+CREATE INDEX idx_account_group_path ON account_groups(path varchar_pattern_ops);
+
+-- Aggregated balance of every account in a group's subtree, per currency
+CREATE TABLE account_group_balances (
+    id UUID PRIMARY KEY,
+    group_id UUID NOT NULL REFERENCES account_groups(id),
+    currency VARCHAR(3) NOT NULL,
+    slot INTEGER NOT NULL,
+    balance DECIMAL(19, 4) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0
+);
+
+CREATE UNIQUE INDEX idx_group_balance_key ON account_group_balances(group_id, currency, slot);
+
+ALTER TABLE accounts ADD COLUMN group_id UUID REFERENCES account_groups(id);
+CREATE INDEX idx_account_group ON accounts(group_id);
+
+-- Add comments
+COMMENT ON COLUMN account_groups.path IS 'Ids of the ancestor groups, root first, e.g. /<root>/<parent>/; / for a root group';
+COMMENT ON TABLE account_group_balances IS 'Subtree balances per group and currency, maintained on posting';
+COMMENT ON COLUMN account_group_balances.slot IS 'Rows for one group are spread over slots to avoid a hot row; readers sum all slots';
+COMMENT ON COLUMN accounts.group_id IS 'Account group this account (and its shards) belongs to';
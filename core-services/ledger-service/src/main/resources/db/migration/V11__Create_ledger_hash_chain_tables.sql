@@ -0,0 +1,37 @@
+-- Per-tenant hash chain over posted transactions, sealed in batches off the posting path
+CREATE TABLE ledger_chain_links (
+    tenant_id VARCHAR(255) NOT NULL,
+    seq BIGINT NOT NULL,
+    transaction_id UUID NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    posted_at TIMESTAMP NOT NULL,
+    transaction_hash CHAR(64) NOT NULL,
+    chain_hash CHAR(64) NOT NULL,
+    sealed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (tenant_id, seq)
+);
+
+CREATE UNIQUE INDEX idx_chain_link_transaction ON ledger_chain_links(transaction_id);
+CREATE INDEX idx_chain_link_posted ON ledger_chain_links(tenant_id, posted_at);
+CREATE INDEX idx_chain_link_posted_at ON ledger_chain_links(posted_at);
+
+-- One Merkle root per sealed batch of links
+CREATE TABLE ledger_chain_checkpoints (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(255) NOT NULL,
+    from_seq BIGINT NOT NULL,
+    to_seq BIGINT NOT NULL,
+    merkle_root CHAR(64) NOT NULL,
+    chain_hash CHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_chain_checkpoint_seq ON ledger_chain_checkpoints(tenant_id, to_seq);
+
+-- Add comments
+COMMENT ON TABLE ledger_chain_links IS 'Per-tenant hash chain: chain_hash = sha256(previous chain_hash || transaction_hash)';
+COMMENT ON COLUMN ledger_chain_links.transaction_hash IS 'SHA-256 of the transaction and its entries as posted';
+COMMENT ON TABLE ledger_chain_checkpoints IS 'Merkle root over the transaction hashes of links from_seq..to_seq';
+
+-- The sealer finds unsealed transactions by posting time
+CREATE INDEX idx_transaction_created_at ON transactions(created_at);
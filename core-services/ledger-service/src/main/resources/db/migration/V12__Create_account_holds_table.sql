@@ -0,0 +1,30 @@
+-- Create account_holds table: funds reserved on an account until captured, released or expired
+CREATE TABLE account_holds (
+    id UUID PRIMARY KEY,
+    account_id UUID NOT NULL REFERENCES accounts(id),
+    tenant_id VARCHAR(255) NOT NULL,
+    amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    reference_type VARCHAR(100),
+    reference_id VARCHAR(255),
+    description VARCHAR(255),
+    expires_at TIMESTAMP NOT NULL,
+    transaction_id UUID,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0
+);
+
+-- Create indexes
+CREATE INDEX idx_hold_account_status ON account_holds(account_id, status);
+CREATE INDEX idx_hold_status_expires ON account_holds(status, expires_at);
+CREATE UNIQUE INDEX idx_hold_reference ON account_holds(reference_type, reference_id);
+
+-- Add comments
+COMMENT ON TABLE account_holds IS 'Reservations against account balances (authorize/capture)';
+COMMENT ON COLUMN account_holds.status IS 'ACTIVE, CAPTURING, CAPTURED, RELEASED or EXPIRED';
+COMMENT ON COLUMN account_holds.transaction_id IS 'Ledger transaction that captured the hold';
@@ -0,0 +1,20 @@
+-- Create ledger_outbox table: posting events written in the posting's DB transaction
+CREATE TABLE ledger_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(100) NOT NULL,
+    tenant_id VARCHAR(255) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000)
+);
+
+-- Create indexes
+CREATE INDEX idx_outbox_unpublished ON ledger_outbox(id) WHERE published_at IS NULL;
+CREATE INDEX idx_outbox_published_at ON ledger_outbox(published_at) WHERE published_at IS NOT NULL;
+
+-- Add comments
+COMMENT ON TABLE ledger_outbox IS 'Transactional outbox of ledger events, relayed in batches to the configured sink';
+COMMENT ON COLUMN ledger_outbox.aggregate_id IS 'Id of the transaction the event is about';
@@ -0,0 +1,14 @@
+-- Create analytics_export_watermarks table: position of the last exported entry per export
+CREATE TABLE analytics_export_watermarks (
+    export_name VARCHAR(100) PRIMARY KEY,
+    last_created_at TIMESTAMP NOT NULL,
+    last_entry_id UUID NOT NULL,
+    rows_exported BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Add comments
+COMMENT ON TABLE analytics_export_watermarks IS 'Keyset position (created_at, id) of the last transaction entry written to the analytics export';
+
+-- Keyset scan for the export: (created_at, id) > watermark ORDER BY created_at, id
+CREATE INDEX idx_entry_created_id ON transaction_entries(created_at, id);
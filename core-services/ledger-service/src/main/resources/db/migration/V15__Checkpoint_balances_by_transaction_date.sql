@@ -0,0 +1,27 @@
+-- Id of the DB transaction that inserted each entry. Background jobs save the snapshot they read
+-- (pg_current_snapshot) and next time pick up exactly the entries committed since, with
+-- pg_visible_in_snapshot, however late they commit. Entries inserted before this migration have
+-- none and count as committed before every snapshot.
+ALTER TABLE transaction_entries ADD COLUMN created_xid xid8;
+ALTER TABLE transaction_entries ALTER COLUMN created_xid SET DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_entry_created_xid ON transaction_entries(created_xid);
+CREATE INDEX idx_entry_account_date ON transaction_entries(account_id, transaction_date);
+
+-- Snapshot up to which a background job has processed committed entries
+CREATE TABLE ledger_watermarks (
+    name VARCHAR(100) PRIMARY KEY,
+    snapshot pg_snapshot NOT NULL,
+    boundary TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE ledger_watermarks IS 'Snapshot whose visible entries a background job has processed, e.g. folded into balance checkpoints';
+COMMENT ON COLUMN ledger_watermarks.boundary IS 'Latest checkpoint boundary written';
+COMMENT ON COLUMN transaction_entries.created_xid IS 'Id of the DB transaction that inserted the entry';
+
+-- Checkpoints are now keyed on transaction date; the next run rebuilds them from the entries
+DELETE FROM account_balance_checkpoints;
+
+COMMENT ON COLUMN account_balance_checkpoints.checkpoint_at IS
+    'Balance of every entry dated before this instant and visible in the balance_checkpoints watermark snapshot';
@@ -0,0 +1,41 @@
+-- Transaction numbers are unique across all months again: like references, the unique key
+-- lives in an unpartitioned table filled by a trigger, since a partitioned table's unique
+-- index must contain the partition key
+CREATE TABLE transaction_numbers (
+    transaction_number VARCHAR(100) PRIMARY KEY,
+    transaction_id UUID NOT NULL,
+    transaction_date TIMESTAMP NOT NULL
+);
+
+INSERT INTO transaction_numbers
+SELECT transaction_number, id, transaction_date
+FROM transactions;
+
+CREATE FUNCTION register_transaction_number() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO transaction_numbers (transaction_number, transaction_id, transaction_date)
+    VALUES (NEW.transaction_number, NEW.id, NEW.transaction_date);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transaction_number AFTER INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION register_transaction_number();
+
+DROP INDEX idx_transaction_number;
+CREATE INDEX idx_transaction_number ON transactions(transaction_number);
+
+-- Archival prunes the unique keys of archived transactions
+CREATE INDEX idx_transaction_references_transaction ON transaction_references(transaction_id);
+CREATE INDEX idx_transaction_numbers_transaction ON transaction_numbers(transaction_id);
+
+-- Months taken offline by PartitionMaintenanceService
+CREATE TABLE ledger_archived_months (
+    month DATE PRIMARY KEY,
+    detached_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP
+);
+
+-- Add comments
+COMMENT ON TABLE transaction_numbers IS 'Globally unique transaction_number of online transactions';
+COMMENT ON TABLE ledger_archived_months IS 'Months whose partitions were detached behind closing balance checkpoints; archived_at is set once exported and dropped';
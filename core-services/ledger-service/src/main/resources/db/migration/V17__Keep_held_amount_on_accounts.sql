@@ -0,0 +1,12 @@
+-- Open holds are totalled on the account row, changed under the row lock by every instance
+ALTER TABLE accounts ADD COLUMN held_amount DECIMAL(19, 4) NOT NULL DEFAULT 0;
+
+UPDATE accounts a
+SET held_amount = h.total
+FROM (SELECT account_id, SUM(amount) AS total
+      FROM account_holds
+      WHERE status IN ('ACTIVE', 'CAPTURING')
+      GROUP BY account_id) h
+WHERE a.id = h.account_id;
+
+COMMENT ON COLUMN accounts.held_amount IS 'Sum of the account''s open holds; postings may not take the balance below it';
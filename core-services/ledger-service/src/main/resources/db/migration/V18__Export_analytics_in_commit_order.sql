@@ -0,0 +1,25 @@
+-- The analytics export follows commit order instead of created_at: each run fixes a target
+-- snapshot and exports the entries visible in it but not in the snapshot exported last, so an
+-- entry that commits late is picked up by the next run. Positions kept in the old format cannot
+-- be carried over; the export restarts, into an emptied export directory.
+DELETE FROM analytics_export_watermarks;
+
+ALTER TABLE analytics_export_watermarks
+    DROP COLUMN last_created_at,
+    DROP COLUMN last_entry_id,
+    ADD COLUMN exported_snapshot pg_snapshot,
+    ADD COLUMN target_snapshot pg_snapshot,
+    ADD COLUMN last_xid xid8,
+    ADD COLUMN last_entry_id UUID,
+    ADD COLUMN page_number INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON TABLE analytics_export_watermarks IS 'Progress of the analytics export through committed transaction entries';
+COMMENT ON COLUMN analytics_export_watermarks.exported_snapshot IS 'Every entry visible in this snapshot has been exported; NULL before the first completed run';
+COMMENT ON COLUMN analytics_export_watermarks.target_snapshot IS 'Snapshot the run in progress exports up to; NULL between runs';
+COMMENT ON COLUMN analytics_export_watermarks.last_xid IS 'Keyset position (created_xid, id) of the run in progress; NULL while exporting entries that predate created_xid';
+COMMENT ON COLUMN analytics_export_watermarks.page_number IS 'Pages written by the run in progress; with the target snapshot, names the next page''s files';
+
+-- Keyset scan for the export: (created_xid, id) > position ORDER BY created_xid, id
+DROP INDEX idx_entry_created_id;
+DROP INDEX idx_entry_created_xid;
+CREATE INDEX idx_entry_created_xid_id ON transaction_entries(created_xid, id);
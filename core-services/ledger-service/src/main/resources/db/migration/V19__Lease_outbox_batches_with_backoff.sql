@@ -0,0 +1,16 @@
+-- The relay leases a batch instead of holding row locks while it publishes, records each sink
+-- destination a row reached so a retry skips them, and backs failed rows off up to a dead letter
+ALTER TABLE ledger_outbox
+    ADD COLUMN delivered_to TEXT[] NOT NULL DEFAULT '{}',
+    ADD COLUMN claimed_until TIMESTAMP,
+    ADD COLUMN next_attempt_at TIMESTAMP,
+    ADD COLUMN dead_at TIMESTAMP;
+
+DROP INDEX idx_outbox_unpublished;
+CREATE INDEX idx_outbox_unpublished ON ledger_outbox(id) WHERE published_at IS NULL AND dead_at IS NULL;
+CREATE INDEX idx_outbox_dead ON ledger_outbox(dead_at) WHERE dead_at IS NOT NULL;
+
+COMMENT ON COLUMN ledger_outbox.delivered_to IS 'Sink destinations that have the event; published_at is set once all have it';
+COMMENT ON COLUMN ledger_outbox.claimed_until IS 'Lease of the relay publishing the event; another relay may take it after';
+COMMENT ON COLUMN ledger_outbox.next_attempt_at IS 'Earliest retry after a failed publish';
+COMMENT ON COLUMN ledger_outbox.dead_at IS 'Set when the event ran out of attempts; it is no longer relayed';
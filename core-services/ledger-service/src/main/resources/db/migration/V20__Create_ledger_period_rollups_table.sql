@@ -0,0 +1,36 @@
+-- Create ledger_period_rollups table: monthly and yearly totals next to the daily ones, so a
+-- trial balance adds up whole years, the months of its year and the days of its month
+CREATE TABLE ledger_period_rollups (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    account_type VARCHAR(50) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    period VARCHAR(10) NOT NULL,
+    period_start DATE NOT NULL,
+    slot INTEGER NOT NULL,
+    debit_total DECIMAL(19, 4) NOT NULL,
+    credit_total DECIMAL(19, 4) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT DEFAULT 0
+);
+
+-- Create indexes
+CREATE UNIQUE INDEX idx_period_rollup_key ON ledger_period_rollups(tenant_id, account_type, currency, period, period_start, slot);
+CREATE INDEX idx_period_rollup_tenant_period ON ledger_period_rollups(tenant_id, period, period_start);
+
+-- Backfill from the daily rollups
+INSERT INTO ledger_period_rollups (id, tenant_id, account_type, currency, period, period_start, slot,
+                                   debit_total, credit_total, entry_count, created_at, updated_at, version)
+SELECT gen_random_uuid(), tenant_id, account_type, currency, p.period,
+       CAST(date_trunc(lower(p.period), rollup_date) AS DATE), 0,
+       SUM(debit_total), SUM(credit_total), SUM(entry_count), NOW(), NOW(), 0
+FROM ledger_daily_rollups
+CROSS JOIN (VALUES ('MONTH'), ('YEAR')) AS p(period)
+GROUP BY tenant_id, account_type, currency, p.period, CAST(date_trunc(lower(p.period), rollup_date) AS DATE);
+
+-- Add comments
+COMMENT ON TABLE ledger_period_rollups IS 'Debit/credit totals per tenant, account type, currency and month or year, maintained on posting';
+COMMENT ON COLUMN ledger_period_rollups.period IS 'MONTH or YEAR; period_start is its first day';
+COMMENT ON COLUMN ledger_period_rollups.slot IS 'Rows for one key are spread over slots to avoid a hot row; readers sum all slots';
@@ -0,0 +1,3 @@
+-- The striped balance engine replays entries it committed but had not flushed (balance_after still NULL)
+-- when it starts; every other path writes balance_after with the entry, so this index stays near empty
+CREATE INDEX idx_entries_unflushed ON transaction_entries(account_id) WHERE balance_after IS NULL;
@@ -0,0 +1,32 @@
+-- Point-in-time balances add the entries of one account committed after the checkpoint watermark
+-- (BalanceCheckpointService NET_DEBITS_UNFOLDED_SQL); without this index that is a scan of the
+-- account's whole history
+CREATE INDEX idx_entry_account_created_xid ON transaction_entries(account_id, created_xid);
+
+-- V15 deleted the daily checkpoints and the next run only wrote one at its own boundary, so balances
+-- before it were summed from the first entry. Put back a checkpoint after every day an account moved,
+-- before its earliest checkpoint. Only entries visible in the watermark snapshot count, like every
+-- other checkpoint: later commits are folded in by the next run. Without a watermark there is
+-- nothing to rebuild yet; past the archive horizon the entries are gone and nothing is rebuilt.
+INSERT INTO account_balance_checkpoints (id, account_id, checkpoint_at, balance, created_at, updated_at, version)
+SELECT gen_random_uuid(), d.account_id, d.day + INTERVAL '1 day',
+       CASE WHEN a.account_type IN ('ASSET', 'EXPENSE') THEN 1 ELSE -1 END
+           * SUM(d.net_debits) OVER (PARTITION BY d.account_id ORDER BY d.day),
+       now(), now(), 0
+FROM (
+    SELECT e.account_id, date_trunc('day', e.transaction_date) AS day,
+           SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE -e.amount END) AS net_debits
+    FROM transaction_entries e
+    JOIN ledger_watermarks w ON w.name = 'balance_checkpoints'
+    WHERE e.created_xid IS NULL OR pg_visible_in_snapshot(e.created_xid, w.snapshot)
+    GROUP BY 1, 2
+) d
+JOIN accounts a ON a.id = d.account_id
+JOIN (
+    SELECT c.account_id, MIN(c.checkpoint_at) AS earliest
+    FROM account_balance_checkpoints c
+    GROUP BY c.account_id
+) c ON c.account_id = d.account_id
+WHERE d.day + INTERVAL '1 day' < c.earliest
+  AND NOT EXISTS (SELECT 1 FROM ledger_archived_months)
+ON CONFLICT (account_id, checkpoint_at) DO NOTHING;
@@ -0,0 +1,22 @@
+-- Create account_balance_checkpoints table
+CREATE TABLE account_balance_checkpoints (
+    id UUID PRIMARY KEY,
+    account_id UUID NOT NULL,
+    checkpoint_at TIMESTAMP NOT NULL,
+    balance DECIMAL(19, 4) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0,
+    FOREIGN KEY (account_id) REFERENCES accounts(id)
+);
+
+-- Create indexes
+CREATE UNIQUE INDEX idx_checkpoint_account_time ON account_balance_checkpoints(account_id, checkpoint_at);
+CREATE INDEX idx_entry_account_created ON transaction_entries(account_id, created_at);
+CREATE INDEX idx_entry_created ON transaction_entries(created_at);
+
+-- Add comments
+COMMENT ON TABLE account_balance_checkpoints IS 'Periodic per-account balance snapshots for point-in-time balance queries';
+COMMENT ON COLUMN account_balance_checkpoints.checkpoint_at IS 'Balance includes every entry created at or before this instant';
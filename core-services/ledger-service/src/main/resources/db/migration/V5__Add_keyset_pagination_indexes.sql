@@ -0,0 +1,7 @@
+-- Composite indexes backing keyset pagination on (transaction_date, id) and (created_at, id)
+CREATE INDEX idx_transaction_tenant_date_id ON transactions(tenant_id, transaction_date, id);
+CREATE INDEX idx_transaction_tenant_status_date_id ON transactions(tenant_id, status, transaction_date, id);
+
+-- Supersedes idx_entry_account_created
+CREATE INDEX idx_entry_account_created_id ON transaction_entries(account_id, created_at, id);
+DROP INDEX idx_entry_account_created;
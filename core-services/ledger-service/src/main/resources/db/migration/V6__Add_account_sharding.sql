@@ -0,0 +1,8 @@
+-- Sub-ledger sharding: a logical account spreads postings across shard_count physical accounts
+ALTER TABLE accounts ADD COLUMN shard_count INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE accounts ADD COLUMN parent_account_id UUID REFERENCES accounts(id);
+
+CREATE INDEX idx_account_parent ON accounts(parent_account_id);
+
+COMMENT ON COLUMN accounts.shard_count IS 'Number of physical accounts (this one included) postings are spread across';
+COMMENT ON COLUMN accounts.parent_account_id IS 'Logical account this shard belongs to';
@@ -0,0 +1,4 @@
+-- Idempotent posting: one transaction per (reference_type, reference_id).
+-- Rows missing either column are not covered (NULLs never conflict).
+ALTER TABLE transactions
+    ADD CONSTRAINT uk_transaction_reference UNIQUE (reference_type, reference_id);
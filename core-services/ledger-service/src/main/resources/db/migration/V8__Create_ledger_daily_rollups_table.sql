@@ -0,0 +1,38 @@
+-- Create ledger_daily_rollups table
+CREATE TABLE ledger_daily_rollups (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    account_type VARCHAR(50) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    rollup_date DATE NOT NULL,
+    slot INTEGER NOT NULL,
+    debit_total DECIMAL(19, 4) NOT NULL,
+    credit_total DECIMAL(19, 4) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0
+);
+
+-- Create indexes
+CREATE UNIQUE INDEX idx_rollup_key ON ledger_daily_rollups(tenant_id, account_type, currency, rollup_date, slot);
+CREATE INDEX idx_rollup_tenant_date ON ledger_daily_rollups(tenant_id, rollup_date);
+
+-- Backfill from already posted transactions
+INSERT INTO ledger_daily_rollups (id, tenant_id, account_type, currency, rollup_date, slot,
+                                  debit_total, credit_total, entry_count, created_at, updated_at, version)
+SELECT gen_random_uuid(), t.tenant_id, a.account_type, t.currency, CAST(t.transaction_date AS DATE), 0,
+       SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE 0 END),
+       SUM(CASE WHEN e.entry_type = 'CREDIT' THEN e.amount ELSE 0 END),
+       COUNT(*), NOW(), NOW(), 0
+FROM transaction_entries e
+JOIN transactions t ON t.id = e.transaction_id
+JOIN accounts a ON a.id = e.account_id
+WHERE t.status IN ('POSTED', 'REVERSED')
+GROUP BY t.tenant_id, a.account_type, t.currency, CAST(t.transaction_date AS DATE);
+
+-- Add comments
+COMMENT ON TABLE ledger_daily_rollups IS 'Debit/credit totals per tenant, account type, currency and day, maintained on posting';
+COMMENT ON COLUMN ledger_daily_rollups.slot IS 'Rows for one key are spread over slots to avoid a hot row; readers sum all slots';
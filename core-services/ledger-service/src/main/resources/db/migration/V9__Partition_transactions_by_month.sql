@@ -0,0 +1,134 @@
+-- Monthly range partitioning of transactions and transaction_entries on transaction_date.
+-- Primary keys must include the partition key, so they become (id, transaction_date);
+-- transaction_entries carries a copy of its transaction's date to be partitioned the same way.
+-- Future partitions are created ahead of time by PartitionMaintenanceService; rows outside
+-- every monthly partition land in the default partitions.
+
+ALTER TABLE transaction_entries RENAME TO transaction_entries_unpartitioned;
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+CREATE TABLE transactions (
+    id UUID NOT NULL,
+    transaction_number VARCHAR(100) NOT NULL,
+    tenant_id VARCHAR(100) NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    description TEXT NOT NULL,
+    reference_id VARCHAR(255),
+    reference_type VARCHAR(100),
+    total_amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    metadata JSONB,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0,
+    CONSTRAINT pk_transactions PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE transaction_entries (
+    id UUID NOT NULL,
+    transaction_id UUID NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    account_id UUID NOT NULL,
+    entry_type VARCHAR(10) NOT NULL,
+    amount DECIMAL(19, 4) NOT NULL,
+    description TEXT,
+    balance_after DECIMAL(19, 4),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT DEFAULT 0,
+    CONSTRAINT pk_transaction_entries PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+CREATE TABLE transaction_entries_default PARTITION OF transaction_entries DEFAULT;
+
+-- One partition per month from the oldest existing transaction up to three months ahead
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', CURRENT_DATE + INTERVAL '3 months');
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(transaction_date), CURRENT_DATE))
+    INTO month_start
+    FROM transactions_unpartitioned;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + INTERVAL '1 month');
+        EXECUTE format('CREATE TABLE %I PARTITION OF transaction_entries FOR VALUES FROM (%L) TO (%L)',
+                       'transaction_entries_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO transactions SELECT id, transaction_number, tenant_id, transaction_date, status, description,
+                                reference_id, reference_type, total_amount, currency, metadata,
+                                created_at, updated_at, created_by, updated_by, version
+FROM transactions_unpartitioned;
+
+INSERT INTO transaction_entries SELECT e.id, e.transaction_id, t.transaction_date, e.account_id, e.entry_type,
+                                       e.amount, e.description, e.balance_after,
+                                       e.created_at, e.updated_at, e.created_by, e.updated_by, e.version
+FROM transaction_entries_unpartitioned e
+JOIN transactions_unpartitioned t ON t.id = e.transaction_id;
+
+DROP TABLE transaction_entries_unpartitioned;
+DROP TABLE transactions_unpartitioned;
+
+ALTER TABLE transaction_entries ADD FOREIGN KEY (transaction_id, transaction_date)
+    REFERENCES transactions(id, transaction_date) ON DELETE CASCADE;
+ALTER TABLE transaction_entries ADD FOREIGN KEY (account_id) REFERENCES accounts(id);
+
+-- Unique constraints on a partitioned table must contain the partition key, so global
+-- uniqueness of a reference is kept in a separate, unpartitioned table filled by a trigger
+CREATE TABLE transaction_references (
+    reference_type VARCHAR(100) NOT NULL,
+    reference_id VARCHAR(255) NOT NULL,
+    transaction_id UUID NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    PRIMARY KEY (reference_type, reference_id)
+);
+
+INSERT INTO transaction_references
+SELECT reference_type, reference_id, id, transaction_date
+FROM transactions
+WHERE reference_type IS NOT NULL AND reference_id IS NOT NULL;
+
+CREATE FUNCTION register_transaction_reference() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.reference_type IS NOT NULL AND NEW.reference_id IS NOT NULL THEN
+        INSERT INTO transaction_references (reference_type, reference_id, transaction_id, transaction_date)
+        VALUES (NEW.reference_type, NEW.reference_id, NEW.id, NEW.transaction_date);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transaction_reference AFTER INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION register_transaction_reference();
+
+-- Recreate indexes on the partitioned tables (created on every partition)
+CREATE UNIQUE INDEX idx_transaction_number ON transactions(transaction_number, transaction_date);
+CREATE INDEX idx_transaction_tenant ON transactions(tenant_id);
+CREATE INDEX idx_transaction_ref ON transactions(reference_id);
+CREATE INDEX idx_transaction_date ON transactions(transaction_date);
+CREATE INDEX idx_transaction_status ON transactions(status);
+CREATE INDEX idx_transaction_tenant_date_id ON transactions(tenant_id, transaction_date, id);
+CREATE INDEX idx_transaction_tenant_status_date_id ON transactions(tenant_id, status, transaction_date, id);
+CREATE INDEX idx_entry_transaction ON transaction_entries(transaction_id);
+CREATE INDEX idx_entry_account ON transaction_entries(account_id);
+CREATE INDEX idx_entry_created ON transaction_entries(created_at);
+CREATE INDEX idx_entry_account_created_id ON transaction_entries(account_id, created_at, id);
+
+-- Add comments
+COMMENT ON TABLE transactions IS 'Financial transactions with double-entry bookkeeping, partitioned by month of transaction_date';
+COMMENT ON TABLE transaction_entries IS 'Individual debit/credit entries for transactions, partitioned like their transactions';
+COMMENT ON COLUMN transaction_entries.entry_type IS 'DEBIT or CREDIT';
+COMMENT ON COLUMN transaction_entries.balance_after IS 'Account balance snapshot after this entry';
+COMMENT ON COLUMN transaction_entries.transaction_date IS 'Copy of transactions.transaction_date, the partition key';
+COMMENT ON TABLE transaction_references IS 'Globally unique (reference_type, reference_id) of transactions, for idempotent posting';
@@ -0,0 +1,137 @@
+package com.superapp.core.ledger;
+
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.request.CreateAccountRequest;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.service.AccountService;
+import com.superapp.core.ledger.service.LedgerService;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for tests against PostgreSQL, see {@link PostgresTestDatabase}.
+ *
+ * Runs the application without Redis (no cache, no invalidation broadcasts) and skips the tests
+ * when no database is available. Subclasses that need other settings add them with
+ * {@code @TestPropertySource(properties = ...)}; subclasses with the same settings share one context.
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=none",
+        "ledger.account-cache.broadcast.enabled=false",
+        "superapp.id.node-id=0"
+})
+@LedgerDatabaseTest.EnabledIfDatabase
+public abstract class LedgerDatabaseTest {
+
+    @Autowired
+    protected LedgerService ledgerService;
+
+    @Autowired
+    protected AccountService accountService;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    /**
+     * A tenant id no other test uses
+     */
+    protected static String newTenant(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Account coded {@code <tenantId>-<suffix>}
+     */
+    protected AccountResponse createAccount(String tenantId, String suffix, AccountType type) {
+        return createAccount(tenantId, suffix, type, "USD");
+    }
+
+    protected AccountResponse createAccount(String tenantId, String suffix, AccountType type, String currency) {
+        return accountService.createAccount(CreateAccountRequest.builder()
+                .accountCode(tenantId + "-" + suffix)
+                .accountName("Test " + suffix)
+                .accountType(type)
+                .tenantId(tenantId)
+                .currency(currency)
+                .build());
+    }
+
+    /**
+     * Debit one account and credit the other with the amount, dated now
+     */
+    protected static CreateTransactionRequest transfer(String tenantId, AccountResponse debit, AccountResponse credit,
+                                                       String amount) {
+        return transfer(tenantId, debit.getAccountCode(), credit.getAccountCode(), amount, LocalDateTime.now());
+    }
+
+    protected static CreateTransactionRequest transfer(String tenantId, AccountResponse debit, AccountResponse credit,
+                                                       String amount, LocalDateTime transactionDate) {
+        return transfer(tenantId, debit.getAccountCode(), credit.getAccountCode(), amount, transactionDate);
+    }
+
+    protected static CreateTransactionRequest transfer(String tenantId, String debitCode, String creditCode,
+                                                       String value, LocalDateTime transactionDate) {
+        BigDecimal amount = new BigDecimal(value);
+        return CreateTransactionRequest.builder()
+                .tenantId(tenantId)
+                .transactionDate(transactionDate)
+                .description("Transfer")
+                .totalAmount(amount)
+                .entries(List.of(
+                        CreateTransactionRequest.TransactionEntryRequest.builder()
+                                .accountCode(debitCode).entryType("DEBIT").amount(amount).build(),
+                        CreateTransactionRequest.TransactionEntryRequest.builder()
+                                .accountCode(creditCode).entryType("CREDIT").amount(amount).build()))
+                .build();
+    }
+
+    /**
+     * Wait up to 30 seconds for a latch, failing the test if it does not open
+     */
+    protected static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for another thread");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@link EnabledIf} is not inherited; this carries it to subclasses
+     */
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Inherited
+    @EnabledIf("com.superapp.core.ledger.PostgresTestDatabase#isAvailable")
+    public @interface EnabledIfDatabase {
+    }
+}
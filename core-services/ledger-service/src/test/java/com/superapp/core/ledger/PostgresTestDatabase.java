@@ -0,0 +1,61 @@
+package com.superapp.core.ledger;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * PostgreSQL for database-backed tests.
+ *
+ * Tests run against LEDGER_TEST_DB_URL when it is set (credentials from LEDGER_TEST_DB_USERNAME /
+ * LEDGER_TEST_DB_PASSWORD, default postgres/postgres), otherwise against a Testcontainers PostgreSQL
+ * started once per JVM. They are skipped only when neither is available. Usage:
+ *
+ * <pre>
+ * &#64;EnabledIf("com.superapp.core.ledger.PostgresTestDatabase#isAvailable")
+ * ...
+ * &#64;DynamicPropertySource
+ * static void datasource(DynamicPropertyRegistry registry) {
+ *     PostgresTestDatabase.register(registry);
+ * }
+ * </pre>
+ */
+public final class PostgresTestDatabase {
+
+    private static final String URL = System.getenv("LEDGER_TEST_DB_URL");
+    private static final String IMAGE = "postgres:16-alpine";
+
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresTestDatabase() {
+    }
+
+    public static boolean isAvailable() {
+        return URL != null && !URL.isBlank() || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    public static synchronized void register(DynamicPropertyRegistry registry) {
+        if (URL != null && !URL.isBlank()) {
+            registry.add("spring.datasource.url", () -> URL);
+            registry.add("spring.datasource.username", () -> env("LEDGER_TEST_DB_USERNAME", "postgres"));
+            registry.add("spring.datasource.password", () -> env("LEDGER_TEST_DB_PASSWORD", "postgres"));
+            return;
+        }
+        if (container == null) {
+            container = new PostgreSQLContainer<>(IMAGE);
+            container.start();
+        }
+        registry.add("spring.datasource.url", container::getJdbcUrl);
+        registry.add("spring.datasource.username", container::getUsername);
+        registry.add("spring.datasource.password", container::getPassword);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
+
+
+
+
@@ -0,0 +1,52 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that locking an account already loaded in the transaction keeps its pending changes.
+ */
+class AccountRepositoryLockTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void lockInCanonicalOrder_shouldKeepUnflushedChangesOfLoadedAccount() {
+        String code = newTenant("lock");
+        UUID id = accountRepository.save(Account.builder()
+                .accountCode(code)
+                .accountName("Lock test")
+                .accountType(AccountType.ASSET)
+                .tenantId("lock-test")
+                .build()).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findById(id).orElseThrow();
+            account.setDescription("changed before lock");
+            account.debit(BigDecimal.TEN);
+
+            accountRepository.lockInCanonicalOrder(List.of(account));
+
+            assertThat(account.getDescription()).isEqualTo("changed before lock");
+            assertThat(account.getBalance()).isEqualByComparingTo(BigDecimal.TEN);
+        });
+
+        Account stored = accountRepository.findById(id).orElseThrow();
+        assertThat(stored.getDescription()).isEqualTo("changed before lock");
+        assertThat(stored.getBalance()).isEqualByComparingTo(BigDecimal.TEN);
+    }
+}
+
+
+
+
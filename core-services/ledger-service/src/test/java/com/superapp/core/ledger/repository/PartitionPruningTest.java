@@ -0,0 +1,105 @@
+package com.superapp.core.ledger.repository;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.entity.TransactionEntry;
+import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that date-bounded repository queries only touch the partitions of the months they ask for.
+ *
+ * Scans are read from pg_stat_xact_user_tables before and after the query, inside one DB transaction,
+ * so the SQL Hibernate actually generates is what gets checked.
+ */
+class PartitionPruningTest extends LedgerDatabaseTest {
+
+    private static final String SCANS_SQL =
+            "SELECT relname, seq_scan + COALESCE(idx_scan, 0) AS scans FROM pg_stat_xact_user_tables " +
+            "WHERE relname LIKE 'transaction%' AND relname <> 'transaction_references'";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private final YearMonth month = YearMonth.now();
+    private final LocalDateTime start = month.atDay(1).atStartOfDay();
+    private final LocalDateTime end = start.plusDays(10);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionEntryRepository entryRepository;
+
+    @Test
+    void findByTenantIdAndDateRange_shouldOnlyScanThatMonth() {
+        Set<String> scanned = partitionsScannedBy(() ->
+                transactionRepository.findByTenantIdAndDateRange("tenant", start, end));
+
+        assertThat(scanned).containsOnly("transactions_" + month.format(SUFFIX));
+    }
+
+    @Test
+    void findPageByTenantIdAndDateRange_shouldOnlyScanThatMonth() {
+        Set<String> scanned = partitionsScannedBy(() ->
+                transactionRepository.findPageByTenantIdAndDateRange("tenant", start, end, end, MAX_ID, Limit.of(50)));
+
+        assertThat(scanned).containsOnly("transactions_" + month.format(SUFFIX));
+    }
+
+    @Test
+    void findPageByTenantIdAndStatus_shouldSkipPartitionsAfterCursor() {
+        Set<String> scanned = partitionsScannedBy(() ->
+                transactionRepository.findPageByTenantIdAndStatus("tenant", TransactionStatus.POSTED, end, MAX_ID, Limit.of(50)));
+
+        assertThat(scanned).doesNotContain("transactions_" + month.plusMonths(1).format(SUFFIX));
+    }
+
+    @Test
+    void streamByTenantIdAndDateRange_shouldOnlyScanThatMonth() {
+        Set<String> scanned = partitionsScannedBy(() -> {
+            try (Stream<TransactionEntry> entries = entryRepository.streamByTenantIdAndDateRange("tenant", start, end)) {
+                entries.forEach(entry -> { });
+            }
+        });
+
+        // With no matching transactions the entries side of the join is never probed, so it may not show up
+        assertThat(scanned).contains("transactions_" + month.format(SUFFIX))
+                .isSubsetOf("transactions_" + month.format(SUFFIX), "transaction_entries_" + month.format(SUFFIX));
+    }
+
+    private Set<String> partitionsScannedBy(Runnable query) {
+        return transactionTemplate.execute(status -> {
+            Map<String, Long> before = scans();
+            query.run();
+            return scans().entrySet().stream()
+                    .filter(scan -> scan.getValue() > before.getOrDefault(scan.getKey(), 0L))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+        });
+    }
+
+    private Map<String, Long> scans() {
+        Map<String, Long> scans = new HashMap<>();
+        jdbcTemplate.query(SCANS_SQL, row -> {
+            scans.put(row.getString("relname"), row.getLong("scans"));
+        });
+        return scans;
+    }
+}
+
+
+
+
@@ -0,0 +1,50 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deactivation by another instance: the near cache still says active, the locked posting path must refuse,
+ * and a broadcast invalidation must drop the cached entry.
+ */
+class AccountDeactivationTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private AccountNearCache accountNearCache;
+
+    @Test
+    void postingToAccountDeactivatedElsewhere_shouldBeRejected() {
+        String tenantId = newTenant("deactivate");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+
+        // Another instance deactivates the account; this instance's near cache is not told
+        jdbcTemplate.update("UPDATE accounts SET is_active = false WHERE id = ?", sales.getId());
+        assertThat(accountNearCache.peek(sales.getId())).hasValueSatisfying(ref -> assertThat(ref.active()).isTrue());
+
+        assertThatThrownBy(() -> ledgerService.createTransaction(transfer(tenantId, cash, sales, "10")))
+                .isInstanceOf(InvalidTransactionException.class)
+                .hasMessageContaining("inactive");
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void broadcastInvalidation_shouldDropCachedAccount() {
+        String tenantId = newTenant("deactivate");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        accountNearCache.findByCode(cash.getAccountCode());
+        assertThat(accountNearCache.peek(cash.getId())).isPresent();
+
+        accountNearCache.onInvalidation(cash.getId().toString());
+
+        assertThat(accountNearCache.peek(cash.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.request.CreateAccountGroupRequest;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountGroupResponse;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Group balances against PostgreSQL: postings and moves must both count in the account's currency,
+ * so moving an account out of a group leaves nothing behind.
+ */
+class AccountGroupBalanceTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private AccountGroupService accountGroupService;
+
+    @Test
+    void postingInOtherCurrency_shouldCountInAccountCurrencyAndMoveOutCleanly() {
+        String tenantId = newTenant("groups");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET, "EUR");
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE, "EUR");
+        AccountGroupResponse group = accountGroupService.createGroup(CreateAccountGroupRequest.builder()
+                .groupCode(tenantId + "-GROUP")
+                .groupName("Group")
+                .tenantId(tenantId)
+                .build());
+        accountGroupService.assignAccount(group.getId(), cash.getId());
+
+        // Posted in USD to EUR accounts
+        CreateTransactionRequest request = transfer(tenantId, cash, sales, "10");
+        request.setCurrency("USD");
+        ledgerService.createTransaction(request);
+
+        assertThat(accountGroupService.getGroup(group.getId()).getBalances())
+                .containsOnlyKeys("EUR")
+                .hasEntrySatisfying("EUR", balance -> assertThat(balance).isEqualByComparingTo("10"));
+
+        accountGroupService.removeAccount(group.getId(), cash.getId());
+
+        assertThat(accountGroupService.getGroup(group.getId()).getBalances())
+                .allSatisfy((currency, balance) -> assertThat(balance).isEqualByComparingTo("0"));
+    }
+}
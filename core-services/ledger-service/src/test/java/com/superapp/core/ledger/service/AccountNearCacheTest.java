@@ -0,0 +1,78 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountNearCacheTest {
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final AccountNearCache cache = cache(accountRepository);
+
+    @Test
+    void findByCode_shouldCacheLoadedAccount() {
+        Account account = account();
+        when(accountRepository.findByAccountCode(account.getAccountCode())).thenReturn(Optional.of(account));
+
+        assertThat(cache.findByCode(account.getAccountCode())).isPresent();
+
+        assertThat(cache.peek(account.getId())).isPresent();
+    }
+
+    @Test
+    void loadOverlappingInvalidation_shouldNotBeCached() {
+        Account account = account();
+        // The row is read, then another instance deactivates the account and broadcasts before the load is cached
+        when(accountRepository.findByAccountCode(account.getAccountCode())).thenAnswer(invocation -> {
+            cache.onInvalidation(account.getId().toString());
+            return Optional.of(account);
+        });
+
+        assertThat(cache.findByCode(account.getAccountCode())).hasValueSatisfying(ref -> assertThat(ref.active()).isTrue());
+
+        assertThat(cache.peek(account.getId())).isEmpty();
+    }
+
+    @Test
+    void put_withGenerationReadBeforeInvalidation_shouldNotReinsert() {
+        Account account = account();
+        long loadedAfter = cache.generation();
+        cache.onInvalidation(account.getId().toString());
+
+        cache.put(account, loadedAfter);
+
+        assertThat(cache.peek(account.getId())).isEmpty();
+        cache.put(account, cache.generation());
+        assertThat(cache.peek(account.getId())).isPresent();
+    }
+
+    private static Account account() {
+        Account account = Account.builder()
+                .accountCode("CACHE-" + UUID.randomUUID())
+                .accountName("Cached")
+                .accountType(AccountType.ASSET)
+                .tenantId("cache")
+                .currency("USD")
+                .build();
+        account.setId(UUID.randomUUID());
+        account.setIsActive(true);
+        return account;
+    }
+
+    private static AccountNearCache cache(AccountRepository accountRepository) {
+        AccountNearCache cache = new AccountNearCache(accountRepository, mock(StringRedisTemplate.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 1000);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        return cache;
+    }
+}
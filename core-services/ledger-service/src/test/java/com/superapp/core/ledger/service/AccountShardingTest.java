@@ -0,0 +1,112 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidAccountException;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.CursorPage;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A sharded account's entry pages span every shard in key order, it is read as one account
+ * with the balance of all its shards, and its sharding cannot be undone.
+ */
+class AccountShardingTest extends LedgerDatabaseTest {
+
+    private static final int TRANSFERS = 12;
+
+    @Test
+    void entriesPage_shouldSpanAllShards() {
+        String tenantId = newTenant("shards");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse fees = createAccount(tenantId, "FEES", AccountType.REVENUE);
+        accountService.shardAccount(fees.getId(), 4);
+        for (int i = 0; i < TRANSFERS; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, fees, "10"));
+        }
+
+        List<TransactionResponse.TransactionEntryResponse> entries = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TransactionResponse.TransactionEntryResponse> page = accountService.getAccountEntriesPage(fees.getId(), cursor, 5);
+            entries.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(entries).hasSize(TRANSFERS);
+        assertThat(entries).extracting(TransactionResponse.TransactionEntryResponse::getId).doesNotHaveDuplicates();
+        assertThat(entries).extracting(TransactionResponse.TransactionEntryResponse::getAccountCode)
+                .allMatch(code -> code.startsWith(fees.getAccountCode() + "-SHARD-") || code.equals(fees.getAccountCode()));
+        assertThatThrownBy(() -> accountService.shardAccount(fees.getId(), 2))
+                .isInstanceOf(InvalidAccountException.class);
+    }
+
+    @Test
+    void entriesPage_shouldMergeShardsInKeyOrderAcrossTies() {
+        String tenantId = newTenant("shards");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse fees = createAccount(tenantId, "FEES", AccountType.REVENUE);
+        accountService.shardAccount(fees.getId(), 4);
+        for (int i = 0; i < TRANSFERS; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, fees, "10"));
+        }
+        // Every shard's entries share one timestamp, so the order across shards and pages rests on the ids
+        LocalDateTime tied = LocalDateTime.now().withNano(0);
+        jdbcTemplate.update("UPDATE transaction_entries SET created_at = ? WHERE account_id IN " +
+                "(SELECT id FROM accounts WHERE id = ? OR parent_account_id = ?)", tied, fees.getId(), fees.getId());
+        List<UUID> expected = jdbcTemplate.queryForList("SELECT e.id FROM transaction_entries e " +
+                "JOIN accounts a ON a.id = e.account_id WHERE a.id = ? OR a.parent_account_id = ? " +
+                "ORDER BY e.created_at DESC, e.id DESC", UUID.class, fees.getId(), fees.getId());
+
+        List<UUID> entries = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        CursorPage<TransactionResponse.TransactionEntryResponse> page;
+        do {
+            page = accountService.getAccountEntriesPage(fees.getId(), cursor, 5);
+            page.getItems().forEach(entry -> entries.add(entry.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(expected).hasSize(TRANSFERS);
+        assertThat(entries).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(3);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getItems()).hasSize(TRANSFERS - 10);
+    }
+
+    @Test
+    void accountReads_shouldShowShardedAccountOnceWithBalanceOfAllShards() {
+        String tenantId = newTenant("shards");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse fees = createAccount(tenantId, "FEES", AccountType.REVENUE);
+        accountService.shardAccount(fees.getId(), 4);
+        for (int i = 0; i < TRANSFERS; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, fees, "10"));
+        }
+
+        assertThat(accountService.getAccountsByTenant(tenantId))
+                .extracting(AccountResponse::getAccountCode)
+                .containsExactlyInAnyOrder(cash.getAccountCode(), fees.getAccountCode());
+        assertThat(accountService.getAccountsByTenant(tenantId))
+                .filteredOn(account -> account.getId().equals(fees.getId()))
+                .singleElement()
+                .satisfies(account -> assertThat(account.getBalance()).isEqualByComparingTo("120"));
+        assertThat(accountService.getAccountById(fees.getId()).getBalance()).isEqualByComparingTo("120");
+        assertThat(accountService.getAccountByCode(fees.getAccountCode()).getBalance()).isEqualByComparingTo("120");
+    }
+}
+
+
+
+
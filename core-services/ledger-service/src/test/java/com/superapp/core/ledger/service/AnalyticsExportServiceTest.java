@@ -0,0 +1,154 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Analytics export against PostgreSQL: entries are picked up in commit order, however late they
+ * commit, files land in hive-style partitions, and a resumed run rewrites its page without duplicates.
+ */
+@TestPropertySource(properties = {
+        "ledger.analytics-export.page-size=4",
+        "ledger.analytics-export.initial-delay-ms=3600000"
+})
+class AnalyticsExportServiceTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private AnalyticsExportService exportService;
+
+    @TempDir
+    private Path exportDir;
+
+    private String tenantId;
+
+    @BeforeEach
+    void startAfterExistingEntries() {
+        ReflectionTestUtils.setField(exportService, "enabled", true);
+        ReflectionTestUtils.setField(exportService, "exportDir", exportDir.toString());
+        // Entries other tests left behind count as exported
+        jdbcTemplate.update("DELETE FROM analytics_export_watermarks");
+        jdbcTemplate.update("INSERT INTO analytics_export_watermarks (export_name, exported_snapshot, updated_at) " +
+                "VALUES ('transaction_entries', pg_current_snapshot(), NOW())");
+        tenantId = newTenant("export");
+    }
+
+    @Test
+    void export_shouldPickUpEntriesThatCommitLate() throws Exception {
+        AccountResponse lateCash = createAccount(tenantId, "LATE-CASH", AccountType.ASSET);
+        AccountResponse lateSales = createAccount(tenantId, "LATE-SALES", AccountType.REVENUE);
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+
+        // Inserted first, committed after the first export run
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            ledgerService.createTransactionInCurrentTransaction(transfer(tenantId, lateCash, lateSales, "10"));
+            inserted.countDown();
+            await(commit);
+        }));
+        await(inserted);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+
+        exportService.export();
+        assertThat(exportedAccounts()).containsExactlyInAnyOrder(cash.getAccountCode(), sales.getAccountCode());
+
+        commit.countDown();
+        late.get();
+        exportService.export();
+        assertThat(exportedAccounts()).containsExactlyInAnyOrder(cash.getAccountCode(), sales.getAccountCode(),
+                lateCash.getAccountCode(), lateSales.getAccountCode());
+
+        String layout = "tenant_id=" + tenantId + "/transaction_day=" + LocalDate.now() + "/part-\\d+-\\d+-\\d+\\.parquet";
+        assertThat(parquetFiles()).isNotEmpty().allSatisfy(file -> assertThat(file).matches(layout));
+    }
+
+    @Test
+    void resumedRun_shouldRewriteItsPageWithoutDuplicates() throws Exception {
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        String startedFrom = jdbcTemplate.queryForObject(
+                "SELECT exported_snapshot::text FROM analytics_export_watermarks", String.class);
+        for (int i = 0; i < 3; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+        }
+
+        exportService.export();
+        assertThat(exportedAccounts()).hasSize(6);
+
+        // The run stopped after moving its first page into place, some of it into another partition
+        String target = jdbcTemplate.queryForObject(
+                "SELECT exported_snapshot::text FROM analytics_export_watermarks", String.class);
+        Path firstPage = parquetFiles().stream()
+                .filter(file -> file.contains("/part-" + target.split(":")[1] + "-0-"))
+                .map(exportDir::resolve)
+                .findFirst().orElseThrow();
+        Path elsewhere = exportDir.resolve("tenant_id=" + tenantId + "/transaction_day=2000-01-01");
+        Files.createDirectories(elsewhere);
+        Files.copy(firstPage, elsewhere.resolve(firstPage.getFileName()));
+        jdbcTemplate.update("UPDATE analytics_export_watermarks SET exported_snapshot = CAST(? AS pg_snapshot), " +
+                "target_snapshot = exported_snapshot, last_xid = '0', last_entry_id = ?, page_number = 0",
+                startedFrom, new UUID(0L, 0L));
+
+        exportService.export();
+
+        assertThat(exportedAccounts()).hasSize(6);
+        assertThat(jdbcTemplate.queryForObject("SELECT target_snapshot IS NULL FROM analytics_export_watermarks",
+                Boolean.class)).isTrue();
+    }
+
+    /**
+     * Account code of every exported row of this test's tenant
+     */
+    private List<String> exportedAccounts() throws Exception {
+        List<String> accounts = new ArrayList<>();
+        if (parquetFiles().isEmpty()) {
+            return accounts;
+        }
+        String files = exportDir.resolve("**").resolve("*.parquet").toString().replace("'", "''");
+        try (Connection duckdb = DriverManager.getConnection("jdbc:duckdb:");
+             Statement statement = duckdb.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT account_code FROM read_parquet('" + files
+                     + "', hive_partitioning = true) WHERE tenant_id = '" + tenantId + "'")) {
+            while (rows.next()) {
+                accounts.add(rows.getString(1));
+            }
+        }
+        return accounts;
+    }
+
+    private List<String> parquetFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(exportDir)) {
+            return files.filter(file -> file.toString().endsWith(".parquet"))
+                    .map(file -> exportDir.relativize(file).toString())
+                    .toList();
+        }
+    }
+}
+
+
+
+
@@ -0,0 +1,94 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Balance checkpoints against PostgreSQL: balances are by transaction date, and a back-dated posting
+ * that commits after a checkpoint run must still reach the checkpoints, however late it commits.
+ */
+@TestPropertySource(properties = {
+        "ledger.checkpoints.initial-delay-ms=3600000"
+})
+class BalanceCheckpointServiceTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Test
+    void balanceAsOf_shouldFollowTransactionDate() {
+        String tenantId = newTenant("checkpoints");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10", today.minusDays(3)));
+        rewindBoundary(today.minusDays(7));
+        checkpointService.createCheckpoints();
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "5", today.minusDays(5)));
+
+        assertThat(checkpointAtToday(cash)).isEqualByComparingTo("10");
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), today.minusDays(6))).isEqualByComparingTo("0");
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), today.minusDays(4))).isEqualByComparingTo("5");
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), LocalDateTime.now())).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void lateCommit_shouldBeFoldedIntoCheckpoints() throws Exception {
+        String tenantId = newTenant("checkpoints");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10", today.minusDays(1)));
+
+        // A back-dated posting stays uncommitted while a checkpoint run reads its snapshot, then commits
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch checkpointed = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            ledgerService.createTransaction(transfer(tenantId, cash, sales, "7", today.minusDays(2)));
+            posted.countDown();
+            await(checkpointed);
+        }));
+        assertThat(posted.await(30, TimeUnit.SECONDS)).isTrue();
+        rewindBoundary(today.minusDays(7));
+        checkpointService.createCheckpoints();
+        checkpointed.countDown();
+        late.get(30, TimeUnit.SECONDS);
+
+        assertThat(checkpointAtToday(cash)).isEqualByComparingTo("10");
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), LocalDateTime.now())).isEqualByComparingTo("17");
+
+        checkpointService.createCheckpoints();
+
+        assertThat(checkpointAtToday(cash)).isEqualByComparingTo("17");
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), LocalDateTime.now())).isEqualByComparingTo("17");
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), today.minusDays(1).minusSeconds(1)))
+                .isEqualByComparingTo("7");
+    }
+
+    /**
+     * Make the next run write today's checkpoints again, as if the previous boundary was an earlier day
+     */
+    private void rewindBoundary(LocalDateTime boundary) {
+        jdbcTemplate.update("UPDATE ledger_watermarks SET boundary = ? WHERE name = ?", boundary,
+                BalanceCheckpointService.WATERMARK);
+    }
+
+    private BigDecimal checkpointAtToday(AccountResponse account) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account_balance_checkpoints " +
+                "WHERE account_id = ? AND checkpoint_at = ?", BigDecimal.class, account.getId(), LocalDate.now().atStartOfDay());
+    }
+}
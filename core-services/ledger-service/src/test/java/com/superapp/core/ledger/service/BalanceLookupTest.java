@@ -0,0 +1,76 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.request.BalanceLookupRequest;
+import com.superapp.core.ledger.dto.request.CreateAccountRequest;
+import com.superapp.core.ledger.dto.response.AccountBalanceResponse;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.BalanceLookupResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batch balance lookups against PostgreSQL: accounts given by code and by user come back once each,
+ * in request order, with sharded accounts summed and unknown codes reported.
+ */
+class BalanceLookupTest extends LedgerDatabaseTest {
+
+    @Test
+    void getBalances_shouldResolveCodesAndUsersIncludingShardedAccounts() {
+        String tenantId = newTenant("balances");
+        UUID userId = UUID.randomUUID();
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        AccountResponse wallet = accountService.createAccount(CreateAccountRequest.builder()
+                .accountCode(tenantId + "-WALLET")
+                .accountName("Test WALLET")
+                .accountType(AccountType.LIABILITY)
+                .tenantId(tenantId)
+                .userId(userId)
+                .currency("USD")
+                .build());
+        accountService.shardAccount(sales.getId(), 3);
+        for (int i = 0; i < 6; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+        }
+        ledgerService.createTransaction(transfer(tenantId, cash, wallet, "25"));
+        String missing = tenantId + "-MISSING";
+
+        BalanceLookupResponse response = accountService.getBalances(BalanceLookupRequest.builder()
+                .accountCodes(List.of(sales.getAccountCode(), missing, cash.getAccountCode(), sales.getAccountCode()))
+                .userIds(List.of(userId, UUID.randomUUID()))
+                .build());
+
+        assertThat(response.getBalances()).extracting(AccountBalanceResponse::getAccountId)
+                .containsExactly(sales.getId(), cash.getId(), wallet.getId());
+        assertThat(response.getBalances()).extracting(AccountBalanceResponse::getBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("60"), new BigDecimal("85"), new BigDecimal("25"));
+        assertThat(response.getBalances().get(0).getAccountCode()).isEqualTo(sales.getAccountCode());
+        assertThat(response.getUnknownAccountCodes()).containsExactly(missing);
+    }
+
+    @Test
+    void getBalances_fromWarmCache_shouldReflectLaterPostings() {
+        String tenantId = newTenant("balances");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+        BalanceLookupRequest request = BalanceLookupRequest.builder()
+                .accountCodes(List.of(cash.getAccountCode(), sales.getAccountCode()))
+                .build();
+        accountService.getBalances(request);
+
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "5"));
+
+        assertThat(accountService.getBalances(request).getBalances()).extracting(AccountBalanceResponse::getBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("15"), new BigDecimal("15"));
+    }
+}
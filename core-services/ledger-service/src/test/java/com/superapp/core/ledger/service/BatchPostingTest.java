@@ -0,0 +1,109 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import com.superapp.core.ledger.dto.request.CreateHoldRequest;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.BatchTransactionResponse;
+import com.superapp.core.ledger.dto.response.HoldResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk posting against PostgreSQL, in chunks of two: each item gets its own result, bad items
+ * do not stop the others, and a chunk that cannot commit is posted again item by item.
+ */
+class BatchPostingTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private HoldService holdService;
+
+    private Object ledgerTarget;
+    private Object chunkSize;
+
+    @BeforeEach
+    void smallChunks() {
+        ledgerTarget = AopTestUtils.getUltimateTargetObject(ledgerService);
+        chunkSize = ReflectionTestUtils.getField(ledgerTarget, "batchChunkSize");
+        ReflectionTestUtils.setField(ledgerTarget, "batchChunkSize", 2);
+    }
+
+    @AfterEach
+    void restoreChunks() {
+        ReflectionTestUtils.setField(ledgerTarget, "batchChunkSize", chunkSize);
+    }
+
+    @Test
+    void batch_shouldPostValidItemsAndReportEachInvalidOne() {
+        String tenantId = newTenant("batch");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        AccountResponse closed = createAccount(tenantId, "CLOSED", AccountType.REVENUE);
+        accountService.deactivateAccount(closed.getId());
+        CreateTransactionRequest unbalanced = transfer(tenantId, cash, sales, "3");
+        unbalanced.getEntries().get(1).setAmount(new BigDecimal("2"));
+
+        BatchTransactionResponse response = ledgerService.createTransactions(List.of(
+                transfer(tenantId, cash, sales, "10"),
+                unbalanced,
+                transfer(tenantId, cash.getAccountCode(), tenantId + "-MISSING", "4", LocalDateTime.now()),
+                transfer(tenantId, cash, sales, "5"),
+                transfer(tenantId, cash, closed, "7"),
+                transfer(tenantId, cash, sales, "1")));
+
+        assertThat(response.getTotal()).isEqualTo(6);
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(BatchTransactionResponse.ItemResult::getIndex)
+                .containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(response.getResults()).extracting(BatchTransactionResponse.ItemResult::getStatus)
+                .containsExactly(TransactionStatus.POSTED, TransactionStatus.FAILED, TransactionStatus.FAILED,
+                        TransactionStatus.POSTED, TransactionStatus.FAILED, TransactionStatus.POSTED);
+        assertThat(response.getResults().get(1).getError()).contains("not balanced");
+        assertThat(response.getResults().get(2).getError()).contains(tenantId + "-MISSING");
+        assertThat(response.getResults().get(4).getError()).contains("inactive");
+        assertThat(response.getResults().get(0).getTransactionNumber()).isNotBlank();
+
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("16");
+        assertThat(accountService.getAccountBalance(sales.getAccountCode())).isEqualByComparingTo("16");
+        assertThat(ledgerService.getTransactionsByTenant(tenantId)).hasSize(3);
+    }
+
+    @Test
+    void chunkFailingToCommit_shouldBePostedItemByItem() {
+        String tenantId = newTenant("batch");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "100"));
+        HoldResponse hold = holdService.createHold(CreateHoldRequest.builder()
+                .tenantId(tenantId)
+                .accountCode(cash.getAccountCode())
+                .amount(new BigDecimal("90"))
+                .build());
+
+        // The second item would spend held funds, which fails its whole chunk at posting time
+        BatchTransactionResponse response = ledgerService.createTransactions(List.of(
+                transfer(tenantId, sales, cash, "1"),
+                transfer(tenantId, sales, cash, "50"),
+                transfer(tenantId, sales, cash, "2")));
+
+        assertThat(response.getResults()).extracting(BatchTransactionResponse.ItemResult::getStatus)
+                .containsExactly(TransactionStatus.POSTED, TransactionStatus.FAILED, TransactionStatus.POSTED);
+        assertThat(response.getResults().get(1).getError()).isNotBlank();
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("97");
+        assertThat(ledgerService.getTransactionsByTenant(tenantId)).hasSize(3);
+
+        holdService.releaseHold(hold.getId());
+    }
+}
@@ -0,0 +1,142 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.entity.Account;
+import com.superapp.core.ledger.repository.AccountRepository;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupCommitExecutorTest {
+
+    private static final int SUBMITTERS = 8;
+    private static final int SUBMISSIONS = 200;
+
+    @Test
+    void execute_shouldReturnEachResult() {
+        GroupCommitExecutor executor = executor();
+        try {
+            assertThat(executor.execute(() -> 42)).isEqualTo(42);
+        } finally {
+            stop(executor);
+        }
+    }
+
+    @RepeatedTest(20)
+    void stop_shouldNotStrandWorkSubmittedConcurrently() throws Exception {
+        GroupCommitExecutor executor = executor();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(SUBMITTERS);
+
+        ExecutorService submitters = Executors.newFixedThreadPool(SUBMITTERS);
+        List<Future<Integer>> completed = new ArrayList<>();
+        for (int t = 0; t < SUBMITTERS; t++) {
+            completed.add(submitters.submit(() -> {
+                started.countDown();
+                int done = 0;
+                for (int i = 0; i < SUBMISSIONS; i++) {
+                    executor.execute(runs::incrementAndGet);
+                    done++;
+                }
+                return done;
+            }));
+        }
+        started.await();
+        stop(executor);
+
+        int total = 0;
+        for (Future<Integer> future : completed) {
+            total += future.get(10, TimeUnit.SECONDS);
+        }
+        submitters.shutdown();
+
+        assertThat(total).isEqualTo(SUBMITTERS * SUBMISSIONS);
+        assertThat(runs.get()).isEqualTo(SUBMITTERS * SUBMISSIONS);
+    }
+
+    @Test
+    void group_shouldLockAllMembersAccountsBeforeRunningAny() throws Exception {
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            Collection<Account> accounts = invocation.getArgument(0);
+            events.add("lock " + accounts.stream().map(Account::getAccountCode).sorted().toList());
+            return null;
+        }).when(accountRepository).lockInCanonicalOrder(any());
+        // A window long enough for both submissions to form one group of two
+        GroupCommitExecutor executor = executor(accountRepository, 1000L, 2);
+
+        ExecutorService submitters = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (String code : List.of("B", "A")) {
+                results.add(submitters.submit(() -> executor.execute(
+                        () -> Account.builder().accountCode(code).build(),
+                        account -> {
+                            events.add("prepare " + code);
+                            return List.of(account);
+                        },
+                        account -> {
+                            events.add("run " + code);
+                            return account.getAccountCode();
+                        })));
+            }
+            for (Future<String> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            submitters.shutdown();
+            stop(executor);
+        }
+
+        assertThat(events).hasSize(5);
+        assertThat(events.subList(0, 2)).containsExactlyInAnyOrder("prepare A", "prepare B");
+        assertThat(events.get(2)).isEqualTo("lock [A, B]");
+        assertThat(events.subList(3, 5)).containsExactlyInAnyOrder("run A", "run B");
+    }
+
+    private static GroupCommitExecutor executor() {
+        return executor(mock(AccountRepository.class), 1L, 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GroupCommitExecutor executor(AccountRepository accountRepository, long windowMs, int maxBatch) {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+
+        GroupCommitExecutor executor = new GroupCommitExecutor(transactionTemplate, accountRepository);
+        ReflectionTestUtils.setField(executor, "enabled", true);
+        ReflectionTestUtils.setField(executor, "windowMs", windowMs);
+        ReflectionTestUtils.setField(executor, "maxBatch", maxBatch);
+        ReflectionTestUtils.setField(executor, "waitTimeoutMs", 5000L);
+        ReflectionTestUtils.invokeMethod(executor, "start");
+        return executor;
+    }
+
+    private static void stop(GroupCommitExecutor executor) {
+        ReflectionTestUtils.invokeMethod(executor, "stop");
+    }
+}
+
+
+
+
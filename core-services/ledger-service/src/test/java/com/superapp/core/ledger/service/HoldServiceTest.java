@@ -0,0 +1,160 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.HoldStatus;
+import com.superapp.core.ledger.domain.exception.InsufficientBalanceException;
+import com.superapp.core.ledger.dto.request.CaptureHoldRequest;
+import com.superapp.core.ledger.dto.request.CreateHoldRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.HoldResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Holds against the locked posting path: regular postings may not spend held funds, on plain or sharded
+ * accounts, concurrent captures of one hold post exactly once and concurrent holds with one reference
+ * place one hold.
+ */
+class HoldServiceTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Test
+    void posting_shouldNotSpendHeldFunds() {
+        String tenantId = newTenant("holds");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "100"));
+        HoldResponse hold = holdService.createHold(hold(tenantId, cash, "80"));
+
+        assertThatThrownBy(() -> ledgerService.createTransaction(transfer(tenantId, sales, cash, "30")))
+                .isInstanceOf(InsufficientBalanceException.class);
+        ledgerService.createTransaction(transfer(tenantId, sales, cash, "20"));
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("80");
+
+        holdService.releaseHold(hold.getId());
+        ledgerService.createTransaction(transfer(tenantId, sales, cash, "30"));
+        assertThat(holdService.getAvailableBalance(cash.getAccountCode()).getHeld()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void concurrentCaptures_shouldPostOnce() throws Exception {
+        String tenantId = newTenant("holds");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        AccountResponse fees = createAccount(tenantId, "FEES", AccountType.EXPENSE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "100"));
+        HoldResponse hold = holdService.createHold(hold(tenantId, cash, "60"));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<HoldResponse>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return holdService.captureHold(hold.getId(), CaptureHoldRequest.builder()
+                        .counterAccountCode(fees.getAccountCode())
+                        .build());
+            }));
+        }
+        start.countDown();
+
+        List<UUID> transactionIds = new ArrayList<>();
+        for (Future<HoldResponse> result : results) {
+            HoldResponse captured = result.get();
+            assertThat(captured.getStatus()).isEqualTo(HoldStatus.CAPTURED);
+            transactionIds.add(captured.getTransactionId());
+        }
+        executor.shutdown();
+
+        assertThat(transactionIds).doesNotContainNull().containsOnly(transactionIds.get(0));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE reference_type = 'HOLD_CAPTURE' AND reference_id = ?",
+                Integer.class, hold.getId().toString())).isEqualTo(1);
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("40");
+        assertThat(holdService.getAvailableBalance(cash.getAccountCode()).getHeld()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void postingToAnyShard_shouldNotSpendFundsHeldOnShardedAccount() {
+        String tenantId = newTenant("holds");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        accountService.shardAccount(cash.getId(), 4);
+        for (int i = 0; i < 4; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, sales, "25"));
+        }
+        HoldResponse hold = holdService.createHold(hold(tenantId, cash, "80"));
+
+        // Whichever shard a posting lands on, the check is against the balance of all shards
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> ledgerService.createTransaction(transfer(tenantId, sales, cash, "21")))
+                    .isInstanceOf(InsufficientBalanceException.class);
+        }
+        ledgerService.createTransaction(transfer(tenantId, sales, cash, "20"));
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("80");
+
+        holdService.releaseHold(hold.getId());
+    }
+
+    @Test
+    void concurrentHoldsWithOneReference_shouldPlaceOnce() throws Exception {
+        String tenantId = newTenant("holds");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "100"));
+        CreateHoldRequest request = hold(tenantId, cash, "30");
+        request.setReferenceType("ORDER");
+        request.setReferenceId(tenantId);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<HoldResponse>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return holdService.createHold(request);
+            }));
+        }
+        start.countDown();
+
+        List<UUID> holdIds = new ArrayList<>();
+        for (Future<HoldResponse> result : results) {
+            holdIds.add(result.get().getId());
+        }
+        executor.shutdown();
+
+        assertThat(holdIds).containsOnly(holdIds.get(0));
+        assertThat(holdService.getAvailableBalance(cash.getAccountCode()).getHeld()).isEqualByComparingTo("30");
+
+        holdService.releaseHold(holdIds.get(0));
+    }
+
+    private CreateHoldRequest hold(String tenantId, AccountResponse account, String amount) {
+        return CreateHoldRequest.builder()
+                .tenantId(tenantId)
+                .accountCode(account.getAccountCode())
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
+
+
+
+
@@ -0,0 +1,86 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.enums.TransactionStatus;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.BatchTransactionResponse;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retries against PostgreSQL: a reference is posted once, whether retried alone, in a batch,
+ * or repeated within one batch, and the repeat does not cost the batch its single chunk commit.
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class IdempotentPostingTest extends LedgerDatabaseTest {
+
+    @Test
+    void retriedTransaction_shouldReturnOriginal() {
+        String tenantId = newTenant("idempotent");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        String reference = "order-" + UUID.randomUUID();
+
+        TransactionResponse first = ledgerService.createTransaction(transfer(tenantId, cash, sales, "10", reference));
+        TransactionResponse retry = ledgerService.createTransaction(transfer(tenantId, cash, sales, "10", reference));
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void retriedBatch_shouldReturnOriginals() {
+        String tenantId = newTenant("idempotent");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        List<CreateTransactionRequest> batch = List.of(
+                transfer(tenantId, cash, sales, "10", "order-" + UUID.randomUUID()),
+                transfer(tenantId, cash, sales, "5", "order-" + UUID.randomUUID()));
+
+        BatchTransactionResponse first = ledgerService.createTransactions(batch);
+        BatchTransactionResponse retry = ledgerService.createTransactions(batch);
+
+        assertThat(retry.getSucceeded()).isEqualTo(2);
+        assertThat(retry.getResults()).extracting(BatchTransactionResponse.ItemResult::getTransactionId)
+                .containsExactlyElementsOf(first.getResults().stream()
+                        .map(BatchTransactionResponse.ItemResult::getTransactionId).toList());
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void batchRepeatingReference_shouldPostItOnceInOneCommit(CapturedOutput output) {
+        String tenantId = newTenant("idempotent");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        String reference = "order-" + UUID.randomUUID();
+
+        BatchTransactionResponse response = ledgerService.createTransactions(List.of(
+                transfer(tenantId, cash, sales, "10", reference),
+                transfer(tenantId, cash, sales, "5", "order-" + UUID.randomUUID()),
+                transfer(tenantId, cash, sales, "10", reference)));
+
+        assertThat(response.getResults()).extracting(BatchTransactionResponse.ItemResult::getStatus)
+                .containsOnly(TransactionStatus.POSTED);
+        assertThat(response.getResults().get(2).getTransactionId()).isEqualTo(response.getResults().get(0).getTransactionId());
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("15");
+        assertThat(output).doesNotContain("retrying individually");
+    }
+
+    private static CreateTransactionRequest transfer(String tenantId, AccountResponse debit, AccountResponse credit,
+                                                     String amount, String reference) {
+        CreateTransactionRequest request = transfer(tenantId, debit, credit, amount);
+        request.setReferenceType("ORDER");
+        request.setReferenceId(reference);
+        return request;
+    }
+}
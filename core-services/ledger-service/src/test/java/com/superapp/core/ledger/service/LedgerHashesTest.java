@@ -0,0 +1,86 @@
+package com.superapp.core.ledger.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerHashesTest {
+
+    private static final UUID TRANSACTION = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID CASH = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID WALLET = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    @Test
+    void transactionHash_shouldIgnoreEntryOrderAndAmountScale() {
+        // Given
+        LedgerHashes.HashedTransaction stored = transaction("100.0000", List.of(
+                new LedgerHashes.HashedEntry(CASH, "DEBIT", new BigDecimal("100.0000")),
+                new LedgerHashes.HashedEntry(WALLET, "CREDIT", new BigDecimal("100.0000"))));
+        LedgerHashes.HashedTransaction reordered = transaction("100", List.of(
+                new LedgerHashes.HashedEntry(WALLET, "CREDIT", new BigDecimal("100")),
+                new LedgerHashes.HashedEntry(CASH, "DEBIT", new BigDecimal("100.00"))));
+
+        // Then
+        assertThat(LedgerHashes.transactionHash(reordered)).isEqualTo(LedgerHashes.transactionHash(stored));
+    }
+
+    @Test
+    void transactionHash_shouldChangeWhenAnEntryIsAltered() {
+        // Given
+        LedgerHashes.HashedTransaction stored = transaction("100", List.of(
+                new LedgerHashes.HashedEntry(CASH, "DEBIT", new BigDecimal("100")),
+                new LedgerHashes.HashedEntry(WALLET, "CREDIT", new BigDecimal("100"))));
+        LedgerHashes.HashedTransaction altered = transaction("100", List.of(
+                new LedgerHashes.HashedEntry(CASH, "DEBIT", new BigDecimal("100")),
+                new LedgerHashes.HashedEntry(WALLET, "CREDIT", new BigDecimal("100.01"))));
+
+        // Then
+        assertThat(LedgerHashes.transactionHash(altered)).isNotEqualTo(LedgerHashes.transactionHash(stored));
+    }
+
+    @Test
+    void chain_shouldDependOnPreviousHash() {
+        // Given
+        String transactionHash = LedgerHashes.transactionHash(transaction("1", List.of()));
+
+        // When
+        String first = LedgerHashes.chain(LedgerHashes.GENESIS, transactionHash);
+        String second = LedgerHashes.chain(first, transactionHash);
+
+        // Then
+        assertThat(first).hasSize(64).isNotEqualTo(second);
+    }
+
+    @Test
+    void merkleRoot_shouldCoverEveryLeafIncludingAnOddLast() {
+        // Given
+        List<String> leaves = List.of(hash("a"), hash("b"), hash("c"));
+
+        // When
+        String root = LedgerHashes.merkleRoot(leaves);
+
+        // Then
+        assertThat(root).hasSize(64);
+        assertThat(LedgerHashes.merkleRoot(List.of(hash("a"), hash("b"), hash("x")))).isNotEqualTo(root);
+        assertThat(LedgerHashes.merkleRoot(List.of(hash("b"), hash("a"), hash("c")))).isNotEqualTo(root);
+        assertThat(LedgerHashes.merkleRoot(List.of(hash("a")))).isNotEqualTo(hash("a"));
+    }
+
+    private static String hash(String value) {
+        return LedgerHashes.transactionHash(new LedgerHashes.HashedTransaction(TRANSACTION, value, "tenant",
+                "2024-01-01T00:00", BigDecimal.ONE, "USD", null, null, List.of()));
+    }
+
+    private static LedgerHashes.HashedTransaction transaction(String totalAmount, List<LedgerHashes.HashedEntry> entries) {
+        return new LedgerHashes.HashedTransaction(TRANSACTION, "TXN0000000000001", "tenant", "2024-01-01T10:15:30",
+                new BigDecimal(totalAmount), "USD", "PAYMENT", "pay-1", entries);
+    }
+}
+
+
+
+
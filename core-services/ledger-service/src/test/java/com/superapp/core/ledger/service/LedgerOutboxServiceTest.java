@@ -0,0 +1,132 @@
+package com.superapp.core.ledger.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox relay against PostgreSQL: a failing destination does not make the others receive a batch
+ * twice, and an event that keeps failing is dead-lettered without holding back the rest.
+ */
+class LedgerOutboxServiceTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final RecordingSink sink = new RecordingSink();
+    private LedgerOutboxService relay;
+
+    @BeforeEach
+    void createRelay() {
+        jdbcTemplate.update("DELETE FROM ledger_outbox");
+        relay = new LedgerOutboxService(jdbcTemplate, transactionTemplate, objectMapper, sink);
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(relay, "initialBackoffMs", 60000L);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", 600000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 2);
+    }
+
+    @Test
+    void failingDestination_shouldNotResendToTheOthers() {
+        insertEvents("ok", "ok", "ok");
+        sink.failing.add("b");
+
+        relay.relay();
+        assertThat(sink.published("a")).hasSize(3);
+        assertThat(unpublished()).isEqualTo(3);
+
+        // Backing off: nothing is due yet
+        sink.failing.clear();
+        relay.relay();
+        assertThat(sink.published("b")).isEmpty();
+
+        makeDue();
+        relay.relay();
+
+        assertThat(sink.published("a")).hasSize(3);
+        assertThat(sink.published("b")).hasSize(3);
+        assertThat(unpublished()).isZero();
+    }
+
+    @Test
+    void poisonEvent_shouldBeDeadLetteredAfterMaxAttempts() {
+        insertEvents("ok", "poison", "ok");
+        sink.poisoned = true;
+
+        relay.relay();
+        assertThat(unpublished()).isEqualTo(3);
+
+        // Retried one at a time: the first goes through, the poison event runs out of attempts
+        makeDue();
+        relay.relay();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_outbox WHERE dead_at IS NOT NULL AND payload ->> 'kind' = 'poison'",
+                Integer.class)).isEqualTo(1);
+
+        makeDue();
+        relay.relay();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_outbox WHERE published_at IS NOT NULL", Integer.class)).isEqualTo(2);
+        assertThat(unpublished()).isZero();
+    }
+
+    private void insertEvents(String... kinds) {
+        for (String kind : kinds) {
+            jdbcTemplate.update("INSERT INTO ledger_outbox (event_type, tenant_id, aggregate_id, payload, created_at) " +
+                    "VALUES ('TEST', 'outbox-test', ?, CAST(? AS jsonb), NOW())", UUID.randomUUID(), "{\"kind\":\"" + kind + "\"}");
+        }
+    }
+
+    private void makeDue() {
+        jdbcTemplate.update("UPDATE ledger_outbox SET next_attempt_at = NOW() - INTERVAL '1 second' WHERE next_attempt_at IS NOT NULL");
+    }
+
+    private int unpublished() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_outbox WHERE published_at IS NULL AND dead_at IS NULL", Integer.class);
+    }
+
+    private static class RecordingSink implements OutboxSink {
+
+        private final List<String[]> calls = new ArrayList<>();
+        private final Set<String> failing = new HashSet<>();
+        private boolean poisoned;
+
+        @Override
+        public List<String> destinations() {
+            return List.of("a", "b");
+        }
+
+        @Override
+        public void publish(String destination, List<OutboxEvent> events) {
+            if (failing.contains(destination)) {
+                throw new IllegalStateException(destination + " is down");
+            }
+            if (poisoned && events.stream().anyMatch(event -> event.payload().contains("poison"))) {
+                throw new IllegalStateException("poison");
+            }
+            events.forEach(event -> calls.add(new String[]{destination, String.valueOf(event.id())}));
+        }
+
+        List<String> published(String destination) {
+            return calls.stream().filter(call -> call[0].equals(destination)).map(call -> call[1]).toList();
+        }
+    }
+}
+
+
+
+
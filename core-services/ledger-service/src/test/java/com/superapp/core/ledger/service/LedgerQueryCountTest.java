@@ -0,0 +1,87 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts that ledger list endpoints run a constant number of SQL statements, however many
+ * transactions, entries and accounts they return (no N+1 through lazy entries or accounts).
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LedgerQueryCountTest extends LedgerDatabaseTest {
+
+    private static final int TRANSACTIONS = 20;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String tenantId;
+    private UUID firstAccountId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tenantId = newTenant("count");
+
+        // Every transaction touches its own pair of accounts, so an N+1 would show up as 2N account loads
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            AccountResponse debit = createAccount(tenantId, "D" + i, AccountType.ASSET);
+            AccountResponse credit = createAccount(tenantId, "C" + i, AccountType.ASSET);
+            if (i == 0) {
+                firstAccountId = debit.getId();
+            }
+            ledgerService.createTransaction(transfer(tenantId, debit, credit, "1"));
+        }
+    }
+
+    @Test
+    void getTransactionsByTenant_shouldRunTwoStatements() {
+        assertThat(statementsFor(() -> assertThat(ledgerService.getTransactionsByTenant(tenantId)).hasSize(TRANSACTIONS)))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void getTransactionsByTenantPage_shouldRunTwoStatements() {
+        assertThat(statementsFor(() -> ledgerService.getTransactionsByTenantPage(tenantId, null, TRANSACTIONS)))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void getTransactionsByDateRange_shouldRunTwoStatements() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(statementsFor(() -> ledgerService.getTransactionsByDateRange(tenantId, now.minusDays(1), now.plusDays(1))))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void getAccountEntriesPage_shouldRunOneStatement() {
+        assertThat(statementsFor(() -> accountService.getAccountEntriesPage(firstAccountId, null, 50)))
+                .isEqualTo(1);
+    }
+
+    private long statementsFor(Runnable request) {
+        statistics.clear();
+        request.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
+
+
+
+
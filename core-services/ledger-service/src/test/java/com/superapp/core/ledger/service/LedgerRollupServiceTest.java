@@ -0,0 +1,73 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.TrialBalanceResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Trial balance against PostgreSQL: years, months and days add up to the postings up to the day asked for,
+ * whether the period rollups were written on posting or rebuilt from the daily ones.
+ */
+class LedgerRollupServiceTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private LedgerRollupService rollupService;
+
+    @Test
+    void trialBalance_shouldAddUpYearsMonthsAndDays() {
+        String tenantId = newTenant("rollups");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        LocalDate earlier = LocalDate.now().minusYears(2).withDayOfYear(1);
+        LocalDate later = earlier.plusYears(1);
+        post(tenantId, cash, sales, "100", earlier.withMonth(3).withDayOfMonth(10));
+        post(tenantId, cash, sales, "40", later.withMonth(2).withDayOfMonth(5));
+        post(tenantId, cash, sales, "25", later.withMonth(5).withDayOfMonth(2));
+        post(tenantId, cash, sales, "7", later.withMonth(5).withDayOfMonth(20));
+        post(tenantId, cash, sales, "3", later.withMonth(5).withDayOfMonth(21));
+        post(tenantId, cash, sales, "50", later.withMonth(8).withDayOfMonth(1));
+
+        assertCashAsOf(tenantId, earlier.withMonth(3).withDayOfMonth(9), null);
+        assertCashAsOf(tenantId, earlier.withMonth(12).withDayOfMonth(31), "100");
+        assertCashAsOf(tenantId, later.withMonth(1).withDayOfMonth(31), "100");
+        assertCashAsOf(tenantId, later.withMonth(5).withDayOfMonth(1), "140");
+        assertCashAsOf(tenantId, later.withMonth(5).withDayOfMonth(20), "172");
+        assertCashAsOf(tenantId, later.withMonth(12).withDayOfMonth(31), "225");
+
+        transactionTemplate.executeWithoutResult(status -> rollupService.rebuildPeriods(tenantId));
+
+        assertCashAsOf(tenantId, later.withMonth(5).withDayOfMonth(20), "172");
+        assertCashAsOf(tenantId, later.withMonth(12).withDayOfMonth(31), "225");
+    }
+
+    private void assertCashAsOf(String tenantId, LocalDate asOf, String expected) {
+        TrialBalanceResponse trialBalance = rollupService.getTrialBalance(tenantId, asOf);
+        assertThat(trialBalance.isBalanced()).isTrue();
+        List<BigDecimal> cash = trialBalance.getLines().stream()
+                .filter(line -> line.getAccountType() == AccountType.ASSET)
+                .map(TrialBalanceResponse.Line::getBalance)
+                .toList();
+        if (expected == null) {
+            assertThat(cash).isEmpty();
+        } else {
+            assertThat(cash).singleElement().satisfies(balance -> assertThat(balance).isEqualByComparingTo(expected));
+        }
+    }
+
+    private void post(String tenantId, AccountResponse debit, AccountResponse credit, String value, LocalDate date) {
+        ledgerService.createTransaction(transfer(tenantId, debit, credit, value, date.atTime(12, 0)));
+    }
+}
+
+
+
+
@@ -0,0 +1,100 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.domain.exception.InvalidCursorException;
+import com.superapp.core.ledger.dto.response.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    private static final LocalDateTime NEWEST = LocalDateTime.of(2024, 3, 31, 23, 59, 59, 123_456_000);
+
+    @Test
+    void encode_shouldRoundTripTimestampToTheMicrosecondAndId() {
+        PageCursor cursor = new PageCursor(NEWEST, UUID.fromString("ffffffff-0000-4000-8000-000000000001"));
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(PageCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_withoutToken_shouldStartBeforeNewestRow() {
+        assertThat(PageCursor.decode(null)).isEqualTo(PageCursor.START);
+        assertThat(PageCursor.decode(" ")).isEqualTo(PageCursor.START);
+    }
+
+    @Test
+    void decode_withForeignToken_shouldThrowInvalidCursor() {
+        assertThatThrownBy(() -> PageCursor.decode("not-a-cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> PageCursor.decode("MTIzOjQ1Ng"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void limit_shouldFetchOneRowBeyondClampedPageSize() {
+        assertThat(PageCursor.limit(20).max()).isEqualTo(21);
+        assertThat(PageCursor.limit(0).max()).isEqualTo(2);
+        assertThat(PageCursor.limit(10_000).max()).isEqualTo(PageCursor.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void pages_shouldCoverEveryRowOnceAndEndWithoutCursor() {
+        // Eleven rows, newest first, three to a timestamp so that ties straddle page ends
+        List<PageCursor> rows = IntStream.range(0, 11)
+                .mapToObj(i -> new PageCursor(NEWEST.minusSeconds(i / 3), new UUID(0, 100 - i)))
+                .toList();
+
+        List<PageCursor> seen = new ArrayList<>();
+        PageCursor position = PageCursor.START;
+        CursorPage<PageCursor> page;
+        int pages = 0;
+        do {
+            page = PageCursor.page(after(rows, position, 4), 4, Function.identity(), Function.identity());
+            seen.addAll(page.getItems());
+            pages++;
+            if (page.isHasMore()) {
+                assertThat(page.getItems()).hasSize(4);
+                position = PageCursor.decode(page.getNextCursor());
+                assertThat(position).isEqualTo(page.getItems().get(3));
+            }
+        } while (page.isHasMore());
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(seen).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    void page_fillingExactlyLastPage_shouldNotOfferAnotherPage() {
+        List<PageCursor> rows = List.of(new PageCursor(NEWEST, new UUID(0, 2)), new PageCursor(NEWEST, new UUID(0, 1)));
+
+        CursorPage<PageCursor> page = PageCursor.page(rows, 2, Function.identity(), Function.identity());
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    /**
+     * What a page query returns: the rows strictly past the position, up to limit(pageSize) of them
+     */
+    private static List<PageCursor> after(List<PageCursor> rows, PageCursor position, int pageSize) {
+        return rows.stream()
+                .filter(row -> row.timestamp().isBefore(position.timestamp())
+                        || (row.timestamp().isEqual(position.timestamp()) && row.id().compareTo(position.id()) < 0))
+                .limit(PageCursor.limit(pageSize).max())
+                .toList();
+    }
+}
@@ -0,0 +1,171 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.ReconciliationRunResponse;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archiving a month against PostgreSQL: balances after the horizon survive the drop through the
+ * closing checkpoints, the month's unique keys are pruned while the live ones stay unique, and
+ * reconciliation starts from the closing checkpoints.
+ */
+@TestPropertySource(properties = {
+        "ledger.checkpoints.initial-delay-ms=3600000"
+})
+class PartitionArchivalTest extends LedgerDatabaseTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2001, 3);
+
+    @Autowired
+    private PartitionMaintenanceService partitionService;
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @TempDir
+    private Path archiveDir;
+
+    @BeforeEach
+    void createMonth() {
+        cleanUp();
+        for (String table : List.of("transactions", "transaction_entries")) {
+            jdbcTemplate.execute(String.format("CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    PartitionMaintenanceService.partitionName(table, MONTH), table, MONTH.atDay(1), MONTH.plusMonths(1).atDay(1)));
+        }
+        ReflectionTestUtils.setField(partitionService, "archiveDir", archiveDir.toString());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + PartitionMaintenanceService.partitionName("transaction_entries", MONTH));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + PartitionMaintenanceService.partitionName("transactions", MONTH));
+        jdbcTemplate.update("DELETE FROM ledger_archived_months WHERE month = ?", MONTH.atDay(1));
+        // Postings back-dated into the month once it was detached went to the default partitions
+        for (String table : List.of("transaction_entries_default", "transactions_default")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE transaction_date >= ? AND transaction_date < ?",
+                    MONTH.atDay(1).atStartOfDay(), MONTH.plusMonths(1).atDay(1).atStartOfDay());
+        }
+    }
+
+    @Test
+    void archivePartition_shouldKeepBalancesBehindClosingCheckpoints() {
+        String tenantId = newTenant("archival");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        String reference = "archival-" + UUID.randomUUID();
+
+        TransactionResponse archived = ledgerService.createTransaction(
+                transfer(tenantId, cash, sales, "10", MONTH.atDay(10).atStartOfDay(), reference));
+        TransactionResponse live = ledgerService.createTransaction(
+                transfer(tenantId, cash, sales, "5", LocalDateTime.now().minusHours(1), null));
+
+        partitionService.archivePartition(MONTH);
+
+        assertThat(archiveDir.resolve(PartitionMaintenanceService.partitionName("transactions", MONTH) + ".csv.gz")).exists();
+        assertThat(archiveDir.resolve(PartitionMaintenanceService.partitionName("transaction_entries", MONTH) + ".csv.gz")).exists();
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class,
+                PartitionMaintenanceService.partitionName("transactions", MONTH))).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT archived_at IS NOT NULL FROM ledger_archived_months WHERE month = ?",
+                Boolean.class, MONTH.atDay(1))).isTrue();
+
+        assertThat(checkpointService.getBalanceAsOf(cash.getAccountCode(), LocalDateTime.now())).isEqualByComparingTo("15");
+        assertThatThrownBy(() -> checkpointService.getBalanceAsOf(cash.getAccountCode(), MONTH.atDay(20).atStartOfDay()))
+                .isInstanceOf(InvalidTransactionException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_references WHERE reference_id = ?",
+                Long.class, reference)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_numbers WHERE transaction_number = ?",
+                Long.class, archived.getTransactionNumber())).isZero();
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO transactions (id, transaction_number, tenant_id, " +
+                        "transaction_date, status, description, total_amount, currency, created_at) " +
+                        "VALUES (gen_random_uuid(), ?, ?, now() - INTERVAL '40 days', 'POSTED', 'Duplicate', 1, 'USD', now())",
+                live.getTransactionNumber(), tenantId))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void archivePartition_shouldPruneUniqueKeysInBatches() {
+        String tenantId = newTenant("archival");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        List<String> references = List.of("archival-" + UUID.randomUUID(), "archival-" + UUID.randomUUID(),
+                "archival-" + UUID.randomUUID());
+        List<String> numbers = references.stream()
+                .map(reference -> ledgerService.createTransaction(
+                        transfer(tenantId, cash, sales, "1", MONTH.atDay(10).atStartOfDay(), reference)))
+                .map(TransactionResponse::getTransactionNumber)
+                .toList();
+        ReflectionTestUtils.setField(partitionService, "pruneBatchSize", 2);
+        try {
+            partitionService.archivePartition(MONTH);
+        } finally {
+            ReflectionTestUtils.setField(partitionService, "pruneBatchSize", 1000);
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_references WHERE reference_id = ANY(?)",
+                Long.class, (Object) references.toArray(String[]::new))).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_numbers WHERE transaction_number = ANY(?)",
+                Long.class, (Object) numbers.toArray(String[]::new))).isZero();
+    }
+
+    @Test
+    void reconciliation_shouldStartFromClosingCheckpoints() throws InterruptedException {
+        String tenantId = newTenant("archival");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10", MONTH.atDay(10).atStartOfDay(), null));
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "5", LocalDateTime.now().minusHours(1), null));
+
+        partitionService.archivePartition(MONTH);
+        // Back-dated into the archived month after it was closed, so not in the closing checkpoints yet
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "2", MONTH.atDay(12).atStartOfDay(), null));
+
+        ReconciliationRunResponse run = reconciliationService.start();
+        while (!"COMPLETED".equals(run.getStatus()) && !"FAILED".equals(run.getStatus())) {
+            Thread.sleep(100);
+            run = reconciliationService.getRun(run.getRunId());
+        }
+
+        assertThat(run.getStatus()).isEqualTo("COMPLETED");
+        assertThat(run.getDrifts()).extracting(ReconciliationRunResponse.Drift::getAccountId)
+                .doesNotContain(cash.getId(), sales.getId());
+    }
+
+    private CreateTransactionRequest transfer(String tenantId, AccountResponse debit, AccountResponse credit,
+                                              String value, LocalDateTime transactionDate, String reference) {
+        CreateTransactionRequest request = transfer(tenantId, debit, credit, value, transactionDate);
+        if (reference != null) {
+            request.setReferenceType("TEST");
+            request.setReferenceId(reference);
+        }
+        return request;
+    }
+}
+
+
+
+
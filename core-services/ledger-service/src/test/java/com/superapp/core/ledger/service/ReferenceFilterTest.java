@@ -0,0 +1,67 @@
+package com.superapp.core.ledger.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReferenceFilterTest {
+
+    private static final long WARM_REFERENCES = 300_000;
+
+    @Test
+    void mightContain_beforeWarmUp_shouldReportEveryReference() {
+        ReferenceFilter filter = filter(mock(JdbcTemplate.class));
+
+        assertThat(filter.mightContain("ORDER", "never-posted")).isTrue();
+    }
+
+    @Test
+    void capacity_shouldCoverWarmWindowAndPostingsUntilNextRebuild() {
+        ReferenceFilter filter = filter(mock(JdbcTemplate.class));
+
+        // 72 warm hours, rebuilt every 24: a third again on top of the window
+        assertThat(filter.capacityFor(WARM_REFERENCES)).isEqualTo(400_000);
+        assertThat(filter.capacityFor(0)).isEqualTo(1_000);
+    }
+
+    @Test
+    void rebuild_withWindowBeyondExpectedInsertions_shouldKeepFalsePositiveRate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Timestamp.class))).thenReturn(WARM_REFERENCES);
+        ReferenceFilter filter = filter(jdbcTemplate);
+        filter.rebuild();
+
+        // The window's references plus those posted until the next rebuild
+        for (int i = 0; i < filter.capacityFor(WARM_REFERENCES); i++) {
+            filter.add("ORDER", "posted-" + i);
+        }
+
+        assertThat(filter.mightContain("ORDER", "posted-12345")).isTrue();
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("ORDER", "new-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    private static ReferenceFilter filter(JdbcTemplate jdbcTemplate) {
+        ReferenceFilter filter = new ReferenceFilter(jdbcTemplate);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 1_000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(filter, "warmHours", 72L);
+        ReflectionTestUtils.setField(filter, "rebuildIntervalMs", 86_400_000L);
+        return filter;
+    }
+}
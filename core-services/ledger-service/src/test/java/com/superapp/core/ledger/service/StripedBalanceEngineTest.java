@@ -0,0 +1,165 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.dto.request.CreateHoldRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Striped balance engine against PostgreSQL: a rolled-back posting must not leave a trace in
+ * balances or in other postings' balance_after snapshots, deactivated accounts are refused, deltas left
+ * unflushed by a crash are replayed, only one engine may run per database, and no holds are placed while it runs.
+ *
+ * The context is closed after the class, releasing the engine's lock for the tests that place holds.
+ */
+@DirtiesContext
+@TestPropertySource(properties = {
+        "ledger.posting.striped.enabled=true",
+        "ledger.posting.striped.flush-interval-ms=3600000"
+})
+class StripedBalanceEngineTest extends LedgerDatabaseTest {
+
+    @Autowired
+    private StripedBalanceEngine balanceEngine;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void rolledBackPosting_shouldNotAffectBalanceOrLaterSnapshots() throws Exception {
+        String tenantId = newTenant("striped");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+
+        // Posting of 5 is applied inside a DB transaction that stays open while a posting of 3 commits, then rolls back
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        CompletableFuture<Void> rolledBack = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            ledgerService.createTransaction(transfer(tenantId, cash, sales, "5"));
+            posted.countDown();
+            await(committed);
+            status.setRollbackOnly();
+        }));
+        assertThat(posted.await(30, TimeUnit.SECONDS)).isTrue();
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "3"));
+        committed.countDown();
+        rolledBack.get(30, TimeUnit.SECONDS);
+
+        balanceEngine.flush();
+
+        assertThat(balanceEngine.currentBalance(cash.getId())).hasValueSatisfying(
+                balance -> assertThat(balance).isEqualByComparingTo("13"));
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("13");
+        List<BigDecimal> snapshots = jdbcTemplate.queryForList(
+                "SELECT balance_after FROM transaction_entries WHERE account_id = ? ORDER BY balance_after",
+                BigDecimal.class, cash.getId());
+        assertThat(snapshots).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("10"), new BigDecimal("13"));
+    }
+
+    @Test
+    void hold_shouldBeRefusedWhileEngineRuns() {
+        String tenantId = newTenant("striped");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+
+        assertThatThrownBy(() -> holdService.createHold(CreateHoldRequest.builder()
+                .tenantId(tenantId)
+                .accountCode(cash.getAccountCode())
+                .amount(new BigDecimal("5"))
+                .build()))
+                .isInstanceOf(InvalidTransactionException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT held_amount FROM accounts WHERE id = ?", BigDecimal.class,
+                cash.getId())).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void postingToAccountDeactivatedElsewhere_shouldBeRejected() {
+        String tenantId = newTenant("striped");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+
+        // Another instance deactivates the account; this instance's near cache is not told
+        jdbcTemplate.update("UPDATE accounts SET is_active = false WHERE id = ?", sales.getId());
+
+        assertThatThrownBy(() -> ledgerService.createTransaction(transfer(tenantId, cash, sales, "10")))
+                .isInstanceOf(InvalidTransactionException.class)
+                .hasMessageContaining("inactive");
+        assertThat(balanceEngine.currentBalance(cash.getId())).hasValueSatisfying(
+                balance -> assertThat(balance).isEqualByComparingTo("10"));
+    }
+
+    @Test
+    void startingEngine_shouldReplayDeltasNotFlushedBeforeACrash() {
+        String tenantId = newTenant("striped");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "10"));
+        ledgerService.createTransaction(transfer(tenantId, cash, sales, "5"));
+        balanceEngine.flush();
+
+        // What a crash before the flush leaves behind: committed entries without snapshots, balances not moved
+        jdbcTemplate.update("UPDATE transaction_entries SET balance_after = NULL WHERE account_id IN (?, ?)",
+                cash.getId(), sales.getId());
+        jdbcTemplate.update("UPDATE accounts SET balance = 0 WHERE id IN (?, ?)", cash.getId(), sales.getId());
+
+        // The running engine holds the single-writer lock, so replay on a second one directly
+        StripedBalanceEngine restarted = new StripedBalanceEngine(jdbcTemplate, transactionManager, dataSource);
+        ReflectionTestUtils.setField(restarted, "stripeCount", 4);
+        ReflectionTestUtils.setField(restarted, "flushBatchSize", 500);
+        ReflectionTestUtils.invokeMethod(restarted, "init");
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.invokeMethod(restarted, "replayUnflushed");
+
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("15");
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class,
+                sales.getId())).isEqualByComparingTo("15");
+        List<BigDecimal> snapshots = jdbcTemplate.queryForList(
+                "SELECT balance_after FROM transaction_entries WHERE account_id = ? ORDER BY balance_after",
+                BigDecimal.class, cash.getId());
+        assertThat(snapshots).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("10"), new BigDecimal("15"));
+    }
+
+    @Test
+    void secondEngine_shouldRefuseToStart() {
+        StripedBalanceEngine second = new StripedBalanceEngine(jdbcTemplate, transactionManager, dataSource);
+        ReflectionTestUtils.setField(second, "enabled", true);
+        ReflectionTestUtils.setField(second, "stripeCount", 4);
+
+        assertThatThrownBy(() -> ReflectionTestUtils.invokeMethod(second, "init"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Another instance");
+    }
+}
+
+
+
+
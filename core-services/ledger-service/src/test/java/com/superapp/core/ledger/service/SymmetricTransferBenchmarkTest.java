@@ -0,0 +1,74 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention benchmark: symmetric transfer storms (A->B and B->A at the same time).
+ */
+class SymmetricTransferBenchmarkTest extends LedgerDatabaseTest {
+
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 200;
+
+    @Test
+    void symmetricTransferStorm_shouldNotDeadlock() throws InterruptedException {
+        // Given
+        String tenantId = newTenant("bench");
+        String accountA = createAccount(tenantId, "A", AccountType.ASSET).getAccountCode();
+        String accountB = createAccount(tenantId, "B", AccountType.ASSET).getAccountCode();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger deadlocks = new AtomicInteger();
+        AtomicInteger otherFailures = new AtomicInteger();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            boolean forward = t % 2 == 0;
+            executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        ledgerService.createTransaction(transfer(tenantId,
+                                forward ? accountB : accountA, forward ? accountA : accountB, "1", LocalDateTime.now()));
+                        latencies.add(System.nanoTime() - start);
+                    } catch (PessimisticLockingFailureException e) {
+                        deadlocks.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        otherFailures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p50 = sorted.get(sorted.size() / 2) / 1_000_000;
+        long p99 = sorted.get((int) (sorted.size() * 0.99)) / 1_000_000;
+        System.out.printf("Symmetric transfers: %d ok, %d deadlocks, %d other failures, p50=%d ms, p99=%d ms%n",
+                sorted.size(), deadlocks.get(), otherFailures.get(), p50, p99);
+
+        assertThat(deadlocks.get()).isZero();
+        assertThat(otherFailures.get()).isZero();
+        assertThat(accountService.getAccountBalance(accountA)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(accountService.getAccountBalance(accountB)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,150 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.domain.exception.InvalidTransactionException;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import com.superapp.core.ledger.dto.response.TenantTransferResponse;
+import com.superapp.core.ledger.dto.response.TransactionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tenant moves against PostgreSQL: a binary COPY dump loads back into a database without the tenant
+ * with its accounts, transactions, entries, balances and rollups intact, and tenant ids that could
+ * break out of the inlined COPY query are refused.
+ */
+class TenantTransferServiceTest extends LedgerDatabaseTest {
+
+    private static final String ROWS_SQL =
+            "SELECT (SELECT COUNT(*) FROM accounts WHERE tenant_id = ?) AS accounts, " +
+            "(SELECT COUNT(*) FROM transactions WHERE tenant_id = ?) AS transactions, " +
+            "(SELECT COUNT(*) FROM transaction_entries e JOIN accounts a ON a.id = e.account_id WHERE a.tenant_id = ?) AS entries";
+
+    private static final String BALANCES_SQL =
+            "SELECT account_code, balance FROM accounts WHERE tenant_id = ? ORDER BY account_code";
+
+    private static final String ROLLUPS_SQL =
+            "SELECT account_type, currency, rollup_date, SUM(debit_total) AS debits, SUM(credit_total) AS credits, " +
+            "SUM(entry_count) AS entries FROM ledger_daily_rollups WHERE tenant_id = ? " +
+            "GROUP BY account_type, currency, rollup_date ORDER BY account_type, currency, rollup_date";
+
+    @Autowired
+    private TenantTransferService tenantTransferService;
+
+    @TempDir
+    Path transferDir;
+
+    private Object transferTarget;
+    private Object configuredDir;
+
+    @BeforeEach
+    void dumpIntoTempDir() {
+        transferTarget = AopTestUtils.getUltimateTargetObject(tenantTransferService);
+        configuredDir = ReflectionTestUtils.getField(transferTarget, "transferDir");
+        ReflectionTestUtils.setField(transferTarget, "transferDir", transferDir.toString());
+    }
+
+    @AfterEach
+    void restoreDir() {
+        ReflectionTestUtils.setField(transferTarget, "transferDir", configuredDir);
+    }
+
+    @Test
+    void exportThenImport_shouldRestoreTenantLedger() {
+        String tenantId = newTenant("transfer");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        AccountResponse fees = createAccount(tenantId, "FEES", AccountType.EXPENSE);
+        accountService.shardAccount(sales.getId(), 2);
+        for (int i = 0; i < 5; i++) {
+            ledgerService.createTransaction(transfer(tenantId, cash, sales, "20"));
+        }
+        ledgerService.createTransaction(transfer(tenantId, fees, cash, "7.5"));
+        CreateTransactionRequest order = transfer(tenantId, cash, sales, "3");
+        order.setReferenceType("ORDER");
+        order.setReferenceId(tenantId + "-order-1");
+        TransactionResponse ordered = ledgerService.createTransaction(order);
+
+        Map<String, Object> rows = jdbcTemplate.queryForMap(ROWS_SQL, tenantId, tenantId, tenantId);
+        List<Map<String, Object>> balances = jdbcTemplate.queryForList(BALANCES_SQL, tenantId);
+        List<Map<String, Object>> rollups = jdbcTemplate.queryForList(ROLLUPS_SQL, tenantId);
+
+        TenantTransferResponse exported = tenantTransferService.exportTenant(tenantId);
+        // Three accounts plus the second shard of SALES
+        assertThat(exported.getAccounts()).isEqualTo(4);
+        assertThat(exported.getTransactions()).isEqualTo(7);
+        assertThat(exported.getEntries()).isEqualTo(14);
+        assertThat(transferDir.resolve(exported.getDirectory()).resolve("transaction_entries.bin")).isNotEmptyFile();
+
+        assertThatThrownBy(() -> tenantTransferService.importTenant(tenantId, exported.getDirectory()))
+                .isInstanceOf(InvalidTransactionException.class)
+                .hasMessageContaining("already has accounts");
+
+        deleteTenant(tenantId);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts WHERE tenant_id = ?", Long.class, tenantId))
+                .isZero();
+
+        TenantTransferResponse imported = tenantTransferService.importTenant(tenantId, exported.getDirectory());
+
+        assertThat(imported.getAccounts()).isEqualTo(exported.getAccounts());
+        assertThat(imported.getTransactions()).isEqualTo(exported.getTransactions());
+        assertThat(imported.getEntries()).isEqualTo(exported.getEntries());
+        assertThat(jdbcTemplate.queryForMap(ROWS_SQL, tenantId, tenantId, tenantId)).isEqualTo(rows);
+        assertThat(jdbcTemplate.queryForList(BALANCES_SQL, tenantId)).isEqualTo(balances);
+        assertThat(jdbcTemplate.queryForList(ROLLUPS_SQL, tenantId)).isEqualTo(rollups);
+        assertThat(accountService.getAccountBalance(sales.getAccountCode())).isEqualByComparingTo("103");
+        assertThat(accountService.getAccountBalance(cash.getAccountCode())).isEqualByComparingTo("95.5");
+
+        // The imported reference is known again, so a retry returns the original transaction
+        TransactionResponse retried = ledgerService.createTransaction(order);
+        assertThat(retried.getId()).isEqualTo(ordered.getId());
+        assertThat(ledgerService.getTransactionsByTenant(tenantId)).hasSize(7);
+    }
+
+    @Test
+    void transfer_withTenantIdOutsideAllowedCharacters_shouldBeRefused() {
+        String hostile = "x') TO PROGRAM 'id' --";
+
+        assertThatThrownBy(() -> tenantTransferService.exportTenant(hostile))
+                .isInstanceOf(InvalidTransactionException.class)
+                .hasMessageContaining("Invalid tenant id");
+        assertThatThrownBy(() -> tenantTransferService.exportTenant("acme/../../etc"))
+                .isInstanceOf(InvalidTransactionException.class);
+        assertThatThrownBy(() -> tenantTransferService.importTenant(hostile, "any"))
+                .isInstanceOf(InvalidTransactionException.class);
+        assertThat(transferDir).isEmptyDirectory();
+    }
+
+    /**
+     * Remove everything the tenant left in this database, as if importing into one that never had it
+     */
+    private void deleteTenant(String tenantId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            String transactions = "SELECT id FROM transactions WHERE tenant_id = ?";
+            String accounts = "SELECT id FROM accounts WHERE tenant_id = ?";
+            jdbcTemplate.update("DELETE FROM transaction_numbers WHERE transaction_id IN (" + transactions + ")", tenantId);
+            jdbcTemplate.update("DELETE FROM transaction_references WHERE transaction_id IN (" + transactions + ")", tenantId);
+            jdbcTemplate.update("DELETE FROM transaction_entries WHERE account_id IN (" + accounts + ")", tenantId);
+            jdbcTemplate.update("DELETE FROM transactions WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM account_balance_checkpoints WHERE account_id IN (" + accounts + ")", tenantId);
+            jdbcTemplate.update("DELETE FROM account_holds WHERE account_id IN (" + accounts + ")", tenantId);
+            jdbcTemplate.update("DELETE FROM accounts WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM ledger_daily_rollups WHERE tenant_id = ?", tenantId);
+            jdbcTemplate.update("DELETE FROM ledger_period_rollups WHERE tenant_id = ?", tenantId);
+        });
+    }
+}
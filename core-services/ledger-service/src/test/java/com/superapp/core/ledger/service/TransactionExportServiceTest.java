@@ -0,0 +1,111 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.ledger.LedgerDatabaseTest;
+import com.superapp.core.ledger.controller.TransactionController;
+import com.superapp.core.ledger.domain.enums.AccountType;
+import com.superapp.core.ledger.dto.request.CreateTransactionRequest;
+import com.superapp.core.ledger.dto.response.AccountResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement exports against PostgreSQL: entries are detached as they are written, spreadsheet
+ * formulas are neutralised in the CSV bytes, and the download name cannot be steered by the tenant id.
+ */
+class TransactionExportServiceTest extends LedgerDatabaseTest {
+
+    private static final int TRANSACTIONS = 300;
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private TransactionController transactionController;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void export_shouldNotKeepWrittenEntriesManaged() {
+        String tenantId = newTenant("export");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        List<CreateTransactionRequest> batch = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            batch.add(transfer(tenantId, cash, sales, "1"));
+        }
+        ledgerService.createTransactions(batch);
+
+        // Each time the writer drains its buffer, count what the export's persistence context still holds
+        List<Integer> managed = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream probe = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.write(b);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) {
+                managed.add(entityManager.unwrap(SharedSessionContractImplementor.class)
+                        .getPersistenceContextInternal().getNumberOfManagedEntities());
+                bytes.write(buffer, offset, length);
+            }
+        };
+        exportService.export(tenantId, null, null, TransactionExportService.Format.CSV, probe);
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8).lines()).hasSize(1 + 2 * TRANSACTIONS);
+        assertThat(managed).hasSizeGreaterThan(2).allSatisfy(count -> assertThat(count).isLessThan(10));
+    }
+
+    @Test
+    void csvExport_shouldNeutraliseFormulasInWrittenBytes() {
+        String tenantId = newTenant("export");
+        AccountResponse cash = createAccount(tenantId, "CASH", AccountType.ASSET);
+        AccountResponse sales = createAccount(tenantId, "SALES", AccountType.REVENUE);
+        CreateTransactionRequest request = transfer(tenantId, cash, sales, "10");
+        request.setDescription("=HYPERLINK(\"http://evil.example\",\"open\")");
+        request.setReferenceType("@SUM(A1)");
+        // Unique per tenant, or a rerun against the same database finds the reference already posted
+        request.setReferenceId("+cmd|' /C calc'!" + tenantId);
+        ledgerService.createTransaction(request);
+
+        String csv = export(tenantId, TransactionExportService.Format.CSV);
+
+        assertThat(csv).contains(",\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"open\"\")\",");
+        assertThat(csv).contains(",'+cmd|' /C calc'!" + tenantId + ",'@SUM(A1),");
+        assertThat(csv).doesNotContain(",=", ",+", ",@", ",\"=");
+        assertThat(csv).contains(",DEBIT,10.0000,");
+    }
+
+    @Test
+    void exportFilename_shouldNotCarryHeaderSyntaxFromTenantId() {
+        String tenantId = "evil\"; filename=run.exe\r\nSet-Cookie: x=1";
+
+        ResponseEntity<StreamingResponseBody> response =
+                transactionController.exportTransactions(tenantId, TransactionExportService.Format.CSV, null, null);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                .isEqualTo("attachment; filename=\"evil___filename_run.exe__Set-Cookie__x_1-transactions.csv\"");
+    }
+
+    private String export(String tenantId, TransactionExportService.Format format) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        exportService.export(tenantId, null, null, format, bytes);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
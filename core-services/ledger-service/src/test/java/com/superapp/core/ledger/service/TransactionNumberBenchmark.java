@@ -0,0 +1,62 @@
+package com.superapp.core.ledger.service;
+
+import com.superapp.core.id.KSortableIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the previous timestamp + random UUID transaction numbers with the k-sortable generator.
+ *
+ * Not part of the test run; start it with
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.superapp.core.ledger.service.TransactionNumberBenchmark
+ * and add -prof gc to the options to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransactionNumberBenchmark {
+
+    private final KSortableIdGenerator generator = new KSortableIdGenerator(1);
+
+    @Benchmark
+    public String timestampAndRandomUuid() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String random = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        return "TXN" + "-" + timestamp + "-" + random;
+    }
+
+    @Benchmark
+    public String kSortable() {
+        return generator.nextNumber("TXN");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransactionNumberBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
+
+
+
+
@@ -1,9 +1,11 @@
 package com.superapp.core.payment;
 
+import com.superapp.core.id.IdGeneratorConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Payment Rail Service - Core Foundation Service
@@ -19,8 +21,9 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  * This is a foundational operational utility for all payment operations.
  */
 @SpringBootApplication
-@EnableJpaAuditing
 @EnableCaching
+@Import(IdGeneratorConfig.class)
+@EnableScheduling
 public class PaymentRailServiceApplication {
 
     public static void main(String[] args) {
@@ -36,12 +36,12 @@ public class PaymentController {
     }
 
     @PostMapping("/{transactionId}/process")
-    @Operation(summary = "Process pending payment")
+    @Operation(summary = "Process pending payment", description = "Dispatches the payment to its provider; poll the transaction for the outcome")
     public ResponseEntity<PaymentTransactionResponse> processPayment(
             @RequestHeader("X-Tenant-Id") String tenantId,
             @PathVariable UUID transactionId) {
         PaymentTransactionResponse response = paymentService.processPayment(transactionId, tenantId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     @GetMapping("/{transactionId}")
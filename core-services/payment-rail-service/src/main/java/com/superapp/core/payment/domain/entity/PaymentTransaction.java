@@ -63,6 +63,12 @@ public class PaymentTransaction extends AuditEntity {
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
 
+    private LocalDateTime processingStartedAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer dispatchAttempts = 0;
+
     private LocalDateTime completedAt;
 
     private LocalDateTime failedAt;
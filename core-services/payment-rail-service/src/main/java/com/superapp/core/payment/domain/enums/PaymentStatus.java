@@ -1,5 +1,8 @@
 package com.superapp.core.payment.domain.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Payment transaction status
  */
@@ -10,7 +13,36 @@ public enum PaymentStatus {
     FAILED,
     CANCELLED,
     REFUNDED,
-    PARTIALLY_REFUNDED
+    PARTIALLY_REFUNDED;
+
+    /**
+     * Statuses a payment in this status may move to
+     */
+    public Set<PaymentStatus> next() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PROCESSING, CANCELLED);
+            case PROCESSING -> EnumSet.of(COMPLETED, FAILED);
+            case COMPLETED, PARTIALLY_REFUNDED -> EnumSet.of(PARTIALLY_REFUNDED, REFUNDED);
+            case FAILED, CANCELLED, REFUNDED -> EnumSet.noneOf(PaymentStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(PaymentStatus status) {
+        return next().contains(status);
+    }
+
+    /**
+     * Statuses a payment may move to this status from
+     */
+    public Set<PaymentStatus> previous() {
+        Set<PaymentStatus> previous = EnumSet.noneOf(PaymentStatus.class);
+        for (PaymentStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
 }
 
 
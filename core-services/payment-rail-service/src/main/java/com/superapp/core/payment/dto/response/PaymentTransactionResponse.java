@@ -30,6 +30,7 @@ public class PaymentTransactionResponse {
     private String externalReference;
     private String paymentMethodId;
     private String errorMessage;
+    private LocalDateTime processingStartedAt;
     private LocalDateTime completedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -5,8 +5,13 @@ import com.superapp.core.payment.domain.enums.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +29,52 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     List<PaymentTransaction> findByTenantIdAndStatus(String tenantId, PaymentStatus status);
     
     Optional<PaymentTransaction> findByExternalReference(String externalReference);
+
+    /**
+     * Move to PROCESSING as one conditional update; 0 when the payment was not in one of the from statuses
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentTransaction p SET p.status = :to, p.processingStartedAt = :now, p.dispatchAttempts = 1, " +
+            "p.updatedAt = :now, p.version = p.version + 1 WHERE p.id = :id AND p.tenantId = :tenantId AND p.status IN :from")
+    int start(UUID id, String tenantId, Collection<PaymentStatus> from, PaymentStatus to, LocalDateTime now);
+
+    /**
+     * PROCESSING payments claimed before a cutoff with dispatch attempts left, oldest first
+     */
+    @Query("SELECT p FROM PaymentTransaction p WHERE p.status = :status AND p.processingStartedAt < :before " +
+            "AND p.dispatchAttempts < :maxAttempts ORDER BY p.processingStartedAt")
+    List<PaymentTransaction> findStale(PaymentStatus status, LocalDateTime before, int maxAttempts, Pageable pageable);
+
+    /**
+     * Claim a stale PROCESSING payment for another provider call as one conditional update;
+     * 0 when it was resolved or reclaimed since it was read
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentTransaction p SET p.processingStartedAt = :now, p.dispatchAttempts = p.dispatchAttempts + 1, " +
+            "p.updatedAt = :now, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.status = :status AND p.processingStartedAt = :startedAt")
+    int reclaim(UUID id, PaymentStatus status, LocalDateTime startedAt, LocalDateTime now);
+
+    /**
+     * Successful end of processing as one conditional update; 0 when the payment was not in one of the from statuses
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentTransaction p SET p.status = :to, p.externalReference = :externalReference, " +
+            "p.completedAt = :now, p.updatedAt = :now, p.version = p.version + 1 WHERE p.id = :id AND p.status IN :from")
+    int complete(UUID id, Collection<PaymentStatus> from, PaymentStatus to, String externalReference, LocalDateTime now);
+
+    /**
+     * Failed end of processing as one conditional update; 0 when the payment was not in one of the from statuses
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentTransaction p SET p.status = :to, p.externalReference = :externalReference, " +
+            "p.errorMessage = :errorMessage, p.failedAt = :now, p.updatedAt = :now, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.status IN :from")
+    int fail(UUID id, Collection<PaymentStatus> from, PaymentStatus to, String externalReference, String errorMessage, LocalDateTime now);
 }
 
 
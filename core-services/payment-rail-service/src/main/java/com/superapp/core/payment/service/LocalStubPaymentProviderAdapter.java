@@ -0,0 +1,46 @@
+package com.superapp.core.payment.service;
+
+import com.superapp.core.id.IdGenerator;
+import com.superapp.core.payment.domain.enums.PaymentProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Local stub provider: approves every charge after a fixed latency.
+ * Serves every provider that has no real adapter registered.
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "payment.providers.stub.enabled", havingValue = "true", matchIfMissing = true)
+public class LocalStubPaymentProviderAdapter implements PaymentProviderAdapter {
+
+    private final IdGenerator idGenerator;
+
+    @Value("${payment.providers.stub.latency-ms:20}")
+    private long latencyMs;
+
+    @Override
+    public Set<PaymentProvider> providers() {
+        return EnumSet.allOf(PaymentProvider.class);
+    }
+
+    @Override
+    public ChargeResult charge(ChargeRequest request) throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        return ChargeResult.approved(idGenerator.nextNumber("PAY"));
+    }
+}
+
+
+
+
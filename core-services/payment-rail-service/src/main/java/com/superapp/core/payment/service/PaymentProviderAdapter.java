@@ -0,0 +1,48 @@
+package com.superapp.core.payment.service;
+
+import com.superapp.core.payment.domain.enums.PaymentProvider;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Payment provider adapter SPI
+ *
+ * One implementation per external rail. Calls run on a dispatcher thread, outside any DB
+ * transaction, and may be interrupted when they exceed the provider's timeout. A call that times
+ * out or fails leaves the outcome unknown, and the payment is charged again later with the same
+ * payment id; adapters must pass it to the provider as the idempotency key, so a provider that
+ * already took the charge answers with its original outcome instead of charging twice.
+ */
+public interface PaymentProviderAdapter {
+
+    /**
+     * Providers this adapter charges through
+     */
+    Set<PaymentProvider> providers();
+
+    /**
+     * Charge the payment; a declined charge is a result, a failed call is an exception
+     */
+    ChargeResult charge(ChargeRequest request) throws Exception;
+
+    record ChargeRequest(UUID paymentId, String tenantId, UUID userId, PaymentProvider provider,
+                         BigDecimal amount, String currency, String paymentMethodId, String metadata) {
+    }
+
+    record ChargeResult(boolean approved, String externalReference, String declineReason) {
+
+        public static ChargeResult approved(String externalReference) {
+            return new ChargeResult(true, externalReference, null);
+        }
+
+        public static ChargeResult declined(String externalReference, String declineReason) {
+            return new ChargeResult(false, externalReference, declineReason);
+        }
+    }
+}
+
+
+
+
@@ -10,12 +10,17 @@ import com.superapp.core.payment.dto.response.PaymentTransactionResponse;
 import com.superapp.core.payment.repository.PaymentTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -26,8 +31,25 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PaymentService {
 
+    private static final int OUTCOME_WRITE_ATTEMPTS = 3;
+    private static final long OUTCOME_WRITE_BACKOFF_MS = 200;
+
     private final PaymentTransactionRepository transactionRepository;
     private final PaymentMapper paymentMapper;
+    private final ProviderDispatcher providerDispatcher;
+    private final PaymentStateMachine paymentStateMachine;
+
+    /**
+     * Past this, a PROCESSING payment's outcome counts as unknown; keep it above the provider timeouts
+     */
+    @Value("${payment.recovery.stale-after-ms:60000}")
+    private long staleAfterMs;
+
+    @Value("${payment.recovery.max-attempts:5}")
+    private int maxDispatchAttempts;
+
+    @Value("${payment.recovery.batch-size:100}")
+    private int recoveryBatchSize;
 
     @Transactional
     public PaymentTransactionResponse initiatePayment(String tenantId, InitiatePaymentRequest request) {
@@ -55,40 +77,142 @@ public class PaymentService {
         return paymentMapper.toResponse(saved);
     }
 
-    @Transactional
+    /**
+     * Claim a pending payment and dispatch it to its provider.
+     * The claim is a compare-and-set PENDING -> PROCESSING, so a payment is dispatched at most once
+     * however many callers race. Returns as soon as the payment is PROCESSING; the provider call runs
+     * outside any DB transaction and its outcome is written by {@link #recordOutcome}; a payment whose
+     * outcome stays unknown is charged again by {@link #recoverStalePayments}.
+     * Fails fast when the provider is at capacity.
+     */
     public PaymentTransactionResponse processPayment(UUID transactionId, String tenantId) {
         log.info("Processing payment: {}", transactionId);
 
         PaymentTransaction transaction = transactionRepository
                 .findByIdAndTenantId(transactionId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("PaymentTransaction", "id", transactionId));
-
         if (transaction.getStatus() != PaymentStatus.PENDING) {
             throw new PaymentException("Payment already processed");
         }
+        if (!providerDispatcher.supports(transaction.getProvider())) {
+            throw new PaymentException("No adapter configured for provider " + transaction.getProvider());
+        }
+        ProviderDispatcher.Permit permit = providerDispatcher.tryAcquire(transaction.getProvider())
+                .orElseThrow(() -> new PaymentException("Provider " + transaction.getProvider() + " is at capacity, retry later"));
 
+        LocalDateTime now = LocalDateTime.now();
+        boolean claimed;
         try {
-            // Simulate payment processing
-            // In real implementation, call external payment provider API
-            transaction.setStatus(PaymentStatus.PROCESSING);
-            transactionRepository.save(transaction);
-
-            // Simulate successful payment
-            transaction.setStatus(PaymentStatus.COMPLETED);
-            transaction.setCompletedAt(LocalDateTime.now());
-            transaction.setExternalReference("PAY-" + UUID.randomUUID());
-
-            PaymentTransaction completed = transactionRepository.save(transaction);
-            log.info("Payment completed: {}", completed.getId());
-
-            return paymentMapper.toResponse(completed);
-        } catch (Exception e) {
-            log.error("Payment failed: {}", transactionId, e);
-            transaction.setStatus(PaymentStatus.FAILED);
-            transaction.setFailedAt(LocalDateTime.now());
-            transaction.setErrorMessage(e.getMessage());
-            transactionRepository.save(transaction);
-            throw new PaymentException("Payment processing failed", e);
+            claimed = paymentStateMachine.start(transactionId, tenantId, now);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        if (!claimed) {
+            permit.release();
+            throw new PaymentException("Payment already processed");
+        }
+
+        dispatch(transaction, permit);
+
+        PaymentTransactionResponse response = paymentMapper.toResponse(transaction);
+        response.setStatus(PaymentStatus.PROCESSING);
+        response.setProcessingStartedAt(now);
+        response.setUpdatedAt(now);
+        return response;
+    }
+
+    /**
+     * Charge again the payments left PROCESSING past staleAfterMs: their provider call timed out or
+     * failed, or its outcome could not be written. The payment id is the idempotency key, so a
+     * provider that already took the charge answers with its original outcome. Each payment gets
+     * at most maxDispatchAttempts calls; after that it stays PROCESSING for manual resolution.
+     */
+    @Scheduled(fixedDelayString = "${payment.recovery.interval-ms:30000}",
+            initialDelayString = "${payment.recovery.initial-delay-ms:30000}")
+    public void recoverStalePayments() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentTransaction> stale = transactionRepository.findStale(PaymentStatus.PROCESSING,
+                now.minusNanos(staleAfterMs * 1_000_000), maxDispatchAttempts, PageRequest.of(0, recoveryBatchSize));
+
+        for (PaymentTransaction transaction : stale) {
+            if (!providerDispatcher.supports(transaction.getProvider())) {
+                continue;
+            }
+            Optional<ProviderDispatcher.Permit> permit = providerDispatcher.tryAcquire(transaction.getProvider());
+            if (permit.isEmpty()) {
+                continue;
+            }
+            boolean reclaimed;
+            try {
+                reclaimed = transactionRepository.reclaim(transaction.getId(), PaymentStatus.PROCESSING,
+                        transaction.getProcessingStartedAt(), now) == 1;
+            } catch (RuntimeException e) {
+                permit.get().release();
+                throw e;
+            }
+            if (!reclaimed) {
+                permit.get().release();
+                continue;
+            }
+
+            int attempt = transaction.getDispatchAttempts() + 1;
+            log.warn("Outcome of payment {} unknown since {}, charging again (attempt {} of {})",
+                    transaction.getId(), transaction.getProcessingStartedAt(), attempt, maxDispatchAttempts);
+            dispatch(transaction, permit.get());
+        }
+    }
+
+    private void dispatch(PaymentTransaction transaction, ProviderDispatcher.Permit permit) {
+        permit.dispatch(new PaymentProviderAdapter.ChargeRequest(transaction.getId(), transaction.getTenantId(),
+                        transaction.getUserId(), transaction.getProvider(), transaction.getAmount(),
+                        transaction.getCurrency(), transaction.getPaymentMethodId(), transaction.getMetadata()))
+                .whenComplete((result, error) -> recordOutcome(transaction.getId(), result, error));
+    }
+
+    /**
+     * Write a provider outcome as one conditional update of the PROCESSING payment, retrying failed writes.
+     * A call that timed out or failed may still have charged, so it leaves the payment PROCESSING for
+     * {@link #recoverStalePayments}, as does a write that keeps failing.
+     */
+    private void recordOutcome(UUID transactionId, PaymentProviderAdapter.ChargeResult result, Throwable error) {
+        if (error != null) {
+            log.warn("Outcome of payment {} unknown ({}), left PROCESSING for recovery", transactionId, error.toString());
+            return;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                boolean recorded;
+                if (result.approved()) {
+                    recorded = paymentStateMachine.complete(transactionId, result.externalReference(), now);
+                    log.info("Payment completed: {}", transactionId);
+                } else {
+                    log.info("Payment declined: {} ({})", transactionId, result.declineReason());
+                    recorded = paymentStateMachine.fail(transactionId, result.externalReference(), result.declineReason(), now);
+                }
+                if (!recorded) {
+                    log.warn("Payment {} was no longer PROCESSING, provider outcome not recorded", transactionId);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == OUTCOME_WRITE_ATTEMPTS) {
+                    log.error("Could not record provider outcome for payment {}, left PROCESSING for recovery",
+                            transactionId, e);
+                    return;
+                }
+                log.warn("Could not record provider outcome for payment {} (attempt {}): {}",
+                        transactionId, attempt, e.getMessage());
+            }
+            try {
+                Thread.sleep(OUTCOME_WRITE_BACKOFF_MS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while recording provider outcome for payment {}, left PROCESSING for recovery",
+                        transactionId);
+                return;
+            }
         }
     }
 
@@ -0,0 +1,70 @@
+package com.superapp.core.payment.service;
+
+import com.superapp.core.payment.domain.enums.PaymentStatus;
+import com.superapp.core.payment.repository.PaymentTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Payment State Machine
+ *
+ * Applies each status transition as one conditional UPDATE ... WHERE id = ? AND status IN (...),
+ * setting the transition's timestamp in the same statement. The statuses a transition may start
+ * from are the ones whose {@link PaymentStatus#next()} contains its target, so that table is the
+ * only place transitions are allowed. A transition returns whether it won: of two concurrent
+ * callers moving a payment out of the same status, exactly one gets true.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentStateMachine {
+
+    private final PaymentTransactionRepository transactionRepository;
+
+    /**
+     * To PROCESSING (from PENDING), stamping processingStartedAt
+     */
+    public boolean start(UUID id, String tenantId, LocalDateTime now) {
+        return apply(id, PaymentStatus.PROCESSING,
+                (from, to) -> transactionRepository.start(id, tenantId, from, to, now));
+    }
+
+    /**
+     * To COMPLETED (from PROCESSING), stamping completedAt
+     */
+    public boolean complete(UUID id, String externalReference, LocalDateTime now) {
+        return apply(id, PaymentStatus.COMPLETED,
+                (from, to) -> transactionRepository.complete(id, from, to, externalReference, now));
+    }
+
+    /**
+     * To FAILED (from PROCESSING), stamping failedAt
+     */
+    public boolean fail(UUID id, String externalReference, String errorMessage, LocalDateTime now) {
+        return apply(id, PaymentStatus.FAILED,
+                (from, to) -> transactionRepository.fail(id, from, to, externalReference, errorMessage, now));
+    }
+
+    private boolean apply(UUID id, PaymentStatus to,
+                          BiFunction<Set<PaymentStatus>, PaymentStatus, Integer> update) {
+        Set<PaymentStatus> from = to.previous();
+        if (from.isEmpty()) {
+            throw new IllegalStateException("No payment status may transition to " + to);
+        }
+        boolean won = update.apply(from, to) == 1;
+        if (!won) {
+            log.debug("Payment {} was not in {}, transition to {} lost", id, from, to);
+        }
+        return won;
+    }
+}
+
+
+
+
@@ -0,0 +1,195 @@
+package com.superapp.core.payment.service;
+
+import com.superapp.core.payment.domain.enums.PaymentProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provider Dispatcher
+ *
+ * Runs provider calls off the request thread, with a bulkhead per provider:
+ * - A semaphore caps in-flight calls per provider; a caller that cannot get a permit is
+ *   turned away before anything is written, so one slow provider cannot take the others down
+ * - Every call has a timeout, after which it is interrupted and its future fails; the permit is
+ *   held until the call's thread is done, so a call that ignores the interrupt still counts
+ *
+ * Limits default to payment.dispatch.* and can be set per provider under
+ * payment.providers.&lt;provider&gt;.max-concurrent / timeout-ms.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProviderDispatcher {
+
+    private final List<PaymentProviderAdapter> adapters;
+    private final Environment environment;
+
+    @Value("${payment.dispatch.max-concurrent:32}")
+    private int defaultMaxConcurrent;
+
+    @Value("${payment.dispatch.timeout-ms:10000}")
+    private long defaultTimeoutMs;
+
+    private final Map<PaymentProvider, Bulkhead> bulkheads = new EnumMap<>(PaymentProvider.class);
+    private ExecutorService executor;
+    private ScheduledExecutorService timeouts;
+
+    @PostConstruct
+    void init() {
+        // Adapters come in @Order order, so a real adapter wins over the stub for its providers
+        Map<PaymentProvider, PaymentProviderAdapter> byProvider = new EnumMap<>(PaymentProvider.class);
+        for (PaymentProviderAdapter adapter : adapters) {
+            adapter.providers().forEach(provider -> byProvider.putIfAbsent(provider, adapter));
+        }
+        byProvider.forEach((provider, adapter) -> {
+            String prefix = "payment.providers." + provider.name().toLowerCase().replace('_', '-');
+            int maxConcurrent = environment.getProperty(prefix + ".max-concurrent", Integer.class, defaultMaxConcurrent);
+            long timeoutMs = environment.getProperty(prefix + ".timeout-ms", Long.class, defaultTimeoutMs);
+            bulkheads.put(provider, new Bulkhead(provider, adapter, new Semaphore(maxConcurrent), timeoutMs));
+            log.info("Provider {} dispatched to {} (max {} in flight, timeout {} ms)",
+                    provider, adapter.getClass().getSimpleName(), maxConcurrent, timeoutMs);
+        });
+
+        // Thread count is bounded by the sum of the bulkhead permits
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "provider-dispatch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provider-dispatch-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timeouts.shutdownNow();
+        executor.shutdown();
+    }
+
+    public boolean supports(PaymentProvider provider) {
+        return bulkheads.containsKey(provider);
+    }
+
+    /**
+     * Reserve a slot with the provider's bulkhead; empty when the provider is at capacity.
+     * The permit must be either dispatched or released.
+     */
+    public Optional<Permit> tryAcquire(PaymentProvider provider) {
+        Bulkhead bulkhead = bulkheads.get(provider);
+        if (bulkhead == null || !bulkhead.permits().tryAcquire()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Permit(bulkhead));
+    }
+
+    /**
+     * A reserved slot in one provider's bulkhead
+     */
+    public final class Permit {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        /**
+         * Call the provider on a dispatcher thread. The future fails with a TimeoutException
+         * once the provider's timeout passes; the permit is returned when the call's thread is done.
+         */
+        public CompletableFuture<PaymentProviderAdapter.ChargeResult> dispatch(PaymentProviderAdapter.ChargeRequest request) {
+            CompletableFuture<PaymentProviderAdapter.ChargeResult> result = new CompletableFuture<>();
+            Call call = new Call();
+            try {
+                executor.execute(() -> {
+                    call.begin();
+                    try {
+                        // Not called at all when it timed out before a thread picked it up
+                        if (!result.isDone()) {
+                            result.complete(bulkhead.adapter().charge(request));
+                        }
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    } finally {
+                        call.end();
+                        release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+
+            timeouts.schedule(() -> {
+                if (result.completeExceptionally(new TimeoutException(
+                        bulkhead.provider() + " did not answer within " + bulkhead.timeoutMs() + " ms"))) {
+                    call.interrupt();
+                }
+            }, bulkhead.timeoutMs(), TimeUnit.MILLISECONDS);
+            return result;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.permits().release();
+            }
+        }
+    }
+
+    /**
+     * The thread running one provider call, interrupted on timeout only while it still runs that call
+     */
+    private static final class Call {
+        private Thread thread;
+        private boolean done;
+
+        private synchronized void begin() {
+            thread = Thread.currentThread();
+        }
+
+        private synchronized void interrupt() {
+            if (thread != null && !done) {
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Clears an interrupt aimed at this call, so it does not reach the thread's next task
+         */
+        private synchronized void end() {
+            done = true;
+            Thread.interrupted();
+        }
+    }
+
+    private record Bulkhead(PaymentProvider provider, PaymentProviderAdapter adapter, Semaphore permits, long timeoutMs) {
+    }
+}
+
+
+
+
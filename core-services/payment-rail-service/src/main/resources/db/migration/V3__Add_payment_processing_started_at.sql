@@ -0,0 +1,5 @@
+-- Payment Rail Service - Processing start time, set by the PENDING -> PROCESSING transition
+
+ALTER TABLE payment_transactions ADD COLUMN processing_started_at TIMESTAMP;
+
+COMMENT ON COLUMN payment_transactions.processing_started_at IS 'When the payment was claimed for dispatch to its provider';
@@ -0,0 +1,7 @@
+-- Payment Rail Service - Provider calls made per payment, for the recovery of payments whose outcome is unknown
+
+ALTER TABLE payment_transactions ADD COLUMN dispatch_attempts INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_payment_transactions_status_processing ON payment_transactions(status, processing_started_at);
+
+COMMENT ON COLUMN payment_transactions.dispatch_attempts IS 'Provider calls made for the payment; a call that timed out or failed is made again with the same idempotency key';
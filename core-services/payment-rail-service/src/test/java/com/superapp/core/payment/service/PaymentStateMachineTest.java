@@ -0,0 +1,127 @@
+package com.superapp.core.payment.service;
+
+import com.superapp.core.payment.PostgresTestDatabase;
+import com.superapp.core.payment.domain.entity.PaymentTransaction;
+import com.superapp.core.payment.domain.enums.PaymentProvider;
+import com.superapp.core.payment.domain.enums.PaymentStatus;
+import com.superapp.core.payment.repository.PaymentTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conditional status updates against PostgreSQL: of concurrent callers racing for one transition,
+ * exactly one wins.
+ *
+ * Runs against PostgreSQL, see {@link PostgresTestDatabase}.
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=none",
+        "superapp.id.node-id=0"
+})
+@EnabledIf("com.superapp.core.payment.PostgresTestDatabase#isAvailable")
+class PaymentStateMachineTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PaymentStateMachine stateMachine;
+
+    @Autowired
+    private PaymentTransactionRepository transactionRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Test
+    void concurrentStarts_shouldHaveExactlyOneWinner() throws Exception {
+        PaymentTransaction payment = pendingPayment();
+
+        List<Boolean> won = race(t -> stateMachine.start(payment.getId(), payment.getTenantId(), LocalDateTime.now()));
+
+        assertThat(won).containsOnlyOnce(true);
+        PaymentTransaction started = transactionRepository.findById(payment.getId()).orElseThrow();
+        assertThat(started.getStatus()).isEqualTo(PaymentStatus.PROCESSING);
+        assertThat(started.getDispatchAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentOutcomes_shouldHaveExactlyOneWinner() throws Exception {
+        PaymentTransaction payment = pendingPayment();
+        assertThat(stateMachine.start(payment.getId(), payment.getTenantId(), LocalDateTime.now())).isTrue();
+
+        List<Boolean> won = race(t -> t % 2 == 0
+                ? stateMachine.complete(payment.getId(), "REF-" + t, LocalDateTime.now())
+                : stateMachine.fail(payment.getId(), "REF-" + t, "declined", LocalDateTime.now()));
+
+        assertThat(won).containsOnlyOnce(true);
+        PaymentTransaction resolved = transactionRepository.findById(payment.getId()).orElseThrow();
+        int winner = won.indexOf(true);
+        assertThat(resolved.getStatus()).isEqualTo(winner % 2 == 0 ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+        assertThat(resolved.getExternalReference()).isEqualTo("REF-" + winner);
+        // A resolved payment cannot be started again
+        assertThat(stateMachine.start(payment.getId(), payment.getTenantId(), LocalDateTime.now())).isFalse();
+    }
+
+    private PaymentTransaction pendingPayment() {
+        return transactionRepository.save(PaymentTransaction.builder()
+                .tenantId("state-machine-test")
+                .userId(UUID.randomUUID())
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .status(PaymentStatus.PENDING)
+                .provider(PaymentProvider.STRIPE)
+                .build());
+    }
+
+    /**
+     * Run one transition per thread, all released at once; results in thread order
+     */
+    private static List<Boolean> race(Transition transition) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(executor.submit((Callable<Boolean>) () -> {
+                start.await();
+                return transition.apply(thread);
+            }));
+        }
+        start.countDown();
+
+        List<Boolean> won = new ArrayList<>();
+        for (Future<Boolean> result : results) {
+            won.add(result.get());
+        }
+        executor.shutdown();
+        return won;
+    }
+
+    private interface Transition {
+        boolean apply(int thread);
+    }
+}
+
+
+
+
+
@@ -0,0 +1,190 @@
+package com.superapp.core.payment.service;
+
+import com.superapp.core.payment.domain.enums.PaymentProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderDispatcherTest {
+
+    private ProviderDispatcher dispatcher;
+
+    @AfterEach
+    void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void tryAcquire_beyondMaxConcurrent_shouldBeEmpty() {
+        dispatcher = dispatcher(request -> PaymentProviderAdapter.ChargeResult.approved("REF"), 10_000,
+                new MockEnvironment().withProperty("payment.providers.bank-transfer.max-concurrent", "1"));
+
+        Optional<ProviderDispatcher.Permit> first = dispatcher.tryAcquire(PaymentProvider.STRIPE);
+        Optional<ProviderDispatcher.Permit> second = dispatcher.tryAcquire(PaymentProvider.STRIPE);
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(dispatcher.tryAcquire(PaymentProvider.STRIPE)).isEmpty();
+        // Other providers have bulkheads of their own
+        assertThat(dispatcher.tryAcquire(PaymentProvider.BANK_TRANSFER)).isPresent();
+        assertThat(dispatcher.tryAcquire(PaymentProvider.BANK_TRANSFER)).isEmpty();
+
+        first.get().release();
+        first.get().release();
+        assertThat(dispatcher.tryAcquire(PaymentProvider.STRIPE)).isPresent();
+        assertThat(dispatcher.tryAcquire(PaymentProvider.STRIPE)).isEmpty();
+    }
+
+    @Test
+    void dispatch_shouldCompleteAndReturnPermit() throws Exception {
+        dispatcher = dispatcher(request -> PaymentProviderAdapter.ChargeResult.approved("REF-" + request.paymentId()),
+                10_000, new MockEnvironment());
+        UUID paymentId = UUID.randomUUID();
+
+        PaymentProviderAdapter.ChargeResult result = dispatcher.tryAcquire(PaymentProvider.STRIPE).orElseThrow()
+                .dispatch(request(paymentId)).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.approved()).isTrue();
+        assertThat(result.externalReference()).isEqualTo("REF-" + paymentId);
+        awaitPermits(PaymentProvider.STRIPE, 2);
+    }
+
+    @Test
+    void dispatch_whenProviderFails_shouldFailFutureAndReturnPermit() {
+        dispatcher = dispatcher(request -> {
+            throw new IllegalStateException("connection reset");
+        }, 10_000, new MockEnvironment());
+
+        CompletableFuture<PaymentProviderAdapter.ChargeResult> result =
+                dispatcher.tryAcquire(PaymentProvider.STRIPE).orElseThrow().dispatch(request(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        awaitPermits(PaymentProvider.STRIPE, 2);
+    }
+
+    @Test
+    void dispatch_afterTimeout_shouldInterruptCall() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        dispatcher = dispatcher(request -> {
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return PaymentProviderAdapter.ChargeResult.approved("REF");
+        }, 50, new MockEnvironment());
+
+        CompletableFuture<PaymentProviderAdapter.ChargeResult> result =
+                dispatcher.tryAcquire(PaymentProvider.STRIPE).orElseThrow().dispatch(request(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitPermits(PaymentProvider.STRIPE, 2);
+    }
+
+    @Test
+    void dispatch_afterTimeout_shouldKeepPermitUntilCallEnds() throws Exception {
+        CountDownLatch finish = new CountDownLatch(1);
+        dispatcher = dispatcher(request -> {
+            // A client that ignores interrupts
+            while (true) {
+                try {
+                    if (finish.await(30, TimeUnit.SECONDS)) {
+                        return PaymentProviderAdapter.ChargeResult.approved("REF");
+                    }
+                } catch (InterruptedException ignored) {
+                    // keep waiting
+                }
+            }
+        }, 50, new MockEnvironment());
+
+        CompletableFuture<PaymentProviderAdapter.ChargeResult> first =
+                dispatcher.tryAcquire(PaymentProvider.STRIPE).orElseThrow().dispatch(request(UUID.randomUUID()));
+        CompletableFuture<PaymentProviderAdapter.ChargeResult> second =
+                dispatcher.tryAcquire(PaymentProvider.STRIPE).orElseThrow().dispatch(request(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(dispatcher.tryAcquire(PaymentProvider.STRIPE)).isEmpty();
+
+        finish.countDown();
+        awaitPermits(PaymentProvider.STRIPE, 2);
+    }
+
+    /**
+     * Wait until the provider's bulkhead has the given number of free permits again
+     */
+    private void awaitPermits(PaymentProvider provider, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            List<ProviderDispatcher.Permit> permits = new ArrayList<>();
+            Optional<ProviderDispatcher.Permit> permit;
+            while ((permit = dispatcher.tryAcquire(provider)).isPresent()) {
+                permits.add(permit.get());
+            }
+            permits.forEach(ProviderDispatcher.Permit::release);
+            if (permits.size() == expected) {
+                return;
+            }
+            assertThat(System.nanoTime()).as("free permits: %d", permits.size()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static ProviderDispatcher dispatcher(Charge charge, long timeoutMs, MockEnvironment environment) {
+        PaymentProviderAdapter adapter = new PaymentProviderAdapter() {
+            @Override
+            public Set<PaymentProvider> providers() {
+                return EnumSet.allOf(PaymentProvider.class);
+            }
+
+            @Override
+            public ChargeResult charge(ChargeRequest request) throws Exception {
+                return charge.charge(request);
+            }
+        };
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(adapter), environment);
+        ReflectionTestUtils.setField(dispatcher, "defaultMaxConcurrent", 2);
+        ReflectionTestUtils.setField(dispatcher, "defaultTimeoutMs", timeoutMs);
+        dispatcher.init();
+        return dispatcher;
+    }
+
+    private static PaymentProviderAdapter.ChargeRequest request(UUID paymentId) {
+        return new PaymentProviderAdapter.ChargeRequest(paymentId, "tenant", UUID.randomUUID(), PaymentProvider.STRIPE,
+                new BigDecimal("10.00"), "USD", null, null);
+    }
+
+    @FunctionalInterface
+    private interface Charge {
+        PaymentProviderAdapter.ChargeResult charge(PaymentProviderAdapter.ChargeRequest request) throws Exception;
+    }
+}
+
+
+
+
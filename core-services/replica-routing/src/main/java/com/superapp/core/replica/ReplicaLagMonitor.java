@@ -0,0 +1,68 @@
+package com.superapp.core.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Replica Lag Monitor
+ *
+ * Polls the replica's replay lag; the replica is only used while the lag is within
+ * maxLagMs and the last probe succeeded. A replica that has replayed everything it
+ * received counts as lag 0, so an idle primary does not make it look stale.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+
+    private volatile boolean usable;
+    private volatile long lagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMs) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Last measured lag in milliseconds, -1 if the replica could not be reached
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${superapp.datasource.replica.lag-check-interval-ms:1000}")
+    public void probe() {
+        boolean wasUsable = usable;
+        try {
+            Number lag = replica.queryForObject(LAG_SQL, Number.class);
+            lagMs = lag != null ? lag.longValue() : 0;
+            usable = lagMs <= maxLagMs;
+        } catch (RuntimeException e) {
+            lagMs = -1;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica probe failed, routing reads to primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != usable) {
+            log.warn("Replica lag {} ms, reads now go to {}", lagMs, usable ? "replica" : "primary");
+        }
+    }
+}
+
+
+
+
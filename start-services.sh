@@ -131,7 +131,8 @@ if lsof -ti:8081 > /dev/null 2>&1; then
 else
     echo -e "${YELLOW}⏳ Building Customer Identity Service...${NC}"
     cd "$(dirname "$0")/core-services/identity-service"
-    mvn clean package -DskipTests > "$LOG_DIR/customer-identity-build.log" 2>&1
+    mvn -f ../replica-routing/pom.xml clean install -DskipTests > "$LOG_DIR/customer-identity-build.log" 2>&1
+    mvn clean package -DskipTests >> "$LOG_DIR/customer-identity-build.log" 2>&1
     
     echo -e "${YELLOW}⏳ Starting Customer Identity Service...${NC}"
     java -jar target/*.jar \